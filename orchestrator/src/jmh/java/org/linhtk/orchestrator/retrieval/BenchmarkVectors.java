@@ -0,0 +1,28 @@
+package org.linhtk.orchestrator.retrieval;
+
+import java.util.Random;
+
+/**
+ * Deterministic random embeddings shared by the retrieval benchmarks, so every engine
+ * searches the same corpus with the same queries.
+ */
+final class BenchmarkVectors {
+
+    static final long CORPUS_SEED = 42;
+    static final long QUERY_SEED = 7;
+    static final int QUERIES = 256;
+
+    private BenchmarkVectors() {
+    }
+
+    static float[][] random(int count, int dimension, long seed) {
+        Random random = new Random(seed);
+        float[][] vectors = new float[count][dimension];
+        for (float[] vector : vectors) {
+            for (int i = 0; i < dimension; i++) {
+                vector[i] = (float) random.nextGaussian();
+            }
+        }
+        return vectors;
+    }
+}
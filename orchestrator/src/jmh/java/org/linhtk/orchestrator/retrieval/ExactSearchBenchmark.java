@@ -0,0 +1,68 @@
+package org.linhtk.orchestrator.retrieval;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Top-K latency of {@link ExactChunkIndex} with SIMD and scalar dot products.
+ * Compare with {@link PgVectorSearchBenchmark} on the same corpus size and dimension.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class ExactSearchBenchmark {
+
+    @Param({"5000", "20000"})
+    int chunks;
+
+    @Param({"768", "1536"})
+    int dimension;
+
+    @Param({"true", "false"})
+    boolean simd;
+
+    @Param("5")
+    int topK;
+
+    private ExactChunkIndex index;
+    private ChunkSearchQuery[] queries;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        index = new ExactChunkIndex(dimension, chunks, simd);
+        float[][] corpus = BenchmarkVectors.random(chunks, dimension, BenchmarkVectors.CORPUS_SEED);
+        for (int i = 0; i < corpus.length; i++) {
+            index.add(new ChunkSearchHit("chunk-" + i, "knowledge", i, "", Map.of(), 0), corpus[i]);
+        }
+
+        float[][] vectors = BenchmarkVectors.random(BenchmarkVectors.QUERIES, dimension, BenchmarkVectors.QUERY_SEED);
+        queries = new ChunkSearchQuery[vectors.length];
+        for (int i = 0; i < vectors.length; i++) {
+            queries[i] = new ChunkSearchQuery("agent", List.of(), vectors[i], topK);
+        }
+    }
+
+    @Benchmark
+    public List<ChunkSearchHit> search() {
+        ChunkSearchQuery query = queries[next];
+        next = (next + 1) % queries.length;
+        return index.search(query);
+    }
+}
@@ -0,0 +1,139 @@
+package org.linhtk.orchestrator.retrieval;
+
+import org.linhtk.orchestrator.config.hibernate.PgVectorCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Top-K latency of the pgvector path: an HNSW cosine query over one table, including the
+ * JDBC round trip, on the same corpus as {@link ExactSearchBenchmark}.
+ * Runs against a scratch database; the benchmark table is created in setup and dropped afterwards.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PgVectorSearchBenchmark {
+
+    private static final String TABLE = "jmh_vector_search";
+    private static final int INSERT_BATCH_SIZE = 500;
+
+    @Param("")
+    String jdbcUrl;
+
+    @Param("postgres")
+    String user;
+
+    @Param("")
+    String password;
+
+    @Param({"5000", "20000"})
+    int chunks;
+
+    @Param({"768", "1536"})
+    int dimension;
+
+    @Param("5")
+    int topK;
+
+    private Connection connection;
+    private PreparedStatement search;
+    private String[] queries;
+    private int next;
+
+    @Setup
+    public void setUp() throws SQLException {
+        if (jdbcUrl.isBlank()) {
+            throw new IllegalStateException("Pass a scratch database with -p jdbcUrl=jdbc:postgresql://...");
+        }
+        connection = DriverManager.getConnection(jdbcUrl, user, password);
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS " + TABLE);
+            statement.execute("CREATE TABLE " + TABLE + " (id TEXT PRIMARY KEY, embedding vector(" + dimension + "))");
+        }
+
+        float[][] corpus = BenchmarkVectors.random(chunks, dimension, BenchmarkVectors.CORPUS_SEED);
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO " + TABLE + " (id, embedding) VALUES (?, ?::vector)")) {
+            for (int i = 0; i < corpus.length; i++) {
+                insert.setString(1, "chunk-" + i);
+                insert.setString(2, PgVectorCodec.formatText(corpus[i]));
+                insert.addBatch();
+                if ((i + 1) % INSERT_BATCH_SIZE == 0) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE INDEX ON " + TABLE + " USING hnsw (embedding vector_cosine_ops)");
+            statement.execute("ANALYZE " + TABLE);
+        }
+
+        float[][] vectors = BenchmarkVectors.random(BenchmarkVectors.QUERIES, dimension, BenchmarkVectors.QUERY_SEED);
+        queries = new String[vectors.length];
+        for (int i = 0; i < vectors.length; i++) {
+            queries[i] = PgVectorCodec.formatText(vectors[i]);
+        }
+
+        search = connection.prepareStatement("""
+                SELECT id, 1 - (embedding <=> ?::vector) AS similarity
+                FROM %s
+                ORDER BY embedding <=> ?::vector
+                LIMIT ?
+                """.formatted(TABLE));
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        if (connection == null) {
+            return;
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS " + TABLE);
+        } finally {
+            connection.close();
+        }
+    }
+
+    @Benchmark
+    public List<String> search() throws SQLException {
+        String query = queries[next];
+        next = (next + 1) % queries.length;
+
+        search.setString(1, query);
+        search.setString(2, query);
+        search.setInt(3, topK);
+        List<String> ids = new ArrayList<>(topK);
+        try (ResultSet rs = search.executeQuery()) {
+            while (rs.next()) {
+                ids.add(rs.getString(1));
+            }
+        }
+        return ids;
+    }
+}
@@ -6,11 +6,14 @@ import org.springframework.ai.document.Document;
 import org.springframework.ai.transformer.splitter.TokenTextSplitter;
 import org.springframework.stereotype.Component;
 import org.springframework.web.multipart.MultipartFile;
+import reactor.core.publisher.Flux;
 
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Document chunker component responsible for splitting documents into manageable chunks
@@ -26,6 +29,11 @@ import java.util.Optional;
 @Slf4j
 public class DocumentChunker {
 
+    /**
+     * Metadata key holding the original filename a chunk was split from
+     */
+    public static final String METADATA_SOURCE = "source";
+
     private final DocumentTextExtractor textExtractor;
     private final ChunkerProfileDetector profileDetector;
     
@@ -37,7 +45,7 @@ public class DocumentChunker {
     /**
      * Default prebuilt splitters - lazily initialized for better startup performance
      */
-    private final Map<String, TokenTextSplitter> defaultSplitters = new HashMap<>();
+    private final Map<String, TokenTextSplitter> defaultSplitters = new ConcurrentHashMap<>();
 
     public DocumentChunker(ChunkerProperties chunkerProperties,
                           DocumentTextExtractor textExtractor,
@@ -103,6 +111,68 @@ public class DocumentChunker {
         }
     }
 
+    /**
+     * Checks whether a file can be chunked incrementally with {@link #streamDocumentChunks}.
+     *
+     * @param file MultipartFile to check
+     * @return true if the file type supports page-by-page streaming
+     */
+    public boolean supportsStreaming(MultipartFile file) {
+        if (file == null) {
+            return false;
+        }
+        String fileName = Optional.ofNullable(file.getOriginalFilename()).orElse("unknown");
+        return textExtractor.supportsStreaming(extractFileExtension(fileName));
+    }
+
+    /**
+     * Split file into token-aware chunks page by page.
+     * Each page is split as soon as it is extracted, so memory stays bounded to a few pages
+     * regardless of document size. Chunks keep the page number of the page they came from.
+     *
+     * Implementation notes:
+     * - The profile is detected from the first non-blank page when no override is given
+     * - Chunks never span a page boundary
+     * - The returned Flux is cold; the file is read only when it is subscribed to
+     *
+     * @param file MultipartFile to process, must support streaming
+     * @param profileOverride Explicit profile name (optional)
+     * @return Flux of Document chunks with metadata, in document order
+     */
+    public Flux<Document> streamDocumentChunks(MultipartFile file, String profileOverride) {
+        if (file == null || file.isEmpty()) {
+            log.debug("File is null or empty, returning empty stream");
+            return Flux.empty();
+        }
+
+        String fileName = Optional.ofNullable(file.getOriginalFilename()).orElse("unknown");
+        String extension = extractFileExtension(fileName);
+
+        return Flux.defer(() -> {
+            AtomicReference<String> chosenProfile = new AtomicReference<>(profileOverride);
+
+            return textExtractor.streamPages(file, extension)
+                    .concatMapIterable(page -> {
+                        if (chosenProfile.get() == null) {
+                            chosenProfile.set(profileDetector.detect(page.getText(), extension));
+                        }
+                        String profile = chosenProfile.get();
+
+                        Map<String, Object> metadata = createMetadata(fileName, extension, file.getSize(), profile);
+                        metadata.putAll(page.getMetadata());
+
+                        Document pageDocument = Document.builder()
+                                .text(page.getText())
+                                .metadata(metadata)
+                                .build();
+
+                        return getOrCreateSplitter(profile).apply(List.of(pageDocument));
+                    })
+                    .doOnComplete(() -> log.debug("Finished streaming chunks of '{}' using profile '{}'",
+                            fileName, chosenProfile.get()));
+        }).onErrorMap(e -> !(e instanceof IllegalArgumentException),
+                e -> new RuntimeException("Document chunking failed for file: " + fileName, e));
+    }
 
     /**
      * Get or lazily create a TokenTextSplitter for the specified profile.
@@ -175,7 +245,7 @@ public class DocumentChunker {
      */
     private Map<String, Object> createMetadata(String fileName, String extension, long fileSize, String chosenProfile) {
         Map<String, Object> metadata = new HashMap<>();
-        metadata.put("source", fileName);
+        metadata.put(METADATA_SOURCE, fileName);
         metadata.put("extension", extension);
         metadata.put("fileSize", fileSize);
         metadata.put("profile", chosenProfile);
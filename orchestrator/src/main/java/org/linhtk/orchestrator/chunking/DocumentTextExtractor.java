@@ -1,15 +1,26 @@
 package org.linhtk.orchestrator.chunking;
 
+import lombok.extern.slf4j.Slf4j;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
 import org.springframework.ai.document.Document;
 import org.springframework.ai.reader.pdf.PagePdfDocumentReader;
 import org.springframework.core.io.InputStreamResource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.multipart.MultipartFile;
+import reactor.core.publisher.Flux;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Document text extractor component responsible for extracting text content from various file formats.
@@ -17,9 +28,16 @@ import java.util.List;
  * Follows Spring AI patterns for document processing and chunking.
  */
 @Component
+@Slf4j
 public class DocumentTextExtractor {
     
     private static final int MAX_CONTENT_LENGTH = 10 * 1024 * 1024; // 10MB limit for extracted text
+
+    /**
+     * Metadata key holding the 1-based page number of a streamed page.
+     * Same key as PagePdfDocumentReader so downstream consumers see one convention.
+     */
+    public static final String METADATA_PAGE_NUMBER = "page_number";
     
     /**
      * Extracts text content from uploaded file based on file extension.
@@ -49,6 +67,48 @@ public class DocumentTextExtractor {
         };
     }
 
+    /**
+     * Checks whether a file type can be extracted page by page with {@link #streamPages}.
+     *
+     * @param ext the file extension (e.g., "pdf", "txt")
+     * @return true if the extension supports streaming extraction
+     */
+    public boolean supportsStreaming(String ext) {
+        return ext != null && "pdf".equalsIgnoreCase(ext.trim());
+    }
+
+    /**
+     * Streams the pages of a PDF file as one Document per page.
+     * Unlike {@link #extract}, the whole text is never held in memory: the PDF is read from a
+     * temporary file and each page is parsed only when requested downstream.
+     *
+     * Implementation notes:
+     * - The upload is copied to a temporary file so PDFBox can read it with a bounded buffer
+     *   instead of loading the whole byte array
+     * - Pages without readable text are skipped
+     * - Each Document carries the page number under {@link #METADATA_PAGE_NUMBER}
+     * - The PDF is closed and the temporary file deleted when the Flux terminates or is cancelled
+     *
+     * @param file the PDF file to stream
+     * @return Flux of page Documents in page order
+     * @throws IllegalArgumentException if the file type doesn't support streaming
+     */
+    public Flux<Document> streamPages(MultipartFile file, String ext) {
+        if (file == null || file.isEmpty()) {
+            throw new IllegalArgumentException("File cannot be null or empty");
+        }
+        if (!supportsStreaming(ext)) {
+            throw new IllegalArgumentException("Streaming extraction is not supported for file extension: " + ext);
+        }
+
+        return Flux.using(
+                () -> PdfPageSource.open(file),
+                source -> Flux.range(1, source.pageCount())
+                        .map(source::readPage)
+                        .filter(page -> !page.getText().isBlank()),
+                PdfPageSource::close);
+    }
+
     /**
      * Extracts text content from PDF files using Spring AI's PagePdfDocumentReader.
      * This approach leverages Spring AI's document processing capabilities for better integration
@@ -141,4 +201,67 @@ public class DocumentTextExtractor {
             throw new RuntimeException("Failed to read text file: " + e.getMessage(), e);
         }
     }
+
+    /**
+     * Open PDF backed by a temporary file, read one page at a time.
+     */
+    private static final class PdfPageSource {
+
+        private final Path tempFile;
+        private final PDDocument document;
+        private final PDFTextStripper stripper;
+
+        private PdfPageSource(Path tempFile, PDDocument document) throws IOException {
+            this.tempFile = tempFile;
+            this.document = document;
+            this.stripper = new PDFTextStripper();
+        }
+
+        static PdfPageSource open(MultipartFile file) throws IOException {
+            Path tempFile = Files.createTempFile("knowledge-pdf-", ".pdf");
+            try {
+                try (InputStream inputStream = file.getInputStream()) {
+                    Files.copy(inputStream, tempFile, StandardCopyOption.REPLACE_EXISTING);
+                }
+                return new PdfPageSource(tempFile, Loader.loadPDF(tempFile.toFile()));
+            } catch (IOException e) {
+                Files.deleteIfExists(tempFile);
+                throw e;
+            }
+        }
+
+        int pageCount() {
+            return document.getNumberOfPages();
+        }
+
+        Document readPage(int pageNumber) {
+            try {
+                stripper.setStartPage(pageNumber);
+                stripper.setEndPage(pageNumber);
+                String text = stripper.getText(document).trim();
+
+                Map<String, Object> metadata = new HashMap<>();
+                metadata.put(METADATA_PAGE_NUMBER, pageNumber);
+                return Document.builder()
+                        .text(text)
+                        .metadata(metadata)
+                        .build();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read PDF page " + pageNumber, e);
+            }
+        }
+
+        void close() {
+            try {
+                document.close();
+            } catch (IOException e) {
+                log.warn("Failed to close PDF document: {}", e.getMessage());
+            }
+            try {
+                Files.deleteIfExists(tempFile);
+            } catch (IOException e) {
+                log.warn("Failed to delete temporary PDF file {}: {}", tempFile, e.getMessage());
+            }
+        }
+    }
 }
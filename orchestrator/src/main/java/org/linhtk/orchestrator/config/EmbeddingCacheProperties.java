@@ -0,0 +1,42 @@
+package org.linhtk.orchestrator.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration for the content-hash embedding cache.
+ * Identical chunk text embedded with the same model is served from memory or from the
+ * embedding_cache table instead of being sent to the provider again.
+ *
+ * Example configuration:
+ * embedding.cache.enabled=true
+ * embedding.cache.memory-max-entries=20000
+ * embedding.cache.persistent=true
+ */
+@Configuration
+@ConfigurationProperties(prefix = "embedding.cache")
+@Data
+public class EmbeddingCacheProperties {
+
+    /**
+     * Default number of embeddings kept in the in-memory LRU tier.
+     * About 120 MB for 1536-dimension vectors.
+     */
+    public static final long DEFAULT_MEMORY_MAX_ENTRIES = 20_000;
+
+    /**
+     * Whether embeddings are looked up in the cache before calling the provider
+     */
+    private boolean enabled = true;
+
+    /**
+     * Maximum number of embeddings kept in the in-memory LRU tier
+     */
+    private long memoryMaxEntries = DEFAULT_MEMORY_MAX_ENTRIES;
+
+    /**
+     * Whether the embedding_cache table is used as a second, persistent tier
+     */
+    private boolean persistent = true;
+}
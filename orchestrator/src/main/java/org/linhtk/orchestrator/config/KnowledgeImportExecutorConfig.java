@@ -0,0 +1,40 @@
+package org.linhtk.orchestrator.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Configuration for the bounded executor that runs asynchronous knowledge import jobs.
+ * Request threads only stage uploads and enqueue a job; extraction, chunking, embedding
+ * and persistence happen on this pool.
+ * Also enables scheduling for the heartbeat that keeps running jobs owned by this instance.
+ */
+@Configuration
+@EnableScheduling
+public class KnowledgeImportExecutorConfig {
+
+    public static final String KNOWLEDGE_IMPORT_EXECUTOR = "knowledgeImportExecutor";
+
+    /**
+     * Creates a fixed-size pool with a bounded queue.
+     * Uses the default AbortPolicy so a full queue rejects new jobs with TaskRejectedException.
+     *
+     * @param properties Import configuration providing pool and queue sizes
+     * @return Executor for import jobs
+     */
+    @Bean(name = KNOWLEDGE_IMPORT_EXECUTOR)
+    public ThreadPoolTaskExecutor knowledgeImportExecutor(KnowledgeImportProperties properties) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(properties.getWorkerThreads());
+        executor.setMaxPoolSize(properties.getWorkerThreads());
+        executor.setQueueCapacity(properties.getQueueCapacity());
+        executor.setThreadNamePrefix("knowledge-import-");
+        // Let running imports finish on shutdown so jobs are not left half-written
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(60);
+        executor.initialize();
+        return executor;
+    }
+}
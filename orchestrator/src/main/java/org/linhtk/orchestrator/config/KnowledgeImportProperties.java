@@ -0,0 +1,214 @@
+package org.linhtk.orchestrator.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Configuration for the knowledge import pipeline.
+ * Controls how chunks are grouped into embedding requests so that large documents
+ * are embedded with a handful of provider round trips instead of one call per chunk.
+ *
+ * Example configuration:
+ * knowledge.import.embedding-batch-size=100
+ * knowledge.import.embedding-batch-max-tokens=60000
+ * knowledge.import.worker-threads=2
+ * knowledge.import.queue-capacity=20
+ * knowledge.import.staging-directory=/var/tmp/knowledge-import
+ * knowledge.import.instance-id=${HOSTNAME:}
+ * knowledge.import.job-heartbeat-interval=30s
+ * knowledge.import.job-stale-timeout=5m
+ * knowledge.import.max-concurrent-files-per-agent=4
+ * knowledge.import.max-concurrent-files-per-provider=8
+ * knowledge.import.streaming-extraction=true
+ * knowledge.import.max-file-size=50MB
+ * knowledge.import.persist-batch-size=500
+ * knowledge.import.copy-threshold-chunks=5000
+ * knowledge.import.offline-backfill-enabled=false
+ * knowledge.import.chunk-stream-fetch-size=500
+ * knowledge.import.chunk-stream-timeout=10m
+ */
+@Configuration
+@ConfigurationProperties(prefix = "knowledge.import")
+@Data
+public class KnowledgeImportProperties {
+
+    /**
+     * Default maximum number of chunks sent in a single embedding request
+     */
+    public static final int DEFAULT_EMBEDDING_BATCH_SIZE = 100;
+
+    /**
+     * Default token budget for a single embedding request.
+     * Kept well below the OpenAI per-request limit to leave room for tokenizer differences.
+     */
+    public static final int DEFAULT_EMBEDDING_BATCH_MAX_TOKENS = 60_000;
+
+    /**
+     * Default number of worker threads processing asynchronous import jobs
+     */
+    public static final int DEFAULT_WORKER_THREADS = 2;
+
+    /**
+     * Default number of import jobs that may wait for a free worker
+     */
+    public static final int DEFAULT_QUEUE_CAPACITY = 20;
+
+    /**
+     * Default directory for uploads staged by asynchronous import jobs
+     */
+    public static final String DEFAULT_STAGING_DIRECTORY =
+            Path.of(System.getProperty("java.io.tmpdir"), "knowledge-import").toString();
+
+    /**
+     * Default interval at which an instance refreshes the heartbeat of its running jobs
+     */
+    public static final Duration DEFAULT_JOB_HEARTBEAT_INTERVAL = Duration.ofSeconds(30);
+
+    /**
+     * Default heartbeat age after which another instance fails a job
+     */
+    public static final Duration DEFAULT_JOB_STALE_TIMEOUT = Duration.ofMinutes(5);
+
+    /**
+     * Default number of files of one agent imported at the same time in concurrent mode
+     */
+    public static final int DEFAULT_MAX_CONCURRENT_FILES_PER_AGENT = 4;
+
+    /**
+     * Default number of files imported at the same time against one embedding provider
+     */
+    public static final int DEFAULT_MAX_CONCURRENT_FILES_PER_PROVIDER = 8;
+
+    /**
+     * Default maximum size of a single uploaded file
+     */
+    public static final DataSize DEFAULT_MAX_FILE_SIZE = DataSize.ofMegabytes(10);
+
+    /**
+     * Default number of chunk rows written per JDBC batch
+     */
+    public static final int DEFAULT_PERSIST_BATCH_SIZE = 500;
+
+    /**
+     * Default number of chunks in one file above which rows are loaded with COPY
+     */
+    public static final int DEFAULT_COPY_THRESHOLD_CHUNKS = 5_000;
+
+    /**
+     * Default number of rows fetched per cursor round trip when streaming chunks
+     */
+    public static final int DEFAULT_CHUNK_STREAM_FETCH_SIZE = 500;
+
+    /**
+     * Default time an NDJSON chunk stream may run before it is aborted
+     */
+    public static final Duration DEFAULT_CHUNK_STREAM_TIMEOUT = Duration.ofMinutes(10);
+
+    /**
+     * Maximum number of chunks sent in a single embedding request
+     */
+    private int embeddingBatchSize = DEFAULT_EMBEDDING_BATCH_SIZE;
+
+    /**
+     * Maximum estimated number of tokens sent in a single embedding request
+     */
+    private int embeddingBatchMaxTokens = DEFAULT_EMBEDDING_BATCH_MAX_TOKENS;
+
+    /**
+     * Number of worker threads processing asynchronous import jobs.
+     * Bounds concurrent provider and database load regardless of upload volume.
+     */
+    private int workerThreads = DEFAULT_WORKER_THREADS;
+
+    /**
+     * Number of accepted import jobs that may wait for a free worker.
+     * Jobs submitted while the queue is full are rejected instead of piling up in memory.
+     */
+    private int queueCapacity = DEFAULT_QUEUE_CAPACITY;
+
+    /**
+     * Directory holding uploads staged for asynchronous import jobs.
+     * Used only for staging, so files left behind by abandoned jobs can be deleted by name.
+     */
+    private String stagingDirectory = DEFAULT_STAGING_DIRECTORY;
+
+    /**
+     * Identifier recorded as the owner of the jobs this instance runs.
+     * Should be stable across restarts (e.g. the host name) so a restarted instance fails its
+     * own interrupted jobs at once; when blank a random identifier is used and such jobs are
+     * only failed once their heartbeat goes stale.
+     */
+    private String instanceId;
+
+    /**
+     * Interval at which this instance refreshes the heartbeat of its running jobs and
+     * looks for stale jobs of other instances.
+     */
+    private Duration jobHeartbeatInterval = DEFAULT_JOB_HEARTBEAT_INTERVAL;
+
+    /**
+     * Heartbeat age after which a PENDING or RUNNING job is considered abandoned and failed.
+     * Must be several heartbeat intervals so a busy instance is never mistaken for a dead one.
+     */
+    private Duration jobStaleTimeout = DEFAULT_JOB_STALE_TIMEOUT;
+
+    /**
+     * Maximum number of files of one agent imported at the same time in concurrent mode.
+     * Keeps a single large upload from monopolising database connections.
+     */
+    private int maxConcurrentFilesPerAgent = DEFAULT_MAX_CONCURRENT_FILES_PER_AGENT;
+
+    /**
+     * Maximum number of files imported at the same time against one embedding provider,
+     * shared by all agents using that provider to stay under its rate limits.
+     */
+    private int maxConcurrentFilesPerProvider = DEFAULT_MAX_CONCURRENT_FILES_PER_PROVIDER;
+
+    /**
+     * Whether formats that support it (currently PDF) are extracted and chunked page by page.
+     * Bounds memory to a few pages regardless of document size.
+     */
+    private boolean streamingExtraction = true;
+
+    /**
+     * Maximum size of a single uploaded file.
+     * Can be raised well above the default when streaming extraction is enabled.
+     */
+    private DataSize maxFileSize = DEFAULT_MAX_FILE_SIZE;
+
+    /**
+     * Number of chunk rows written per JDBC batch, for knowledge_chunk and the agent's vector table.
+     * Should match spring.jpa.properties.hibernate.jdbc.batch_size.
+     */
+    private int persistBatchSize = DEFAULT_PERSIST_BATCH_SIZE;
+
+    /**
+     * Number of chunks in one file above which rows are loaded with PostgreSQL COPY
+     * instead of batched INSERTs.
+     */
+    private int copyThresholdChunks = DEFAULT_COPY_THRESHOLD_CHUNKS;
+
+    /**
+     * Whether the offline backfill endpoint, which drops and rebuilds the HNSW index of the
+     * agent's vector table around a COPY load, is available. It locks that table for the whole
+     * load, so enable it only for maintenance windows; regular imports never drop indexes.
+     */
+    private boolean offlineBackfillEnabled = false;
+
+    /**
+     * Number of rows fetched per cursor round trip when streaming the chunks of a knowledge source.
+     * Larger values mean fewer round trips but more rows held in memory at once.
+     */
+    private int chunkStreamFetchSize = DEFAULT_CHUNK_STREAM_FETCH_SIZE;
+
+    /**
+     * Time an NDJSON chunk stream may run before it is aborted.
+     * Applies to that endpoint only, so other async responses keep the global timeout.
+     */
+    private Duration chunkStreamTimeout = DEFAULT_CHUNK_STREAM_TIMEOUT;
+}
@@ -0,0 +1,49 @@
+package org.linhtk.orchestrator.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Configuration for the query-embedding cache used by retrieval.
+ * Repeated chat questions and searches reuse the embedding of the same normalized text
+ * instead of waiting for another provider round trip before the vector search.
+ *
+ * Example configuration:
+ * embedding.query-cache.enabled=true
+ * embedding.query-cache.max-entries=10000
+ * embedding.query-cache.ttl=1h
+ */
+@Configuration
+@ConfigurationProperties(prefix = "embedding.query-cache")
+@Data
+public class QueryEmbeddingCacheProperties {
+
+    /**
+     * Default number of query embeddings kept in memory.
+     * About 60 MB for 1536-dimension vectors.
+     */
+    public static final long DEFAULT_MAX_ENTRIES = 10_000;
+
+    /**
+     * Default time a query embedding stays cached after it was computed
+     */
+    public static final Duration DEFAULT_TTL = Duration.ofHours(1);
+
+    /**
+     * Whether query embeddings are cached
+     */
+    private boolean enabled = true;
+
+    /**
+     * Maximum number of cached query embeddings
+     */
+    private long maxEntries = DEFAULT_MAX_ENTRIES;
+
+    /**
+     * Time a query embedding stays cached after it was computed
+     */
+    private Duration ttl = DEFAULT_TTL;
+}
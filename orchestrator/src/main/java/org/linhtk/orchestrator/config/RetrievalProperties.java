@@ -0,0 +1,252 @@
+package org.linhtk.orchestrator.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration for semantic retrieval over agent knowledge.
+ * Selects where nearest-neighbour searches for chat context and chunk search run.
+ *
+ * Example configuration:
+ * retrieval.engine=vector-store
+ * retrieval.hnsw-ef-search=100
+ * retrieval.hybrid.rrf-k=60
+ * retrieval.hybrid.candidate-multiplier=4
+ * retrieval.hybrid.stop-word-config=english
+ * retrieval.in-memory.m=16
+ * retrieval.in-memory.ef-construction=100
+ * retrieval.in-memory.ef-search=64
+ * retrieval.in-memory.preload=true
+ * retrieval.exact.max-chunks=20000
+ * retrieval.exact.simd=true
+ * retrieval.quantization.half-candidate-multiplier=4
+ * retrieval.quantization.binary-candidate-multiplier=10
+ * retrieval.context.candidate-multiplier=3
+ * retrieval.context.mmr-lambda=0.7
+ * retrieval.context.merge-adjacent=true
+ * retrieval.context.max-tokens=2000
+ * retrieval.context.history-query-turns=0
+ */
+@Configuration
+@ConfigurationProperties(prefix = "retrieval")
+@Data
+public class RetrievalProperties {
+
+    /**
+     * Default HNSW candidate list size; 0 keeps the server setting (pgvector default 40)
+     */
+    public static final int DEFAULT_HNSW_EF_SEARCH = 0;
+
+    /**
+     * Default reciprocal-rank fusion constant, as in the original RRF paper
+     */
+    public static final int DEFAULT_RRF_K = 60;
+
+    /**
+     * Default number of candidates each hybrid leg returns per requested hit
+     */
+    public static final int DEFAULT_CANDIDATE_MULTIPLIER = 4;
+
+    /**
+     * Default text search configuration whose stop words are dropped from full-text queries
+     */
+    public static final String DEFAULT_STOP_WORD_CONFIG = "english";
+
+    /**
+     * Default HNSW parameters of in-memory indexes
+     */
+    public static final int DEFAULT_IN_MEMORY_M = 16;
+    public static final int DEFAULT_IN_MEMORY_EF_CONSTRUCTION = 100;
+    public static final int DEFAULT_IN_MEMORY_EF_SEARCH = 64;
+
+    /**
+     * Default largest corpus searched exactly
+     */
+    public static final int DEFAULT_EXACT_MAX_CHUNKS = 20_000;
+
+    /**
+     * Default re-ranking candidates per requested hit for quantized searches
+     */
+    public static final int DEFAULT_HALF_CANDIDATE_MULTIPLIER = 4;
+    public static final int DEFAULT_BINARY_CANDIDATE_MULTIPLIER = 10;
+
+    /**
+     * Default RAG context selection: candidates per injected chunk, relevance weight and token budget
+     */
+    public static final int DEFAULT_CONTEXT_CANDIDATE_MULTIPLIER = 3;
+    public static final double DEFAULT_CONTEXT_MMR_LAMBDA = 0.7;
+    public static final int DEFAULT_CONTEXT_MAX_TOKENS = 2000;
+
+    /**
+     * Default number of earlier user turns added to a follow-up question's retrieval query;
+     * 0 keeps retrieval off the history-loading path
+     */
+    public static final int DEFAULT_CONTEXT_HISTORY_QUERY_TURNS = 0;
+
+    /**
+     * Backend answering similarity searches.
+     * VECTOR_STORE searches each agent's own HNSW graph and stays the default. KNOWLEDGE_CHUNK
+     * scans the fleet-wide HNSW indexes of knowledge_chunk and filters by agent afterwards, so a
+     * small agent or a knowledge-filtered query can get fewer than topK hits unless
+     * hnsw-ef-search is raised well above topK; agents with a vector quantization need it.
+     * With KNOWLEDGE_CHUNK, chunks are no longer copied into the per-agent vector tables;
+     * switching back to VECTOR_STORE requires re-importing (or backfilling) those tables.
+     */
+    private Engine engine = Engine.VECTOR_STORE;
+
+    /**
+     * hnsw.ef_search applied to native knowledge_chunk searches.
+     * Larger values trade latency for recall, and keep filtered searches from returning
+     * fewer than topK rows when the agent owns only a small part of the index.
+     */
+    private int hnswEfSearch = DEFAULT_HNSW_EF_SEARCH;
+
+    /**
+     * Settings for agents using hybrid retrieval
+     */
+    private Hybrid hybrid = new Hybrid();
+
+    /**
+     * Settings for agents using in-memory retrieval
+     */
+    private InMemory inMemory = new InMemory();
+
+    /**
+     * Settings for agents using exact retrieval
+     */
+    private Exact exact = new Exact();
+
+    /**
+     * Settings for agents with a vector quantization
+     */
+    private Quantization quantization = new Quantization();
+
+    /**
+     * Selection of the chunks injected into chat prompts
+     */
+    private Context context = new Context();
+
+    @Data
+    public static class Hybrid {
+
+        /**
+         * k in score = sum of 1 / (k + rank) over both result lists.
+         * Larger values flatten the advantage of top-ranked hits.
+         */
+        private int rrfK = DEFAULT_RRF_K;
+
+        /**
+         * Each leg fetches topK * candidateMultiplier candidates before fusion,
+         * so hits ranked moderately by both legs can still make the fused top K
+         */
+        private int candidateMultiplier = DEFAULT_CANDIDATE_MULTIPLIER;
+
+        /**
+         * PostgreSQL text search configuration used only to recognise stop words in the question;
+         * its stop words are dropped before the remaining terms are OR-ed, while matching itself
+         * stays on the 'simple' content_tsv column
+         */
+        private String stopWordConfig = DEFAULT_STOP_WORD_CONFIG;
+    }
+
+    @Data
+    public static class InMemory {
+
+        /**
+         * Links per node and level (twice as many on level 0); more links raise recall and memory use
+         */
+        private int m = DEFAULT_IN_MEMORY_M;
+
+        /**
+         * Candidate list size while inserting; higher builds a better graph more slowly
+         */
+        private int efConstruction = DEFAULT_IN_MEMORY_EF_CONSTRUCTION;
+
+        /**
+         * Candidate list size while searching; higher trades latency for recall
+         */
+        private int efSearch = DEFAULT_IN_MEMORY_EF_SEARCH;
+
+        /**
+         * Build the indexes of IN_MEMORY agents when the application starts instead of on first use
+         */
+        private boolean preload = true;
+    }
+
+    @Data
+    public static class Exact {
+
+        /**
+         * Agents with more embedded chunks than this search in PostgreSQL instead
+         */
+        private int maxChunks = DEFAULT_EXACT_MAX_CHUNKS;
+
+        /**
+         * Use Java Vector API dot products when the JVM runs with --add-modules jdk.incubator.vector
+         */
+        private boolean simd = true;
+    }
+
+    @Data
+    public static class Quantization {
+
+        /**
+         * halfvec candidates fetched per requested hit before full-precision re-ranking
+         */
+        private int halfCandidateMultiplier = DEFAULT_HALF_CANDIDATE_MULTIPLIER;
+
+        /**
+         * Binary candidates fetched per requested hit; binary codes lose more ordering
+         * information, so they need a deeper candidate list
+         */
+        private int binaryCandidateMultiplier = DEFAULT_BINARY_CANDIDATE_MULTIPLIER;
+    }
+
+    @Data
+    public static class Context {
+
+        /**
+         * Chat turns retrieve topK * candidateMultiplier chunks and keeps at most topK;
+         * 1 disables over-fetching
+         */
+        private int candidateMultiplier = DEFAULT_CONTEXT_CANDIDATE_MULTIPLIER;
+
+        /**
+         * MMR trade-off between relevance (1.0) and diversity (0.0)
+         */
+        private double mmrLambda = DEFAULT_CONTEXT_MMR_LAMBDA;
+
+        /**
+         * Merge selected chunks that follow each other in the same knowledge source into one passage
+         */
+        private boolean mergeAdjacent = true;
+
+        /**
+         * Estimated tokens of context injected per turn; 0 disables the budget.
+         * The best passage is always kept, even if it alone exceeds the budget.
+         */
+        private int maxTokens = DEFAULT_CONTEXT_MAX_TOKENS;
+
+        /**
+         * Earlier user turns prepended to the question to form the retrieval query, so follow-ups
+         * such as "and its price?" retrieve the right chunks. Retrieval then cannot start before the
+         * history is loaded, which adds the history query to every turn's latency.
+         * 0 (the default) retrieves with the bare question, in parallel with history loading.
+         */
+        private int historyQueryTurns = DEFAULT_CONTEXT_HISTORY_QUERY_TURNS;
+    }
+
+    public enum Engine {
+        /**
+         * Cosine top-K directly on knowledge_chunk.embedding_768 / embedding_1536, over HNSW
+         * indexes shared by all agents (quantized indexes are per agent)
+         */
+        KNOWLEDGE_CHUNK,
+
+        /**
+         * Spring AI PgVectorStore over the per-agent vector tables
+         */
+        VECTOR_STORE
+    }
+}
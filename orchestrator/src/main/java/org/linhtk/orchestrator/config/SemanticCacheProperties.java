@@ -0,0 +1,53 @@
+package org.linhtk.orchestrator.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Configuration for the semantic answer cache.
+ * Agents that opt in answer near-duplicate questions with a previously generated answer
+ * instead of calling the chat model.
+ *
+ * Example configuration:
+ * chat.semantic-cache.similarity-threshold=0.95
+ * chat.semantic-cache.max-entries-per-agent=500
+ * chat.semantic-cache.ttl=24h
+ */
+@Configuration
+@ConfigurationProperties(prefix = "chat.semantic-cache")
+@Data
+public class SemanticCacheProperties {
+
+    /**
+     * Default minimum cosine similarity between two questions for a cache hit
+     */
+    public static final double DEFAULT_SIMILARITY_THRESHOLD = 0.95;
+
+    /**
+     * Default number of answers kept per agent
+     */
+    public static final long DEFAULT_MAX_ENTRIES_PER_AGENT = 500;
+
+    /**
+     * Default time an answer stays cached after it was generated
+     */
+    public static final Duration DEFAULT_TTL = Duration.ofHours(24);
+
+    /**
+     * Minimum cosine similarity for agents without their own threshold
+     */
+    private double similarityThreshold = DEFAULT_SIMILARITY_THRESHOLD;
+
+    /**
+     * Maximum number of answers kept per agent; the least recently used are evicted
+     */
+    private long maxEntriesPerAgent = DEFAULT_MAX_ENTRIES_PER_AGENT;
+
+    /**
+     * Time an answer stays cached after it was generated
+     */
+    private Duration ttl = DEFAULT_TTL;
+}
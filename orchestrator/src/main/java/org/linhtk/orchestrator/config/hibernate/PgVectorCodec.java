@@ -0,0 +1,275 @@
+package org.linhtk.orchestrator.config.hibernate;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Encoder and decoder for pgvector values in both wire representations.
+ *
+ * Text form: '[x1,x2,...]', used for bind parameters and result columns because pgjdbc
+ * cannot negotiate binary transfer for extension types such as vector.
+ * Binary form: the vector_send/vector_recv layout (int16 dimensions, int16 unused,
+ * then big-endian float4 values), used by COPY BINARY and by vector_send(...) selects.
+ *
+ * Design decisions:
+ * - Text parsing walks the characters once and parses each element in place, without
+ *   substring/split or per-element String allocation
+ * - Elements with at most 15 significant digits and a small exponent (everything pgvector
+ *   prints for real embeddings) take a fast exact-double path; anything else falls back
+ *   to Float.parseFloat so unusual input is still parsed correctly
+ * - Text formatting presizes the builder; StringBuilder.append(float) writes digits
+ *   directly without an intermediate String
+ */
+public final class PgVectorCodec {
+
+    /**
+     * Size in bytes of the binary header (dimensions and unused field).
+     */
+    private static final int BINARY_HEADER_BYTES = 4;
+
+    private static final int MAX_FAST_DIGITS = 15;
+
+    /**
+     * Powers of ten exactly representable as doubles.
+     */
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private PgVectorCodec() {
+    }
+
+    /**
+     * Formats a vector in pgvector text form.
+     *
+     * @param vector the float array to convert
+     * @return '[x1,x2,...]'
+     */
+    public static String formatText(float[] vector) {
+        // Float.toString needs at most 15 characters; most embedding values need about 12
+        StringBuilder sb = new StringBuilder(vector.length * 12 + 2);
+        sb.append('[');
+        for (int i = 0; i < vector.length; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append(vector[i]);
+        }
+        return sb.append(']').toString();
+    }
+
+    /**
+     * Parses a vector in pgvector text form.
+     *
+     * @param text '[x1,x2,...]', optionally surrounded by whitespace
+     * @return parsed float array
+     * @throws IllegalArgumentException if the text is not a valid vector
+     */
+    public static float[] parseText(CharSequence text) {
+        int start = 0;
+        int end = text.length();
+        while (start < end && Character.isWhitespace(text.charAt(start))) {
+            start++;
+        }
+        while (end > start && Character.isWhitespace(text.charAt(end - 1))) {
+            end--;
+        }
+        if (end - start < 2 || text.charAt(start) != '[' || text.charAt(end - 1) != ']') {
+            throw new IllegalArgumentException("Invalid vector text: " + text);
+        }
+        start++;
+        end--;
+
+        if (isBlank(text, start, end)) {
+            return new float[0];
+        }
+
+        int dimensions = 1;
+        for (int i = start; i < end; i++) {
+            if (text.charAt(i) == ',') {
+                dimensions++;
+            }
+        }
+
+        float[] vector = new float[dimensions];
+        int elementStart = start;
+        for (int i = 0; i < dimensions; i++) {
+            int elementEnd = elementStart;
+            while (elementEnd < end && text.charAt(elementEnd) != ',') {
+                elementEnd++;
+            }
+            vector[i] = parseFloat(text, elementStart, elementEnd);
+            elementStart = elementEnd + 1;
+        }
+        return vector;
+    }
+
+    /**
+     * Encodes a vector in pgvector binary form.
+     *
+     * @param vector the float array to encode
+     * @return vector_recv compatible bytes
+     */
+    public static byte[] encodeBinary(float[] vector) {
+        ByteBuffer buffer = ByteBuffer.allocate(binaryLength(vector));
+        buffer.putShort(checkedDimensions(vector)).putShort((short) 0);
+        for (float value : vector) {
+            buffer.putFloat(value);
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Writes a vector in pgvector binary form, without the length prefix used by COPY BINARY.
+     *
+     * @param out    big-endian output, e.g. a DataOutputStream
+     * @param vector the float array to write
+     * @throws IOException if writing fails
+     */
+    public static void writeBinary(DataOutput out, float[] vector) throws IOException {
+        out.writeShort(checkedDimensions(vector));
+        out.writeShort(0);
+        for (float value : vector) {
+            out.writeFloat(value);
+        }
+    }
+
+    /**
+     * @param vector the float array to encode
+     * @return number of bytes of the binary form of the vector
+     */
+    public static int binaryLength(float[] vector) {
+        return BINARY_HEADER_BYTES + vector.length * Float.BYTES;
+    }
+
+    /**
+     * Decodes a vector from pgvector binary form, as returned by vector_send(...).
+     *
+     * @param bytes vector_send output
+     * @return decoded float array
+     * @throws IllegalArgumentException if the length does not match the encoded dimensions
+     */
+    public static float[] decodeBinary(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        int dimensions = Short.toUnsignedInt(buffer.getShort());
+        buffer.getShort(); // unused
+        if (bytes.length != BINARY_HEADER_BYTES + dimensions * Float.BYTES) {
+            throw new IllegalArgumentException(String.format(
+                    "Binary vector of %d bytes does not match %d dimensions", bytes.length, dimensions));
+        }
+
+        float[] vector = new float[dimensions];
+        buffer.asFloatBuffer().get(vector);
+        return vector;
+    }
+
+    private static short checkedDimensions(float[] vector) {
+        if (vector.length > 0xFFFF) {
+            throw new IllegalArgumentException("Vector has too many dimensions: " + vector.length);
+        }
+        return (short) vector.length;
+    }
+
+    /**
+     * Parses one decimal float between from (inclusive) and to (exclusive).
+     */
+    private static float parseFloat(CharSequence text, int from, int to) {
+        while (from < to && Character.isWhitespace(text.charAt(from))) {
+            from++;
+        }
+        while (to > from && Character.isWhitespace(text.charAt(to - 1))) {
+            to--;
+        }
+
+        int pos = from;
+        boolean negative = false;
+        if (pos < to && (text.charAt(pos) == '-' || text.charAt(pos) == '+')) {
+            negative = text.charAt(pos) == '-';
+            pos++;
+        }
+
+        long mantissa = 0;
+        int significantDigits = 0;
+        int exponent = 0;
+        boolean anyDigit = false;
+
+        while (pos < to && isDigit(text.charAt(pos))) {
+            mantissa = mantissa * 10 + (text.charAt(pos) - '0');
+            if (mantissa != 0) {
+                significantDigits++;
+            }
+            anyDigit = true;
+            pos++;
+        }
+        if (pos < to && text.charAt(pos) == '.') {
+            pos++;
+            while (pos < to && isDigit(text.charAt(pos))) {
+                mantissa = mantissa * 10 + (text.charAt(pos) - '0');
+                if (mantissa != 0) {
+                    significantDigits++;
+                }
+                exponent--;
+                anyDigit = true;
+                pos++;
+            }
+        }
+        if (anyDigit && pos < to && (text.charAt(pos) == 'e' || text.charAt(pos) == 'E')) {
+            pos++;
+            boolean negativeExponent = false;
+            if (pos < to && (text.charAt(pos) == '-' || text.charAt(pos) == '+')) {
+                negativeExponent = text.charAt(pos) == '-';
+                pos++;
+            }
+            int explicitExponent = 0;
+            boolean anyExponentDigit = false;
+            while (pos < to && isDigit(text.charAt(pos)) && explicitExponent < 1000) {
+                explicitExponent = explicitExponent * 10 + (text.charAt(pos) - '0');
+                anyExponentDigit = true;
+                pos++;
+            }
+            if (!anyExponentDigit) {
+                return parseFloatSlow(text, from, to);
+            }
+            exponent += negativeExponent ? -explicitExponent : explicitExponent;
+        }
+
+        if (!anyDigit || pos != to || significantDigits > MAX_FAST_DIGITS) {
+            return parseFloatSlow(text, from, to);
+        }
+        if (mantissa == 0) {
+            return negative ? -0.0f : 0.0f;
+        }
+        if (exponent < -22 || exponent > 22) {
+            return parseFloatSlow(text, from, to);
+        }
+
+        // Both operands are exact doubles, so the result is the correctly rounded double
+        double value = exponent >= 0
+                ? mantissa * POWERS_OF_TEN[exponent]
+                : mantissa / POWERS_OF_TEN[-exponent];
+        return (float) (negative ? -value : value);
+    }
+
+    private static float parseFloatSlow(CharSequence text, int from, int to) {
+        try {
+            return Float.parseFloat(text.subSequence(from, to).toString());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid vector element: " + text.subSequence(from, to), e);
+        }
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isBlank(CharSequence text, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (!Character.isWhitespace(text.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
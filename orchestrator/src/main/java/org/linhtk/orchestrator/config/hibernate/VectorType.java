@@ -17,6 +17,9 @@ import java.util.Arrays;
  * 
  * PostgreSQL vector format: '[x1,x2,x3,...]'
  * This type ensures proper serialization/deserialization for pgvector extension.
+ *
+ * Values travel in text form because pgjdbc cannot request binary results for extension
+ * types; {@link PgVectorCodec} parses them in a single pass without per-element allocation.
  */
 public class VectorType implements UserType<float[]> {
 
@@ -48,7 +51,7 @@ public class VectorType implements UserType<float[]> {
         if (vectorString == null) {
             return null;
         }
-        return parseVector(vectorString);
+        return parse(vectorString);
     }
 
     @Override
@@ -58,7 +61,7 @@ public class VectorType implements UserType<float[]> {
             st.setNull(index, Types.OTHER);
         } else {
             // Convert float array to PostgreSQL vector format: '[x1,x2,x3,...]'
-            String vectorString = formatVector(value);
+            String vectorString = format(value);
             st.setObject(index, vectorString, Types.OTHER);
         }
     }
@@ -94,47 +97,28 @@ public class VectorType implements UserType<float[]> {
     /**
      * Converts a float array to PostgreSQL vector string format.
      * Format: '[x1,x2,x3,...]'
+     * Public so that plain JDBC writers can bind vectors with a '?::vector' cast.
      * 
      * @param vector the float array to convert
      * @return PostgreSQL vector string representation
      */
-    private String formatVector(float[] vector) {
-        StringBuilder sb = new StringBuilder("[");
-        for (int i = 0; i < vector.length; i++) {
-            if (i > 0) {
-                sb.append(",");
-            }
-            sb.append(vector[i]);
-        }
-        sb.append("]");
-        return sb.toString();
+    public static String format(float[] vector) {
+        return PgVectorCodec.formatText(vector);
     }
 
     /**
      * Parses a PostgreSQL vector string to float array.
      * Expected format: '[x1,x2,x3,...]'
+     * Public so that plain JDBC readers can decode vectors selected as text.
      * 
      * @param vectorString the PostgreSQL vector string
      * @return parsed float array
      * @throws HibernateException if parsing fails
      */
-    private float[] parseVector(String vectorString) {
+    public static float[] parse(String vectorString) {
         try {
-            // Remove brackets and split by comma
-            String content = vectorString.substring(1, vectorString.length() - 1);
-            if (content.isEmpty()) {
-                return new float[0];
-            }
-            
-            String[] parts = content.split(",");
-            float[] result = new float[parts.length];
-            
-            for (int i = 0; i < parts.length; i++) {
-                result[i] = Float.parseFloat(parts[i].trim());
-            }
-            
-            return result;
-        } catch (Exception e) {
+            return PgVectorCodec.parseText(vectorString);
+        } catch (IllegalArgumentException e) {
             throw new HibernateException("Failed to parse vector string: " + vectorString, e);
         }
     }
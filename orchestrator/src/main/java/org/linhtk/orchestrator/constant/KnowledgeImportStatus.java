@@ -0,0 +1,13 @@
+package org.linhtk.orchestrator.constant;
+
+/**
+ * Lifecycle states of an asynchronous knowledge import job and of each file within it.
+ * PARTIALLY_COMPLETED applies to jobs only: some files were imported and some failed.
+ */
+public enum KnowledgeImportStatus {
+    PENDING,
+    RUNNING,
+    COMPLETED,
+    PARTIALLY_COMPLETED,
+    FAILED
+}
@@ -0,0 +1,27 @@
+package org.linhtk.orchestrator.constant;
+
+/**
+ * How an agent's knowledge is searched for chat context and chunk search.
+ */
+public enum RetrievalMode {
+    /**
+     * Cosine similarity over chunk embeddings only
+     */
+    VECTOR,
+
+    /**
+     * Full-text and vector searches fused with reciprocal-rank fusion
+     */
+    HYBRID,
+
+    /**
+     * Cosine similarity over an in-process HNSW index built from knowledge_chunk
+     */
+    IN_MEMORY,
+
+    /**
+     * Exact cosine scan over an in-process matrix of all chunk embeddings; agents above
+     * retrieval.exact.max-chunks fall back to VECTOR
+     */
+    EXACT
+}
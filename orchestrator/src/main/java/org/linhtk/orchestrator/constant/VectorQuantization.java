@@ -0,0 +1,23 @@
+package org.linhtk.orchestrator.constant;
+
+/**
+ * Compact embedding representation scanned by the first stage of native knowledge_chunk searches.
+ * Candidates are always re-ranked with the full-precision embedding.
+ * Choosing HALF or BINARY builds a partial index over the agent's own chunks only.
+ */
+public enum VectorQuantization {
+    /**
+     * Full-precision vector index only
+     */
+    NONE,
+
+    /**
+     * halfvec (16-bit floats) expression index, half the size of the vector index
+     */
+    HALF,
+
+    /**
+     * binary_quantize bit expression index with Hamming distance, 1/32 of the size
+     */
+    BINARY
+}
@@ -5,15 +5,19 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.extern.slf4j.Slf4j;
 import org.linhtk.orchestrator.dto.AgentRequestDto;
 import org.linhtk.orchestrator.dto.AgentResponseDto;
+import org.linhtk.orchestrator.dto.RetrievalReportResponseDto;
 import org.linhtk.orchestrator.service.AgentService;
+import org.linhtk.orchestrator.service.RetrievalReportService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import javax.validation.Valid;
@@ -28,6 +32,8 @@ import java.util.List;
  * - GET /api/agents/{agentId} - Retrieve specific agent
  * - POST /api/agents - Create new agent
  * - PUT /api/agents/{agentId} - Update existing agent
+ * - GET /api/agents/{agentId}/retrieval-report - Compare recall and latency of vector quantizations
+ * - DELETE /api/agents/{agentId}/vector-table - Reset the agent's vector table after a dimension change
  */
 @RestController
 @RequestMapping("/api/agents")
@@ -36,9 +42,11 @@ import java.util.List;
 public class AgentController {
     
     private final AgentService agentService;
+    private final RetrievalReportService retrievalReportService;
 
-    public AgentController(AgentService agentService) {
+    public AgentController(AgentService agentService, RetrievalReportService retrievalReportService) {
         this.agentService = agentService;
+        this.retrievalReportService = retrievalReportService;
     }
 
     /**
@@ -111,4 +119,44 @@ public class AgentController {
         
         return ResponseEntity.ok(updatedAgent);
     }
+
+    /**
+     * Measures recall@K and latency of every vector quantization on the agent's own knowledge.
+     * Sample queries are stored chunk embeddings, compared against an exact scan.
+     *
+     * @param agentId The unique identifier of the agent
+     * @param samples Number of sample queries
+     * @param topK    Hits per query
+     * @return ResponseEntity containing one report entry per quantization
+     */
+    @GetMapping("/{agentId}/retrieval-report")
+    @Operation(summary = "Get retrieval report", description = "Compares recall and latency of vector quantizations for an agent")
+    public ResponseEntity<RetrievalReportResponseDto> retrievalReport(
+            @PathVariable String agentId,
+            @RequestParam(defaultValue = "50") int samples,
+            @RequestParam(defaultValue = "5") int topK) {
+        log.info("REST request to get retrieval report: id={}, samples={}, topK={}", agentId, samples, topK);
+
+        RetrievalReportResponseDto report = retrievalReportService.report(agentId, samples, topK);
+
+        return ResponseEntity.ok(report);
+    }
+
+    /**
+     * Drops the agent's vector table so it is recreated with the current embedding dimension.
+     * Required after the agent's embedding model changed dimension; every stored vector of the
+     * agent is discarded and its knowledge has to be re-imported.
+     *
+     * @param agentId The unique identifier of the agent
+     * @return ResponseEntity with HTTP 204 status
+     */
+    @DeleteMapping("/{agentId}/vector-table")
+    @Operation(summary = "Reset vector table", description = "Drops the agent's vector table after an embedding dimension change")
+    public ResponseEntity<Void> resetVectorTable(@PathVariable String agentId) {
+        log.warn("REST request to reset vector table of agent: id={}", agentId);
+
+        agentService.resetVectorTable(agentId);
+
+        return ResponseEntity.noContent().build();
+    }
 }
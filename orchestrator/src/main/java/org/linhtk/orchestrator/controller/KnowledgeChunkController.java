@@ -1,21 +1,36 @@
 package org.linhtk.orchestrator.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.linhtk.orchestrator.config.KnowledgeImportProperties;
+import org.linhtk.orchestrator.dto.KnowledgeChunkPageResponseDto;
 import org.linhtk.orchestrator.dto.KnowledgeChunkResponseDto;
 import org.linhtk.orchestrator.service.KnowledgeChunkService;
 import org.linhtk.orchestrator.service.KnowledgeImportService;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.concurrent.Callable;
 
 @RestController
 @RequestMapping("/api/agents/{agentId}/knowledge/{knowledgeId}/chunks")
 public class KnowledgeChunkController {
     private final KnowledgeChunkService  knowledgeChunkService;
     private final KnowledgeImportService knowledgeImportService;
+    private final ObjectMapper objectMapper;
+    private final KnowledgeImportProperties importProperties;
 
-    public KnowledgeChunkController(KnowledgeChunkService knowledgeChunkService, KnowledgeImportService knowledgeImportService) {
+    public KnowledgeChunkController(KnowledgeChunkService knowledgeChunkService, KnowledgeImportService knowledgeImportService,
+                                    ObjectMapper objectMapper, KnowledgeImportProperties importProperties) {
         this.knowledgeChunkService = knowledgeChunkService;
         this.knowledgeImportService = knowledgeImportService;
+        this.objectMapper = objectMapper;
+        this.importProperties = importProperties;
     }
 
     //create chunk
@@ -24,6 +39,48 @@ public class KnowledgeChunkController {
         return knowledgeChunkService.getByKnowledge(agentId, knowledgeId);
     }
 
+    /**
+     * Returns one page of chunks ordered by chunk order.
+     * Pass the nextCursor of the previous page as "after" to continue.
+     */
+    @GetMapping("/page")
+    public KnowledgeChunkPageResponseDto getPage(@PathVariable String agentId, @PathVariable String knowledgeId,
+                                                 @RequestParam(required = false) Integer after,
+                                                 @RequestParam(defaultValue = "" + KnowledgeChunkService.DEFAULT_PAGE_SIZE) int size) {
+        return knowledgeChunkService.getPageByKnowledge(agentId, knowledgeId, after, size);
+    }
+
+    /**
+     * Streams every chunk as newline-delimited JSON, one chunk per line, in chunk order.
+     * Rows are written as they are read from the database cursor, so server memory stays
+     * constant regardless of the knowledge source size.
+     * Runs as a WebAsyncTask so knowledge.import.chunk-stream-timeout applies to this endpoint only.
+     */
+    @GetMapping(path = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public WebAsyncTask<Void> stream(@PathVariable String agentId, @PathVariable String knowledgeId,
+                                     HttpServletResponse response) {
+        // Validate before the response is committed so a wrong ID still yields 404
+        knowledgeChunkService.validateKnowledgeOwnership(agentId, knowledgeId);
+
+        Callable<Void> body = () -> {
+            response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+            OutputStream out = response.getOutputStream();
+            knowledgeChunkService.streamByKnowledge(agentId, knowledgeId, chunk -> writeLine(out, chunk));
+            out.flush();
+            return null;
+        };
+        return new WebAsyncTask<>(importProperties.getChunkStreamTimeout().toMillis(), body);
+    }
+
+    private void writeLine(OutputStream out, KnowledgeChunkResponseDto chunk) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(chunk));
+            out.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     //update chunk
     //import file
 
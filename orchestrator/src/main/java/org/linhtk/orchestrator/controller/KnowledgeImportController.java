@@ -9,13 +9,20 @@ import lombok.extern.slf4j.Slf4j;
 import org.linhtk.orchestrator.dto.AgentKnowledgeImportResponseDto;
 import org.linhtk.orchestrator.dto.AgentKnowledgeResponseDto;
 import org.linhtk.orchestrator.dto.FileKnowledgeImportConfigRequestDto;
+import org.linhtk.orchestrator.dto.KnowledgeImportJobResponseDto;
 import org.linhtk.orchestrator.dto.KnowledgeImportingResponseDto;
+import org.linhtk.orchestrator.dto.KnowledgeSyncResponseDto;
 import org.linhtk.orchestrator.service.AgentKnowledgeService;
+import org.linhtk.orchestrator.service.ConcurrentKnowledgeImportService;
+import org.linhtk.orchestrator.service.KnowledgeImportJobService;
 import org.linhtk.orchestrator.service.KnowledgeImportService;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.http.MediaType;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.net.URI;
 import java.util.List;
 
 @RestController
@@ -24,18 +31,60 @@ import java.util.List;
 public class KnowledgeImportController {
     private final AgentKnowledgeService agentKnowledgeService;
     private final KnowledgeImportService knowledgeImportService;
+    private final KnowledgeImportJobService knowledgeImportJobService;
+    private final ConcurrentKnowledgeImportService concurrentKnowledgeImportService;
 
-    public KnowledgeImportController(AgentKnowledgeService agentKnowledgeService, KnowledgeImportService knowledgeImportService) {
+    public KnowledgeImportController(AgentKnowledgeService agentKnowledgeService,
+                                     KnowledgeImportService knowledgeImportService,
+                                     KnowledgeImportJobService knowledgeImportJobService,
+                                     ConcurrentKnowledgeImportService concurrentKnowledgeImportService) {
         this.agentKnowledgeService = agentKnowledgeService;
         this.knowledgeImportService = knowledgeImportService;
+        this.knowledgeImportJobService = knowledgeImportJobService;
+        this.concurrentKnowledgeImportService = concurrentKnowledgeImportService;
     }
 
+    /**
+     * Accepts files for import and processes them in the background.
+     * Responds with 202 Accepted and the created job; poll the Location header for progress.
+     * With concurrent=true the job imports each file on its own virtual thread.
+     */
     @PostMapping(path = "/import")
-    public AgentKnowledgeImportResponseDto importFiles(@PathVariable String agentId,
-                                                       @RequestPart("files") List<MultipartFile> files,
-                                                       @Valid @RequestPart("config") FileKnowledgeImportConfigRequestDto config
+    public ResponseEntity<KnowledgeImportJobResponseDto> importFiles(@PathVariable String agentId,
+                                                                     @RequestPart("files") List<MultipartFile> files,
+                                                                     @Valid @RequestPart("config") FileKnowledgeImportConfigRequestDto config,
+                                                                     @RequestParam(defaultValue = "false") boolean concurrent
     ) {
+        // Reject bad uploads before the knowledge source is created
+        knowledgeImportService.validateFiles(files);
         var knowledge = agentKnowledgeService.create(agentId, config);
+        var job = knowledgeImportJobService.submit(agentId, knowledge.getId(), files, concurrent);
+
+        URI location = ServletUriComponentsBuilder.fromCurrentContextPath()
+                .path("/api/agents/{agentId}/knowledge/import-jobs/{jobId}")
+                .buildAndExpand(agentId, job.getId())
+                .toUri();
+
+        return ResponseEntity.accepted().location(location).body(job);
+    }
+
+    /**
+     * Imports files within the request and returns once all chunks are stored.
+     * Kept for small uploads and scripted clients that rely on the synchronous response.
+     * With concurrent=true each file is imported on its own virtual thread.
+     */
+    @PostMapping(path = "/import/sync")
+    public AgentKnowledgeImportResponseDto importFilesSync(@PathVariable String agentId,
+                                                           @RequestPart("files") List<MultipartFile> files,
+                                                           @Valid @RequestPart("config") FileKnowledgeImportConfigRequestDto config,
+                                                           @RequestParam(defaultValue = "false") boolean concurrent
+    ) {
+        knowledgeImportService.validateFiles(files);
+        var knowledge = agentKnowledgeService.create(agentId, config);
+
+        if (concurrent) {
+            return concurrentKnowledgeImportService.importFiles(agentId, knowledge, files);
+        }
 
         // Collect results first to avoid stream reuse
         var importResults = files.stream()
@@ -52,4 +101,32 @@ public class KnowledgeImportController {
                         .sum())
                 .build();
     }
+
+    /**
+     * Re-imports a new version of a document behind an existing knowledge source, matched by filename.
+     * Only changed chunks are re-embedded; chunks missing from the new version are removed.
+     */
+    @PostMapping(path = "/{knowledgeId}/sync")
+    public KnowledgeSyncResponseDto syncFile(@PathVariable String agentId,
+                                             @PathVariable String knowledgeId,
+                                             @RequestPart("file") MultipartFile file) {
+        return knowledgeImportService.syncDocument(agentId, knowledgeId, file);
+    }
+
+    /**
+     * Loads a very large document into an existing knowledge source with the HNSW indexes
+     * dropped and rebuilt around the load. Blocks retrieval while it runs; offline use only.
+     */
+    @PostMapping(path = "/{knowledgeId}/backfill")
+    public KnowledgeImportingResponseDto backfillFile(@PathVariable String agentId,
+                                                     @PathVariable String knowledgeId,
+                                                     @RequestPart("file") MultipartFile file) {
+        return knowledgeImportService.backfillDocument(agentId, knowledgeId, file);
+    }
+
+    @GetMapping("/import-jobs/{jobId}")
+    public KnowledgeImportJobResponseDto getImportJob(@PathVariable String agentId,
+                                                      @PathVariable String jobId) {
+        return knowledgeImportJobService.getJob(agentId, jobId);
+    }
 }
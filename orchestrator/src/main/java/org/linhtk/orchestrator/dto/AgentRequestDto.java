@@ -1,10 +1,16 @@
 package org.linhtk.orchestrator.dto;
 
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.linhtk.orchestrator.constant.RetrievalMode;
+import org.linhtk.orchestrator.constant.VectorQuantization;
 
 /**
  * Request DTO for creating and updating Agent entity.
@@ -35,4 +41,26 @@ public class AgentRequestDto {
     private boolean isPublished;
     
     private boolean isDefault;
+
+    private Boolean semanticCacheEnabled;
+
+    private Double semanticCacheThreshold;
+
+    private RetrievalMode retrievalMode;
+
+    private VectorQuantization vectorQuantization;
+
+    private Boolean fullPrecisionIndex;
+
+    @Min(value = 1, message = "Retrieval max K must be at least 1")
+    @Max(value = 50, message = "Retrieval max K must be at most 50")
+    private Integer retrievalMaxK;
+
+    @DecimalMin(value = "-1.0", message = "Retrieval min similarity must be between -1 and 1")
+    @DecimalMax(value = "1.0", message = "Retrieval min similarity must be between -1 and 1")
+    private Double retrievalMinSimilarity;
+
+    @DecimalMin(value = "0.0", message = "Retrieval relative drop must be between 0 and 1")
+    @DecimalMax(value = "1.0", message = "Retrieval relative drop must be between 0 and 1")
+    private Double retrievalRelativeDrop;
 }
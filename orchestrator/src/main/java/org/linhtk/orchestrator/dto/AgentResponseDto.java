@@ -5,6 +5,8 @@ import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.linhtk.orchestrator.constant.RetrievalMode;
+import org.linhtk.orchestrator.constant.VectorQuantization;
 
 import java.time.ZonedDateTime;
 
@@ -30,6 +32,14 @@ public class AgentResponseDto {
     private String providerEndpoint;
     private boolean isPublished;
     private boolean isDefault;
+    private Boolean semanticCacheEnabled;
+    private Double semanticCacheThreshold;
+    private RetrievalMode retrievalMode;
+    private VectorQuantization vectorQuantization;
+    private Boolean fullPrecisionIndex;
+    private Integer retrievalMaxK;
+    private Double retrievalMinSimilarity;
+    private Double retrievalRelativeDrop;
     private String createdBy;
     private ZonedDateTime createdAt;
     private String updatedBy;
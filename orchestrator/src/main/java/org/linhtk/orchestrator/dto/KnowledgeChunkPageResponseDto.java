@@ -0,0 +1,36 @@
+package org.linhtk.orchestrator.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated chunk listing.
+ * Pass nextCursor as the "after" parameter to fetch the following page.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@Builder
+public class KnowledgeChunkPageResponseDto {
+
+    /**
+     * Chunks of this page, ordered by chunk order
+     */
+    private List<KnowledgeChunkResponseDto> chunks;
+
+    /**
+     * Chunk order of the last chunk on this page; null when the page is empty
+     */
+    private Integer nextCursor;
+
+    /**
+     * Whether more chunks follow this page
+     */
+    private boolean hasMore;
+}
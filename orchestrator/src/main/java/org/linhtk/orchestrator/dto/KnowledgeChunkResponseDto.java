@@ -12,7 +12,13 @@ import java.util.Map;
 @Builder
 public class KnowledgeChunkResponseDto {
     private String id;
+    private Integer chunkOrder;
     private String content;
     private Map<String, Object> metadata;
 
+    /**
+     * Cosine similarity to the search query; only set on search results
+     */
+    private Double similarity;
+
 }
@@ -0,0 +1,22 @@
+package org.linhtk.orchestrator.dto;
+
+import lombok.*;
+import org.linhtk.orchestrator.constant.KnowledgeImportStatus;
+
+/**
+ * Response DTO describing the progress of one file in an import job.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@Builder
+public class KnowledgeImportFileProgressDto {
+    private String fileName;
+    private String contentType;
+    private long fileSize;
+    private KnowledgeImportStatus status;
+    private int chunks;
+    private String chunkingProfile;
+    private String errorMessage;
+}
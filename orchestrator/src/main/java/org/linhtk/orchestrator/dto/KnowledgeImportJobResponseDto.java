@@ -0,0 +1,31 @@
+package org.linhtk.orchestrator.dto;
+
+import lombok.*;
+import org.linhtk.orchestrator.constant.KnowledgeImportStatus;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+
+/**
+ * Response DTO for an asynchronous knowledge import job.
+ * Returned when a job is accepted and when its status is polled.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@Builder
+public class KnowledgeImportJobResponseDto {
+    private String id;
+    private String agentId;
+    private String agentKnowledgeId;
+    private KnowledgeImportStatus status;
+    private int totalFiles;
+    private int processedFiles;
+    private int totalChunks;
+    private List<KnowledgeImportFileProgressDto> files;
+    private String errorMessage;
+    private ZonedDateTime createdAt;
+    private ZonedDateTime startedAt;
+    private ZonedDateTime completedAt;
+}
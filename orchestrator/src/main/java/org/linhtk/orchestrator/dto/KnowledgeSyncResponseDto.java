@@ -0,0 +1,69 @@
+package org.linhtk.orchestrator.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Response view model for incremental (sync) re-imports.
+ * Reports how much of the stored knowledge actually changed.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@Builder
+public class KnowledgeSyncResponseDto {
+
+    /**
+     * Original filename of the new document version
+     */
+    private String originalFilename;
+
+    /**
+     * Knowledge source ID that was synchronized
+     */
+    private String knowledgeId;
+
+    /**
+     * Agent ID that owns the knowledge
+     */
+    private String agentId;
+
+    /**
+     * Chunking profile used for processing the document
+     */
+    private String chunkingProfile;
+
+    /**
+     * Number of chunks in the new document version
+     */
+    private int totalChunks;
+
+    /**
+     * Stored chunks left untouched because their content did not change
+     */
+    private int unchangedChunks;
+
+    /**
+     * Stored chunks whose content was replaced
+     */
+    private int updatedChunks;
+
+    /**
+     * New chunks appended to the knowledge source
+     */
+    private int insertedChunks;
+
+    /**
+     * Stored chunks removed because the new version is shorter
+     */
+    private int deletedChunks;
+
+    /**
+     * Chunks whose text had to be embedded
+     */
+    private int embeddedChunks;
+}
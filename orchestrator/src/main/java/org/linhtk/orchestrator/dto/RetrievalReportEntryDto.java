@@ -0,0 +1,39 @@
+package org.linhtk.orchestrator.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.linhtk.orchestrator.constant.VectorQuantization;
+
+/**
+ * Recall and latency of one vector quantization in a retrieval report.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@Builder
+public class RetrievalReportEntryDto {
+
+    /**
+     * Quantization used for the first search stage
+     */
+    private VectorQuantization quantization;
+
+    /**
+     * Fraction of the exact top-K hits that were returned, averaged over the sample queries
+     */
+    private double recall;
+
+    /**
+     * Mean search latency in milliseconds
+     */
+    private double meanLatencyMs;
+
+    /**
+     * 95th percentile search latency in milliseconds
+     */
+    private double p95LatencyMs;
+}
@@ -0,0 +1,41 @@
+package org.linhtk.orchestrator.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * Response view model comparing recall@K and latency of the vector quantizations
+ * on an agent's own knowledge.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@Builder
+public class RetrievalReportResponseDto {
+
+    /**
+     * Agent whose knowledge was searched
+     */
+    private String agentId;
+
+    /**
+     * Number of sample queries measured
+     */
+    private int sampleQueries;
+
+    /**
+     * Number of hits requested per query
+     */
+    private int topK;
+
+    /**
+     * One entry per quantization
+     */
+    private List<RetrievalReportEntryDto> entries;
+}
@@ -4,6 +4,7 @@ import org.linhtk.common.mapper.EntityCreateUpdateMapper;
 import org.linhtk.orchestrator.dto.KnowledgeChunkRequestDto;
 import org.linhtk.orchestrator.dto.KnowledgeChunkResponseDto;
 import org.linhtk.orchestrator.model.knowledge.KnowledgeChunk;
+import org.linhtk.orchestrator.repository.KnowledgeChunkSummary;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 
@@ -12,8 +13,12 @@ public interface KnowledgeChunkMapper extends EntityCreateUpdateMapper<
         KnowledgeChunk, KnowledgeChunkResponseDto, KnowledgeChunkResponseDto> {
 
     @Override
+    @Mapping(target = "similarity", ignore = true)
     KnowledgeChunkResponseDto toVmResponse(KnowledgeChunk knowledgeChunk);
 
+    @Mapping(target = "similarity", ignore = true)
+    KnowledgeChunkResponseDto toSummaryResponse(KnowledgeChunkSummary summary);
+
     @Mapping(target = "id", ignore = true)
     KnowledgeChunk toEntity(KnowledgeChunkRequestDto requestDto);
 }
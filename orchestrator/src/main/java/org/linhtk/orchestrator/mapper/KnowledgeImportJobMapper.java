@@ -0,0 +1,29 @@
+package org.linhtk.orchestrator.mapper;
+
+import org.linhtk.orchestrator.dto.KnowledgeImportFileProgressDto;
+import org.linhtk.orchestrator.dto.KnowledgeImportJobResponseDto;
+import org.linhtk.orchestrator.model.knowledge.KnowledgeImportFileProgress;
+import org.linhtk.orchestrator.model.knowledge.KnowledgeImportJob;
+import org.mapstruct.Mapper;
+import org.mapstruct.MappingConstants;
+
+/**
+ * Mapper for converting between KnowledgeImportJob entity and its response DTO
+ */
+@Mapper(componentModel = MappingConstants.ComponentModel.SPRING)
+public interface KnowledgeImportJobMapper {
+
+    /**
+     * Converts KnowledgeImportJob entity to KnowledgeImportJobResponseDto
+     * @param job The import job entity
+     * @return KnowledgeImportJobResponseDto
+     */
+    KnowledgeImportJobResponseDto toDto(KnowledgeImportJob job);
+
+    /**
+     * Converts per-file progress to its response DTO
+     * @param progress The file progress
+     * @return KnowledgeImportFileProgressDto
+     */
+    KnowledgeImportFileProgressDto toDto(KnowledgeImportFileProgress progress);
+}
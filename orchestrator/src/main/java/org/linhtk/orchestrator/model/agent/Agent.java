@@ -7,6 +7,8 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import org.linhtk.common.model.AbstractAuditEntity;
+import org.linhtk.orchestrator.constant.RetrievalMode;
+import org.linhtk.orchestrator.constant.VectorQuantization;
 
 /**
  * Entity representing AI Agent configuration.
@@ -121,4 +123,63 @@ public class Agent extends AbstractAuditEntity {
     @Column(name = "top_p", nullable = false)
     @Builder.Default
     private Double topP = 1.0;
+
+    /**
+     * Whether near-duplicate first questions are answered from the semantic answer cache.
+     * Null means disabled.
+     */
+    @Column(name = "semantic_cache_enabled")
+    private Boolean semanticCacheEnabled;
+
+    /**
+     * Minimum cosine similarity between two questions for the cached answer to be reused.
+     * Null uses the global default.
+     */
+    @Column(name = "semantic_cache_threshold")
+    private Double semanticCacheThreshold;
+
+    /**
+     * How the agent's knowledge is searched.
+     * Null means {@link RetrievalMode#VECTOR}.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "retrieval_mode", length = 20)
+    private RetrievalMode retrievalMode;
+
+    /**
+     * Compact representation scanned before re-ranking with full-precision embeddings.
+     * Null means {@link VectorQuantization#NONE}.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "vector_quantization", length = 20)
+    private VectorQuantization vectorQuantization;
+
+    /**
+     * Whether the agent's chunks stay in the full-precision HNSW index.
+     * Only false with a HALF or BINARY quantization removes them; null means true.
+     */
+    @Column(name = "full_precision_index")
+    private Boolean fullPrecisionIndex;
+
+    /**
+     * Maximum number of knowledge chunks injected per chat turn.
+     * Null uses {@link org.linhtk.orchestrator.constant.ChatConfig#TOP_K}.
+     */
+    @Column(name = "retrieval_max_k")
+    private Integer retrievalMaxK;
+
+    /**
+     * Chunks with a lower cosine similarity to the question are not injected.
+     * In HYBRID mode only vector hits are cut off, so full-text matches are always kept.
+     * Null disables the cut-off.
+     */
+    @Column(name = "retrieval_min_similarity")
+    private Double retrievalMinSimilarity;
+
+    /**
+     * Chunks scoring below best * (1 - drop) are not injected, e.g. 0.2 keeps chunks within 20% of the best.
+     * Null disables the cut-off.
+     */
+    @Column(name = "retrieval_relative_drop")
+    private Double retrievalRelativeDrop;
 }
@@ -14,6 +14,7 @@ import org.linhtk.orchestrator.config.hibernate.VectorType;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 
 /**
  * Entity representing chunked content from knowledge sources.
@@ -32,10 +33,10 @@ public class KnowledgeChunk extends AbstractAuditEntity {
     
     /**
      * Unique identifier for the knowledge chunk.
-     * Generated as UUID for distributed system compatibility.
+     * Generated client-side as UUID so bulk inserts know every ID up front
+     * and Hibernate can batch them without a round trip per row.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
     private String id;
 
     /**
@@ -69,6 +70,14 @@ public class KnowledgeChunk extends AbstractAuditEntity {
     @Column(nullable = false, columnDefinition = "TEXT")
     private String content;
 
+    /**
+     * Hex SHA-256 of the normalized content.
+     * Lets a re-import detect unchanged chunks and reuse their embeddings.
+     * Null for chunks stored before the column existed.
+     */
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
     /**
      * JSON metadata for storing chunk-specific information.
      * May include processing parameters, source location, confidence scores, etc.
@@ -96,4 +105,14 @@ public class KnowledgeChunk extends AbstractAuditEntity {
     @Column(name = "embedding_1536")
     @Type(VectorType.class)
     private float[] embedding1536;
+
+    /**
+     * Assigns a random UUID to chunks persisted without a pre-generated ID.
+     */
+    @PrePersist
+    void assignId() {
+        if (id == null) {
+            id = UUID.randomUUID().toString();
+        }
+    }
 }
@@ -0,0 +1,29 @@
+package org.linhtk.orchestrator.model.knowledge;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.linhtk.orchestrator.constant.KnowledgeImportStatus;
+
+/**
+ * Progress of a single file within a knowledge import job.
+ * Serialized into the knowledge_import_job.files JSONB column.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@Builder
+public class KnowledgeImportFileProgress {
+    private String fileName;
+    // Name of the upload's copy in the staging directory; not exposed in responses
+    private String stagedFile;
+    private String contentType;
+    private long fileSize;
+    private KnowledgeImportStatus status;
+    private int chunks;
+    private String chunkingProfile;
+    private String errorMessage;
+}
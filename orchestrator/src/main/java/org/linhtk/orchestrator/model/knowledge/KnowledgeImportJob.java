@@ -0,0 +1,120 @@
+package org.linhtk.orchestrator.model.knowledge;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+import org.linhtk.common.model.AbstractAuditEntity;
+import org.linhtk.orchestrator.constant.KnowledgeImportStatus;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Entity representing an asynchronous knowledge import job.
+ * Tracks the overall status of a multi-file import together with per-file progress,
+ * so clients can poll for completion instead of holding an HTTP request open.
+ */
+@Entity
+@Table(name = "knowledge_import_job")
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@Builder
+public class KnowledgeImportJob extends AbstractAuditEntity {
+
+    /**
+     * Unique identifier for the import job.
+     * Generated as UUID for distributed system compatibility.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private String id;
+
+    /**
+     * Reference to the agent that owns the imported knowledge.
+     */
+    @Column(name = "agent_id", nullable = false, length = 50)
+    private String agentId;
+
+    /**
+     * Reference to the knowledge source receiving the imported chunks.
+     */
+    @Column(name = "agent_knowledge_id", nullable = false, length = 50)
+    private String agentKnowledgeId;
+
+    /**
+     * Current lifecycle state of the job.
+     */
+    @Column(nullable = false, length = 30)
+    @Enumerated(EnumType.STRING)
+    private KnowledgeImportStatus status;
+
+    /**
+     * Number of files submitted with the job.
+     */
+    @Column(name = "total_files", nullable = false)
+    @Builder.Default
+    private Integer totalFiles = 0;
+
+    /**
+     * Number of files that finished processing, successfully or not.
+     */
+    @Column(name = "processed_files", nullable = false)
+    @Builder.Default
+    private Integer processedFiles = 0;
+
+    /**
+     * Total number of chunks stored across all successfully imported files.
+     */
+    @Column(name = "total_chunks", nullable = false)
+    @Builder.Default
+    private Integer totalChunks = 0;
+
+    /**
+     * Per-file progress stored as JSONB.
+     * Kept on the job row because files are always read and written together with the job.
+     */
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(columnDefinition = "jsonb")
+    @Builder.Default
+    private List<KnowledgeImportFileProgress> files = new ArrayList<>();
+
+    /**
+     * Job-level error, set when the job could not run at all.
+     */
+    @Column(name = "error_message", columnDefinition = "TEXT")
+    private String errorMessage;
+
+    /**
+     * Instance whose worker pool runs the job.
+     */
+    @Column(name = "owner_instance", length = 100)
+    private String ownerInstance;
+
+    /**
+     * Last time the owning instance reported the job alive.
+     * Defaulted by the database and only refreshed by a bulk update, so saving a job
+     * loaded earlier never moves it back.
+     */
+    @Column(name = "heartbeat_at", insertable = false, updatable = false)
+    private ZonedDateTime heartbeatAt;
+
+    /**
+     * Time the worker started processing the job.
+     */
+    @Column(name = "started_at")
+    private ZonedDateTime startedAt;
+
+    /**
+     * Time the worker finished processing the job.
+     */
+    @Column(name = "completed_at")
+    private ZonedDateTime completedAt;
+}
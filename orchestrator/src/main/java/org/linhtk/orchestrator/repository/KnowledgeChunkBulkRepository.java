@@ -0,0 +1,37 @@
+package org.linhtk.orchestrator.repository;
+
+import org.linhtk.orchestrator.model.knowledge.KnowledgeChunk;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Custom repository fragment for writing and reading large numbers of knowledge chunks.
+ * Implemented on the EntityManager so batch and fetch sizes come from configuration.
+ */
+public interface KnowledgeChunkBulkRepository {
+
+    /**
+     * Inserts new chunks with JDBC batching, flushing every batch and detaching the
+     * flushed chunks so memory stays flat for very large documents.
+     * Chunks without an ID get a client-side UUID before they are persisted.
+     *
+     * Only the given chunks are detached; other entities loaded earlier in the same
+     * transaction stay managed.
+     *
+     * @param chunks New chunks to insert
+     * @return The same chunks, with IDs assigned
+     */
+    List<KnowledgeChunk> persistAll(List<KnowledgeChunk> chunks);
+
+    /**
+     * Streams all chunk summaries of a knowledge source.
+     * Rows are fetched from a server-side cursor in blocks of knowledge.import.chunk-stream-fetch-size,
+     * so memory stays constant; must be consumed inside a transaction and closed afterwards.
+     *
+     * @param knowledgeId The knowledge source identifier
+     * @param agentId The agent identifier to validate ownership
+     * @return Stream of chunk summaries ordered by chunkOrder
+     */
+    Stream<KnowledgeChunkSummary> streamSummariesByKnowledgeIdAndAgentId(String knowledgeId, String agentId);
+}
@@ -0,0 +1,120 @@
+package org.linhtk.orchestrator.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.jpa.HibernateHints;
+import org.linhtk.orchestrator.config.KnowledgeImportProperties;
+import org.linhtk.orchestrator.model.knowledge.KnowledgeChunk;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * JPA implementation of {@link KnowledgeChunkBulkRepository}.
+ * Uses EntityManager.persist instead of save so pre-assigned IDs never trigger
+ * the select-before-insert of merge, letting Hibernate group inserts into JDBC batches
+ * of hibernate.jdbc.batch_size rows.
+ * Flushed chunks are detached one by one rather than clearing the persistence context,
+ * so entities the caller loaded earlier in the transaction stay managed.
+ */
+@Slf4j
+public class KnowledgeChunkBulkRepositoryImpl implements KnowledgeChunkBulkRepository {
+
+    private static final String STREAM_SUMMARIES_JPQL = """
+            SELECT c.id, c.agentKnowledgeId, c.agentId, c.chunkOrder, c.content, c.metadata
+            FROM KnowledgeChunk c
+            WHERE c.agentKnowledgeId = :knowledgeId AND c.agentId = :agentId
+            ORDER BY c.chunkOrder ASC
+            """;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final KnowledgeImportProperties importProperties;
+
+    public KnowledgeChunkBulkRepositoryImpl(KnowledgeImportProperties importProperties) {
+        this.importProperties = importProperties;
+    }
+
+    @Override
+    @Transactional
+    public List<KnowledgeChunk> persistAll(List<KnowledgeChunk> chunks) {
+        int batchSize = Math.max(1, importProperties.getPersistBatchSize());
+
+        for (int i = 0; i < chunks.size(); i++) {
+            KnowledgeChunk chunk = chunks.get(i);
+            if (chunk.getId() == null) {
+                chunk.setId(UUID.randomUUID().toString());
+            }
+            entityManager.persist(chunk);
+
+            if ((i + 1) % batchSize == 0) {
+                flushAndDetach(chunks.subList(i + 1 - batchSize, i + 1));
+            }
+        }
+        flushAndDetach(chunks.subList(chunks.size() - chunks.size() % batchSize, chunks.size()));
+
+        log.debug("Persisted {} knowledge chunks in batches of {}", chunks.size(), batchSize);
+        return chunks;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Stream<KnowledgeChunkSummary> streamSummariesByKnowledgeIdAndAgentId(String knowledgeId, String agentId) {
+        return entityManager.createQuery(STREAM_SUMMARIES_JPQL, Object[].class)
+                .setParameter("knowledgeId", knowledgeId)
+                .setParameter("agentId", agentId)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, Math.max(1, importProperties.getChunkStreamFetchSize()))
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream()
+                .map(row -> new SummaryRow((String) row[0], (String) row[1], (String) row[2],
+                        (Integer) row[3], (String) row[4], (Map<String, Object>) row[5]));
+    }
+
+    /**
+     * Writes pending inserts and drops the just-written chunks from the persistence context,
+     * bounding its size without touching any other managed entity.
+     */
+    private void flushAndDetach(List<KnowledgeChunk> flushed) {
+        entityManager.flush();
+        flushed.forEach(entityManager::detach);
+    }
+
+    private record SummaryRow(String id, String agentKnowledgeId, String agentId, Integer chunkOrder,
+                              String content, Map<String, Object> metadata) implements KnowledgeChunkSummary {
+
+        @Override
+        public String getId() {
+            return id;
+        }
+
+        @Override
+        public String getAgentKnowledgeId() {
+            return agentKnowledgeId;
+        }
+
+        @Override
+        public String getAgentId() {
+            return agentId;
+        }
+
+        @Override
+        public Integer getChunkOrder() {
+            return chunkOrder;
+        }
+
+        @Override
+        public String getContent() {
+            return content;
+        }
+
+        @Override
+        public Map<String, Object> getMetadata() {
+            return metadata;
+        }
+    }
+}
@@ -1,18 +1,21 @@
 package org.linhtk.orchestrator.repository;
 
 import org.linhtk.orchestrator.model.knowledge.KnowledgeChunk;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
  * Repository interface for KnowledgeChunk entity.
  * Provides data access operations for knowledge chunks including custom queries
- * for chunk ordering and retrieval.
+ * for chunk ordering and retrieval, batched bulk inserts and cursor-based streaming.
  */
-public interface KnowledgeChunkRepository extends JpaRepository<KnowledgeChunk, String> {
+public interface KnowledgeChunkRepository extends JpaRepository<KnowledgeChunk, String>, KnowledgeChunkBulkRepository {
     
     /**
      * Finds the maximum chunk order for a specific knowledge source and agent.
@@ -40,6 +43,19 @@ public interface KnowledgeChunkRepository extends JpaRepository<KnowledgeChunk,
     int findMaxChunkOrderByKnowledgeIdAndAgentId(@Param("knowledgeId") String knowledgeId, 
                                                    @Param("agentId") String agentId);
     
+    /**
+     * Moves chunks to negative chunk orders (-order - 1), which stay unique.
+     * Used before renumbering a knowledge source, so rows can swap positions without ever
+     * violating uq_knowledge_chunk_order. Managed entities keep their previous order in memory,
+     * so setting their new order afterwards is flushed as a regular update.
+     *
+     * @param ids The chunks to move
+     * @return Number of moved chunks
+     */
+    @Modifying
+    @Query("UPDATE KnowledgeChunk c SET c.chunkOrder = -c.chunkOrder - 1 WHERE c.id IN :ids")
+    int parkChunkOrders(@Param("ids") Collection<String> ids);
+
     /**
      * Finds all knowledge chunks for a specific knowledge source and agent.
      * Returns chunks ordered by their chunk order for maintaining document structure.
@@ -56,4 +72,64 @@ public interface KnowledgeChunkRepository extends JpaRepository<KnowledgeChunk,
         """)
     List<KnowledgeChunk> findAllByKnowledgeIdAndAgentId(@Param("knowledgeId") String knowledgeId,
                                                         @Param("agentId") String agentId);
+
+    /**
+     * Finds the chunks of a knowledge source as projections without embedding columns.
+     * Preferred over {@link #findAllByKnowledgeIdAndAgentId} whenever vectors are not needed.
+     *
+     * @param knowledgeId The knowledge source identifier
+     * @param agentId The agent identifier to validate ownership
+     * @return Chunk summaries ordered by chunkOrder
+     */
+    @Query("""
+        SELECT c.id AS id, c.agentKnowledgeId AS agentKnowledgeId, c.agentId AS agentId,
+               c.chunkOrder AS chunkOrder, c.content AS content, c.metadata AS metadata
+        FROM KnowledgeChunk c
+        WHERE c.agentKnowledgeId = :knowledgeId AND c.agentId = :agentId
+        ORDER BY c.chunkOrder ASC
+        """)
+    List<KnowledgeChunkSummary> findSummariesByKnowledgeIdAndAgentId(@Param("knowledgeId") String knowledgeId,
+                                                                     @Param("agentId") String agentId);
+
+    /**
+     * Finds the given chunks of a knowledge source as projections without embedding columns.
+     * Used to hydrate similarity-search hits in one round trip; IDs outside the knowledge
+     * source or agent are silently skipped. The result order is unspecified.
+     *
+     * @param ids The chunk identifiers
+     * @param knowledgeId The knowledge source identifier
+     * @param agentId The agent identifier to validate ownership
+     * @return Chunk summaries for the IDs that belong to the knowledge source
+     */
+    @Query("""
+        SELECT c.id AS id, c.agentKnowledgeId AS agentKnowledgeId, c.agentId AS agentId,
+               c.chunkOrder AS chunkOrder, c.content AS content, c.metadata AS metadata
+        FROM KnowledgeChunk c
+        WHERE c.id IN :ids AND c.agentKnowledgeId = :knowledgeId AND c.agentId = :agentId
+        """)
+    List<KnowledgeChunkSummary> findSummariesByIds(@Param("ids") Collection<String> ids,
+                                                   @Param("knowledgeId") String knowledgeId,
+                                                   @Param("agentId") String agentId);
+
+    /**
+     * Finds the next page of chunk summaries after a chunk order (keyset pagination).
+     * Served by idx_knowledge_chunk_order, so every page costs the same regardless of depth.
+     *
+     * @param knowledgeId The knowledge source identifier
+     * @param agentId The agent identifier to validate ownership
+     * @param afterOrder Chunk order of the last chunk already seen; use -1 for the first page
+     * @param limit Maximum number of chunks to return
+     * @return Chunk summaries with chunkOrder greater than afterOrder, ordered by chunkOrder
+     */
+    @Query("""
+        SELECT c.id AS id, c.agentKnowledgeId AS agentKnowledgeId, c.agentId AS agentId,
+               c.chunkOrder AS chunkOrder, c.content AS content, c.metadata AS metadata
+        FROM KnowledgeChunk c
+        WHERE c.agentKnowledgeId = :knowledgeId AND c.agentId = :agentId AND c.chunkOrder > :afterOrder
+        ORDER BY c.chunkOrder ASC
+        """)
+    List<KnowledgeChunkSummary> findSummariesAfter(@Param("knowledgeId") String knowledgeId,
+                                                   @Param("agentId") String agentId,
+                                                   @Param("afterOrder") int afterOrder,
+                                                   Limit limit);
 }
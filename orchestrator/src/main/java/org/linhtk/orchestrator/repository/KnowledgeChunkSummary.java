@@ -0,0 +1,23 @@
+package org.linhtk.orchestrator.repository;
+
+import java.util.Map;
+
+/**
+ * Read-only projection of a knowledge chunk without its embedding columns.
+ * Used by listing and search-result hydration, which never return vectors; selecting
+ * only these columns avoids transferring and parsing up to 1536 floats per row.
+ */
+public interface KnowledgeChunkSummary {
+
+    String getId();
+
+    String getAgentKnowledgeId();
+
+    String getAgentId();
+
+    Integer getChunkOrder();
+
+    String getContent();
+
+    Map<String, Object> getMetadata();
+}
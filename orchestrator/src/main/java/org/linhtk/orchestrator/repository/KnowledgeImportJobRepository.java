@@ -0,0 +1,78 @@
+package org.linhtk.orchestrator.repository;
+
+import org.linhtk.orchestrator.constant.KnowledgeImportStatus;
+import org.linhtk.orchestrator.model.knowledge.KnowledgeImportJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.ZonedDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository interface for KnowledgeImportJob entity.
+ * Provides data access methods for asynchronous knowledge import jobs.
+ */
+@Repository
+public interface KnowledgeImportJobRepository extends JpaRepository<KnowledgeImportJob, String> {
+
+    /**
+     * Finds an import job by ID, scoped to the agent that owns it.
+     *
+     * @param agentId The unique identifier of the agent
+     * @param id The unique identifier of the import job
+     * @return Optional containing the job if found and owned by the agent
+     */
+    Optional<KnowledgeImportJob> findByAgentIdAndId(String agentId, String id);
+
+    /**
+     * Finds jobs in the given states.
+     *
+     * @param statuses Job states to match
+     * @return Matching jobs
+     */
+    List<KnowledgeImportJob> findAllByStatusIn(Collection<KnowledgeImportStatus> statuses);
+
+    /**
+     * Finds jobs in the given states whose owner can no longer be running them: jobs this
+     * instance owned in an earlier run, and jobs of any instance that stopped reporting.
+     *
+     * @param statuses Job states to match
+     * @param owner Instance identifier of the caller
+     * @param startedAt Start of the caller's run; its own jobs created before belong to an earlier run
+     * @param staleBefore Jobs whose last heartbeat is older than this instant are stale
+     * @return Matching jobs
+     */
+    @Query("""
+        SELECT j
+        FROM KnowledgeImportJob j
+        WHERE j.status IN :statuses
+          AND ((j.ownerInstance = :owner AND j.createdAt < :startedAt)
+               OR COALESCE(j.heartbeatAt, j.createdAt) < :staleBefore)
+        """)
+    List<KnowledgeImportJob> findInterrupted(@Param("statuses") Collection<KnowledgeImportStatus> statuses,
+                                             @Param("owner") String owner,
+                                             @Param("startedAt") ZonedDateTime startedAt,
+                                             @Param("staleBefore") ZonedDateTime staleBefore);
+
+    /**
+     * Refreshes the heartbeat of the jobs an instance is running.
+     *
+     * @param owner Instance identifier of the caller
+     * @param statuses Job states to match, as names
+     * @return Number of refreshed jobs
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+        UPDATE knowledge_import_job
+        SET heartbeat_at = CURRENT_TIMESTAMP
+        WHERE owner_instance = :owner AND status IN (:statuses)
+        """, nativeQuery = true)
+    int touchHeartbeats(@Param("owner") String owner, @Param("statuses") Collection<String> statuses);
+}
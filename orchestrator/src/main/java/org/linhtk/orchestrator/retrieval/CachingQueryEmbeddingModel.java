@@ -0,0 +1,51 @@
+package org.linhtk.orchestrator.retrieval;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import org.linhtk.orchestrator.service.EmbeddingCacheService;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingRequest;
+import org.springframework.ai.embedding.EmbeddingResponse;
+
+/**
+ * {@link EmbeddingModel} decorator that serves single-text embeddings, i.e. search queries,
+ * from a shared in-memory cache.
+ *
+ * Implementation notes:
+ * - Keys combine the provider-qualified model with the hash of the normalized text, so agents
+ *   sharing a model share entries and a model change never returns stale vectors
+ * - Concurrent requests for the same uncached query wait for a single provider call
+ * - Batch and document embedding (imports) pass straight through to the delegate
+ */
+public class CachingQueryEmbeddingModel implements EmbeddingModel {
+
+    private final EmbeddingModel delegate;
+    private final Cache<String, float[]> cache;
+    private final String modelKey;
+
+    public CachingQueryEmbeddingModel(EmbeddingModel delegate, Cache<String, float[]> cache, String modelKey) {
+        this.delegate = delegate;
+        this.cache = cache;
+        this.modelKey = modelKey;
+    }
+
+    @Override
+    public float[] embed(String text) {
+        return cache.get(modelKey + '|' + EmbeddingCacheService.contentHash(text), key -> delegate.embed(text));
+    }
+
+    @Override
+    public EmbeddingResponse call(EmbeddingRequest request) {
+        return delegate.call(request);
+    }
+
+    @Override
+    public float[] embed(Document document) {
+        return delegate.embed(document);
+    }
+
+    @Override
+    public int dimensions() {
+        return delegate.dimensions();
+    }
+}
@@ -0,0 +1,157 @@
+package org.linhtk.orchestrator.retrieval;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.linhtk.orchestrator.config.hibernate.PgVectorCodec;
+import org.linhtk.orchestrator.model.knowledge.KnowledgeChunk;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Reads the embedded chunks of an agent from knowledge_chunk for the in-process indexes,
+ * and the stored embeddings of retrieved chunks for context re-ranking.
+ *
+ * Implementation notes:
+ * - Embeddings are selected as vector_send bytes and decoded with {@link PgVectorCodec}
+ * - Rows are streamed with a bounded fetch size inside a read-only transaction (the driver
+ *   only uses a cursor outside auto-commit), so loading never holds the whole result set
+ */
+@Component
+public class ChunkEmbeddingLoader {
+
+    private static final String LOAD_SQL = """
+            SELECT id, agent_knowledge_id, chunk_order, content, metadata::text AS metadata,
+                   vector_send(%1$s) AS embedding
+            FROM knowledge_chunk
+            WHERE agent_id = ? AND %1$s IS NOT NULL
+            """;
+
+    private static final String COUNT_SQL = """
+            SELECT count(*) FROM knowledge_chunk WHERE agent_id = ? AND %s IS NOT NULL
+            """;
+
+    private static final String EMBEDDINGS_SQL = """
+            SELECT id, vector_send(%1$s) AS embedding
+            FROM knowledge_chunk
+            WHERE id = ANY (?) AND %1$s IS NOT NULL
+            """;
+
+    private static final int LOAD_FETCH_SIZE = 1000;
+
+    private static final TypeReference<Map<String, Object>> METADATA_TYPE = new TypeReference<>() {
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readTransaction;
+
+    public ChunkEmbeddingLoader(JdbcTemplate jdbcTemplate,
+                                ObjectMapper objectMapper,
+                                PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+    }
+
+    /**
+     * @param agentId   The agent identifier
+     * @param dimension Embedding dimension of the agent
+     * @return Number of the agent's chunks with an embedding of that dimension
+     */
+    public long count(String agentId, int dimension) {
+        Long count = jdbcTemplate.queryForObject(
+                String.format(COUNT_SQL, PgKnowledgeChunkSearchEngine.embeddingColumn(dimension)), Long.class, agentId);
+        return count != null ? count : 0;
+    }
+
+    /**
+     * Streams the agent's embedded chunks.
+     *
+     * @param agentId   The agent identifier
+     * @param dimension Embedding dimension of the agent
+     * @param consumer  Receives each chunk (similarity 0) with its raw embedding
+     */
+    public void forEachChunk(String agentId, int dimension, BiConsumer<ChunkSearchHit, float[]> consumer) {
+        String sql = String.format(LOAD_SQL, PgKnowledgeChunkSearchEngine.embeddingColumn(dimension));
+        readTransaction.executeWithoutResult(status -> jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql);
+            ps.setFetchSize(LOAD_FETCH_SIZE);
+            ps.setString(1, agentId);
+            return ps;
+        }, (RowCallbackHandler) rs -> consumer.accept(
+                new ChunkSearchHit(
+                        rs.getString("id"),
+                        rs.getString("agent_knowledge_id"),
+                        rs.getInt("chunk_order"),
+                        rs.getString("content"),
+                        parseMetadata(rs.getString("metadata")),
+                        0.0),
+                PgVectorCodec.decodeBinary(rs.getBytes("embedding")))));
+    }
+
+    /**
+     * Looks up the stored embeddings of chunks by ID.
+     *
+     * @param chunkIds  Chunk IDs
+     * @param dimension Embedding dimension of the agent
+     * @return Map from chunk ID to embedding, containing only chunks embedded at that dimension
+     */
+    public Map<String, float[]> embeddings(Collection<String> chunkIds, int dimension) {
+        Map<String, float[]> embeddings = new HashMap<>();
+        if (chunkIds.isEmpty()) {
+            return embeddings;
+        }
+
+        String sql = String.format(EMBEDDINGS_SQL, PgKnowledgeChunkSearchEngine.embeddingColumn(dimension));
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql);
+            ps.setArray(1, connection.createArrayOf("varchar", chunkIds.toArray()));
+            return ps;
+        }, (RowCallbackHandler) rs ->
+                embeddings.put(rs.getString("id"), PgVectorCodec.decodeBinary(rs.getBytes("embedding"))));
+        return embeddings;
+    }
+
+    /**
+     * @return The chunk as search data (similarity 0)
+     */
+    public static ChunkSearchHit toChunk(KnowledgeChunk chunk) {
+        return new ChunkSearchHit(chunk.getId(), chunk.getAgentKnowledgeId(), chunk.getChunkOrder(),
+                chunk.getContent(), chunk.getMetadata() != null ? chunk.getMetadata() : Map.of(), 0.0);
+    }
+
+    /**
+     * @return The chunk's embedding if it has the given dimension, otherwise null
+     */
+    public static float[] embeddingOf(KnowledgeChunk chunk, int dimension) {
+        if (chunk.getEmbedding1536() != null && chunk.getEmbedding1536().length == dimension) {
+            return chunk.getEmbedding1536();
+        }
+        if (chunk.getEmbedding768() != null && chunk.getEmbedding768().length == dimension) {
+            return chunk.getEmbedding768();
+        }
+        return null;
+    }
+
+    private Map<String, Object> parseMetadata(String json) {
+        if (json == null) {
+            return Map.of();
+        }
+        try {
+            return objectMapper.readValue(json, METADATA_TYPE);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to parse chunk metadata", e);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package org.linhtk.orchestrator.retrieval;
+
+import java.util.List;
+
+/**
+ * Backend that answers cosine top-K and full-text searches over agent knowledge chunks.
+ */
+public interface ChunkSearchEngine {
+
+    /**
+     * @param query Agent, knowledge filter, query embedding, K and quantization
+     * @return At most topK hits, most similar first
+     */
+    List<ChunkSearchHit> search(ChunkSearchQuery query);
+
+    /**
+     * Exact cosine top-K over all matching chunks, bypassing approximate indexes.
+     * Slow; meant as ground truth when measuring recall.
+     *
+     * @param query Agent, knowledge filter, query embedding and K; quantization is ignored
+     * @return At most topK hits, most similar first
+     */
+    List<ChunkSearchHit> searchExact(ChunkSearchQuery query);
+
+    /**
+     * Full-text search matching any term of the text, ranked by term density.
+     * Hits still carry the cosine similarity of their embedding to the query embedding.
+     *
+     * @param query Agent, knowledge filter, query embedding and K
+     * @param text  The query text
+     * @return At most topK hits, best text match first
+     */
+    List<ChunkSearchHit> searchText(ChunkSearchQuery query, String text);
+}
@@ -0,0 +1,21 @@
+package org.linhtk.orchestrator.retrieval;
+
+import java.util.Map;
+
+/**
+ * One chunk returned by a {@link ChunkSearchEngine}, ordered by similarity.
+ *
+ * @param id          Chunk ID
+ * @param knowledgeId Knowledge source the chunk belongs to
+ * @param chunkOrder  Position of the chunk in its knowledge source, if known
+ * @param content     Chunk text
+ * @param metadata    Chunk metadata
+ * @param similarity  Cosine similarity to the query, 1 being identical
+ */
+public record ChunkSearchHit(String id,
+                             String knowledgeId,
+                             Integer chunkOrder,
+                             String content,
+                             Map<String, Object> metadata,
+                             double similarity) {
+}
@@ -0,0 +1,33 @@
+package org.linhtk.orchestrator.retrieval;
+
+import org.linhtk.orchestrator.constant.VectorQuantization;
+
+import java.util.List;
+
+/**
+ * Nearest-neighbour search over the chunks of one agent.
+ *
+ * @param agentId      The agent whose chunks are searched
+ * @param knowledgeIds Knowledge sources to search within; empty searches all of the agent's knowledge
+ * @param embedding    Query embedding; its dimension selects the embedding column
+ * @param topK         Maximum number of hits
+ * @param quantization Compact representation used for the first search stage, if any
+ */
+public record ChunkSearchQuery(String agentId, List<String> knowledgeIds, float[] embedding, int topK,
+                               VectorQuantization quantization) {
+
+    public ChunkSearchQuery {
+        knowledgeIds = knowledgeIds != null ? List.copyOf(knowledgeIds) : List.of();
+        quantization = quantization != null ? quantization : VectorQuantization.NONE;
+        if (topK <= 0) {
+            throw new IllegalArgumentException("topK must be greater than 0");
+        }
+    }
+
+    /**
+     * Full-precision search.
+     */
+    public ChunkSearchQuery(String agentId, List<String> knowledgeIds, float[] embedding, int topK) {
+        this(agentId, knowledgeIds, embedding, topK, VectorQuantization.NONE);
+    }
+}
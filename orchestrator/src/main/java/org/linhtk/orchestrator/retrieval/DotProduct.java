@@ -0,0 +1,23 @@
+package org.linhtk.orchestrator.retrieval;
+
+/**
+ * Dot product of one row of a packed row-major matrix with a vector.
+ * Implemented with the Java Vector API where available, with a scalar fallback.
+ */
+interface DotProduct {
+
+    /**
+     * @param matrix Packed rows of vector.length values each
+     * @param offset Index of the first value of the row
+     * @param vector Vector to multiply with
+     * @return Sum of matrix[offset + i] * vector[i]
+     */
+    float dot(float[] matrix, int offset, float[] vector);
+
+    /**
+     * @return Number of floats processed per instruction
+     */
+    default int lanes() {
+        return 1;
+    }
+}
@@ -0,0 +1,54 @@
+package org.linhtk.orchestrator.retrieval;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Selects the fastest available {@link DotProduct}.
+ *
+ * The SIMD implementation needs the incubating jdk.incubator.vector module, which the JVM only
+ * resolves when started with --add-modules jdk.incubator.vector. Without it the scalar
+ * implementation is used; the SIMD class is loaded reflectively and only used through the
+ * {@link DotProduct} interface, so nothing here links against it or the incubator module.
+ */
+@Slf4j
+final class DotProducts {
+
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+    private static final String SIMD_CLASS = "org.linhtk.orchestrator.retrieval.SimdDotProduct";
+
+    private static final DotProduct SCALAR = new ScalarDotProduct();
+
+    private DotProducts() {
+    }
+
+    /**
+     * @param allowSimd false to force the scalar implementation
+     * @return SIMD implementation if allowed and available, otherwise scalar
+     */
+    static DotProduct get(boolean allowSimd) {
+        return allowSimd ? Best.INSTANCE : SCALAR;
+    }
+
+    /**
+     * Holder resolved on first use, so the module check and its log line happen once.
+     */
+    private static final class Best {
+        private static final DotProduct INSTANCE = detect();
+    }
+
+    private static DotProduct detect() {
+        if (ModuleLayer.boot().findModule(VECTOR_MODULE).isEmpty()) {
+            log.info("Module {} not present (start with --add-modules {}), exact search uses scalar dot products",
+                    VECTOR_MODULE, VECTOR_MODULE);
+            return SCALAR;
+        }
+        try {
+            DotProduct simd = (DotProduct) Class.forName(SIMD_CLASS).getDeclaredConstructor().newInstance();
+            log.info("Exact search uses SIMD dot products ({} floats per instruction)", simd.lanes());
+            return simd;
+        } catch (ReflectiveOperationException | LinkageError e) {
+            log.warn("Failed to load SIMD dot product, using scalar fallback: {}", e.getMessage());
+            return SCALAR;
+        }
+    }
+}
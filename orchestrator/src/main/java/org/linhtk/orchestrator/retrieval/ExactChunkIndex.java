@@ -0,0 +1,177 @@
+package org.linhtk.orchestrator.retrieval;
+
+import org.linhtk.common.exception.BadRequestException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Exact (brute-force) cosine search over the chunks of one agent.
+ * For small corpora a full scan of a packed matrix is faster than an ANN round trip to
+ * PostgreSQL and has perfect recall.
+ *
+ * Design decisions:
+ * - Rows are normalized when added and packed into one row-major float[], so a scan is a
+ *   sequential pass over contiguous memory with one dot product per row
+ * - Dot products use the Java Vector API when available ({@link DotProducts})
+ * - The best K rows are tracked in a fixed-size min-heap of primitive arrays, so a scan
+ *   allocates nothing per row
+ * - Filled once by the owner and then only read; searches need no locking once the index
+ *   has been safely published
+ */
+public class ExactChunkIndex {
+
+    private final int dimension;
+    private final DotProduct dotProduct;
+    private final List<ChunkSearchHit> chunks;
+    private float[] matrix;
+
+    /**
+     * @param dimension      Embedding dimension
+     * @param expectedChunks Number of chunks the matrix is sized for; it grows if exceeded
+     * @param allowSimd      false to force scalar dot products
+     */
+    public ExactChunkIndex(int dimension, int expectedChunks, boolean allowSimd) {
+        this.dimension = dimension;
+        this.dotProduct = DotProducts.get(allowSimd);
+        this.chunks = new ArrayList<>(Math.max(expectedChunks, 1));
+        this.matrix = new float[Math.multiplyExact(Math.max(expectedChunks, 1), dimension)];
+    }
+
+    public int dimension() {
+        return dimension;
+    }
+
+    public int size() {
+        return chunks.size();
+    }
+
+    /**
+     * Appends a chunk. Not thread-safe; only call while building the index.
+     *
+     * @param chunk     Chunk data returned by searches; its similarity is ignored
+     * @param embedding Chunk embedding of {@link #dimension()} values
+     */
+    public void add(ChunkSearchHit chunk, float[] embedding) {
+        checkDimension(embedding);
+        int offset = Math.multiplyExact(chunks.size(), dimension);
+        if (offset + dimension > matrix.length) {
+            matrix = Arrays.copyOf(matrix, Math.multiplyExact(Math.max(chunks.size() * 2, 1), dimension));
+        }
+
+        double sum = 0;
+        for (float value : embedding) {
+            sum += value * value;
+        }
+        double norm = sum > 0 ? Math.sqrt(sum) : 1;
+        for (int i = 0; i < dimension; i++) {
+            matrix[offset + i] = (float) (embedding[i] / norm);
+        }
+        chunks.add(chunk);
+    }
+
+    /**
+     * @param query Agent, knowledge filter, query embedding and K; the agent is not checked
+     * @return At most topK hits, most similar first
+     */
+    public List<ChunkSearchHit> search(ChunkSearchQuery query) {
+        float[] vector = normalize(checkDimension(query.embedding()));
+        Set<String> knowledgeIds = query.knowledgeIds().isEmpty() ? null : Set.copyOf(query.knowledgeIds());
+
+        int k = Math.min(query.topK(), chunks.size());
+        int[] heapRows = new int[k];
+        float[] heapScores = new float[k];
+        int heapSize = 0;
+
+        for (int row = 0, offset = 0; row < chunks.size(); row++, offset += dimension) {
+            if (knowledgeIds != null && !knowledgeIds.contains(chunks.get(row).knowledgeId())) {
+                continue;
+            }
+            float score = dotProduct.dot(matrix, offset, vector);
+            if (heapSize < k) {
+                heapRows[heapSize] = row;
+                heapScores[heapSize] = score;
+                siftUp(heapRows, heapScores, heapSize++);
+            } else if (k > 0 && score > heapScores[0]) {
+                heapRows[0] = row;
+                heapScores[0] = score;
+                siftDown(heapRows, heapScores, heapSize);
+            }
+        }
+
+        // Pop the min-heap from the back, so the result ends up most similar first
+        ChunkSearchHit[] hits = new ChunkSearchHit[heapSize];
+        for (int i = heapSize - 1; i >= 0; i--) {
+            ChunkSearchHit chunk = chunks.get(heapRows[0]);
+            hits[i] = new ChunkSearchHit(chunk.id(), chunk.knowledgeId(), chunk.chunkOrder(),
+                    chunk.content(), chunk.metadata(), heapScores[0]);
+            heapRows[0] = heapRows[i];
+            heapScores[0] = heapScores[i];
+            siftDown(heapRows, heapScores, i);
+        }
+        return List.of(hits);
+    }
+
+    private static void siftUp(int[] rows, float[] scores, int index) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (scores[parent] <= scores[index]) {
+                return;
+            }
+            swap(rows, scores, parent, index);
+            index = parent;
+        }
+    }
+
+    private static void siftDown(int[] rows, float[] scores, int size) {
+        int index = 0;
+        while (true) {
+            int smallest = index;
+            int left = 2 * index + 1;
+            int right = left + 1;
+            if (left < size && scores[left] < scores[smallest]) {
+                smallest = left;
+            }
+            if (right < size && scores[right] < scores[smallest]) {
+                smallest = right;
+            }
+            if (smallest == index) {
+                return;
+            }
+            swap(rows, scores, smallest, index);
+            index = smallest;
+        }
+    }
+
+    private static void swap(int[] rows, float[] scores, int a, int b) {
+        int row = rows[a];
+        rows[a] = rows[b];
+        rows[b] = row;
+        float score = scores[a];
+        scores[a] = scores[b];
+        scores[b] = score;
+    }
+
+    private float[] checkDimension(float[] vector) {
+        if (vector.length != dimension) {
+            throw new BadRequestException(String.format(
+                    "Embedding has %d dimensions, index expects %d", vector.length, dimension));
+        }
+        return vector;
+    }
+
+    private static float[] normalize(float[] vector) {
+        double sum = 0;
+        for (float value : vector) {
+            sum += value * value;
+        }
+        double norm = sum > 0 ? Math.sqrt(sum) : 1;
+        float[] normalized = new float[vector.length];
+        for (int i = 0; i < vector.length; i++) {
+            normalized[i] = (float) (vector[i] / norm);
+        }
+        return normalized;
+    }
+}
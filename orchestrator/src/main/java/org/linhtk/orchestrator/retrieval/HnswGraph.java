@@ -0,0 +1,233 @@
+package org.linhtk.orchestrator.retrieval;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntPredicate;
+
+/**
+ * Hierarchical Navigable Small World graph over unit-length vectors, scored by dot product
+ * (equal to cosine similarity for normalized input).
+ *
+ * Implementation notes:
+ * - Follows Malkov and Yashunin: nodes get a random top level with multiplier 1 / ln(M),
+ *   upper levels are descended greedily and level 0 is searched with a candidate list of ef
+ * - Neighbour lists keep the M best links (2M on level 0); when a list overflows it is pruned
+ *   to the links most similar to its owner
+ * - Vectors live in {@link PackedVectors}; links are plain int arrays indexed by node
+ * - Nodes are never removed; callers hide deleted nodes with the accept predicate, which
+ *   only filters results, so the graph stays navigable through them
+ *
+ * Not thread-safe; callers serialize inserts against searches.
+ */
+final class HnswGraph {
+
+    private static final int[] NO_LINKS = new int[0];
+
+    private static final Comparator<Neighbor> BEST_FIRST =
+            Comparator.comparingDouble(Neighbor::similarity).reversed();
+    private static final Comparator<Neighbor> WORST_FIRST =
+            Comparator.comparingDouble(Neighbor::similarity);
+
+    private final PackedVectors vectors;
+    private final int m;
+    private final int maxLinksLevel0;
+    private final int efConstruction;
+    private final double levelMultiplier;
+
+    // links.get(node)[level] = neighbours of node on that level
+    private final List<int[][]> links = new ArrayList<>();
+    private int entryPoint = -1;
+    private int maxLevel = -1;
+
+    HnswGraph(int dimension, int m, int efConstruction, int initialCapacity) {
+        if (m < 2) {
+            throw new IllegalArgumentException("m must be at least 2");
+        }
+        this.vectors = new PackedVectors(dimension, initialCapacity);
+        this.m = m;
+        this.maxLinksLevel0 = 2 * m;
+        this.efConstruction = Math.max(efConstruction, m);
+        this.levelMultiplier = 1 / Math.log(m);
+    }
+
+    int dimension() {
+        return vectors.dimension();
+    }
+
+    int size() {
+        return vectors.size();
+    }
+
+    /**
+     * @param vector Unit-length vector
+     * @return Node ID of the inserted vector, equal to the number of nodes inserted before it
+     */
+    int insert(float[] vector) {
+        int node = vectors.add(vector);
+        int level = randomLevel();
+        int[][] nodeLinks = new int[level + 1][];
+        Arrays.fill(nodeLinks, NO_LINKS);
+        links.add(nodeLinks);
+
+        if (entryPoint < 0) {
+            entryPoint = node;
+            maxLevel = level;
+            return node;
+        }
+
+        int current = entryPoint;
+        for (int l = maxLevel; l > level; l--) {
+            current = greedyClosest(vector, current, l);
+        }
+
+        List<Neighbor> entries = List.of(new Neighbor(current, vectors.dot(current, vector)));
+        for (int l = Math.min(level, maxLevel); l >= 0; l--) {
+            List<Neighbor> candidates = searchLevel(vector, entries, efConstruction, l, null);
+            int[] selected = candidates.stream()
+                    .limit(m)
+                    .mapToInt(Neighbor::node)
+                    .toArray();
+            nodeLinks[l] = selected;
+            for (int neighbor : selected) {
+                connect(neighbor, node, l);
+            }
+            entries = candidates;
+        }
+
+        if (level > maxLevel) {
+            maxLevel = level;
+            entryPoint = node;
+        }
+        return node;
+    }
+
+    /**
+     * @param query  Unit-length query vector
+     * @param k      Maximum number of results
+     * @param ef     Candidate list size on level 0; raised to k if smaller
+     * @param accept Nodes allowed in the result, or null to allow all
+     * @return At most k accepted nodes, most similar first
+     */
+    List<Neighbor> search(float[] query, int k, int ef, IntPredicate accept) {
+        if (entryPoint < 0) {
+            return List.of();
+        }
+
+        int current = entryPoint;
+        for (int l = maxLevel; l > 0; l--) {
+            current = greedyClosest(query, current, l);
+        }
+
+        List<Neighbor> results = searchLevel(query,
+                List.of(new Neighbor(current, vectors.dot(current, query))), Math.max(ef, k), 0, accept);
+        return results.size() > k ? results.subList(0, k) : results;
+    }
+
+    private int greedyClosest(float[] query, int start, int level) {
+        int current = start;
+        double best = vectors.dot(current, query);
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            for (int neighbor : links.get(current)[level]) {
+                double similarity = vectors.dot(neighbor, query);
+                if (similarity > best) {
+                    best = similarity;
+                    current = neighbor;
+                    improved = true;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Best-first search of one level.
+     *
+     * @return Up to ef accepted nodes, most similar first
+     */
+    private List<Neighbor> searchLevel(float[] query, List<Neighbor> entries, int ef, int level, IntPredicate accept) {
+        BitSet visited = new BitSet(links.size());
+        PriorityQueue<Neighbor> candidates = new PriorityQueue<>(BEST_FIRST);
+        PriorityQueue<Neighbor> results = new PriorityQueue<>(WORST_FIRST);
+
+        for (Neighbor entry : entries) {
+            visited.set(entry.node());
+            candidates.add(entry);
+            if (accept == null || accept.test(entry.node())) {
+                results.add(entry);
+                if (results.size() > ef) {
+                    results.poll();
+                }
+            }
+        }
+
+        while (!candidates.isEmpty()) {
+            Neighbor candidate = candidates.poll();
+            if (results.size() >= ef && candidate.similarity() < results.peek().similarity()) {
+                break;
+            }
+
+            for (int neighbor : links.get(candidate.node())[level]) {
+                if (visited.get(neighbor)) {
+                    continue;
+                }
+                visited.set(neighbor);
+
+                double similarity = vectors.dot(neighbor, query);
+                if (results.size() < ef || similarity > results.peek().similarity()) {
+                    Neighbor next = new Neighbor(neighbor, similarity);
+                    candidates.add(next);
+                    if (accept == null || accept.test(neighbor)) {
+                        results.add(next);
+                        if (results.size() > ef) {
+                            results.poll();
+                        }
+                    }
+                }
+            }
+        }
+
+        List<Neighbor> sorted = new ArrayList<>(results);
+        sorted.sort(BEST_FIRST);
+        return sorted;
+    }
+
+    /**
+     * Adds a link from one node to another, pruning the list to its best links if it overflows.
+     */
+    private void connect(int from, int to, int level) {
+        int[][] fromLinks = links.get(from);
+        int[] existing = fromLinks[level];
+        int[] grown = Arrays.copyOf(existing, existing.length + 1);
+        grown[existing.length] = to;
+
+        int maxLinks = level == 0 ? maxLinksLevel0 : m;
+        if (grown.length > maxLinks) {
+            float[] owner = vectors.get(from);
+            grown = Arrays.stream(grown)
+                    .mapToObj(node -> new Neighbor(node, vectors.dot(node, owner)))
+                    .sorted(BEST_FIRST)
+                    .limit(maxLinks)
+                    .mapToInt(Neighbor::node)
+                    .toArray();
+        }
+        fromLinks[level] = grown;
+    }
+
+    private int randomLevel() {
+        double uniform = 1.0 - ThreadLocalRandom.current().nextDouble();
+        return (int) (-Math.log(uniform) * levelMultiplier);
+    }
+
+    /**
+     * A node and its similarity to the current query.
+     */
+    record Neighbor(int node, double similarity) {
+    }
+}
@@ -0,0 +1,166 @@
+package org.linhtk.orchestrator.retrieval;
+
+import org.linhtk.common.exception.BadRequestException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntPredicate;
+
+/**
+ * In-process approximate nearest-neighbour index over the chunks of one agent.
+ * Answers the same queries as {@link ChunkSearchEngine#search} without a database round trip.
+ *
+ * Design decisions:
+ * - Embeddings are normalized on insert and packed into one float array by {@link HnswGraph};
+ *   chunk text and metadata are kept next to it so hits need no hydration query
+ * - Updating a chunk inserts a new node and hides the old one; removed nodes keep guiding
+ *   searches but are never returned. Once hidden nodes outnumber live ones,
+ *   {@link #needsRebuild()} asks the owner to rebuild from the database
+ * - Searches share a read lock and run concurrently; writes take the write lock
+ */
+public class InMemoryChunkIndex {
+
+    private final HnswGraph graph;
+    private final int efSearch;
+
+    // Chunk data by node ID; null for removed nodes
+    private final List<ChunkSearchHit> chunks = new ArrayList<>();
+    private final Map<String, Integer> nodesById = new HashMap<>();
+    private int removed;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * @param dimension      Embedding dimension
+     * @param m              Links per node and level (2M on level 0)
+     * @param efConstruction Candidate list size while inserting
+     * @param efSearch       Candidate list size while searching
+     */
+    public InMemoryChunkIndex(int dimension, int m, int efConstruction, int efSearch) {
+        this.graph = new HnswGraph(dimension, m, efConstruction, 1024);
+        this.efSearch = efSearch;
+    }
+
+    public int dimension() {
+        return graph.dimension();
+    }
+
+    /**
+     * @return Number of chunks that can be returned by searches
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return nodesById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a chunk, replacing an earlier version with the same ID.
+     *
+     * @param chunk     Chunk data returned by searches; its similarity is ignored
+     * @param embedding Chunk embedding of {@link #dimension()} values
+     */
+    public void upsert(ChunkSearchHit chunk, float[] embedding) {
+        float[] normalized = normalize(checkedDimension(embedding));
+        lock.writeLock().lock();
+        try {
+            hide(chunk.id());
+            int node = graph.insert(normalized);
+            chunks.add(chunk);
+            nodesById.put(chunk.id(), node);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @param chunkId ID of the chunk to remove; unknown IDs are ignored
+     */
+    public void remove(String chunkId) {
+        lock.writeLock().lock();
+        try {
+            hide(chunkId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return true if removed nodes outnumber live ones and slow searches down
+     */
+    public boolean needsRebuild() {
+        lock.readLock().lock();
+        try {
+            return removed > nodesById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @param query Agent, knowledge filter, query embedding and K; the agent is not checked
+     * @return At most topK hits, most similar first
+     */
+    public List<ChunkSearchHit> search(ChunkSearchQuery query) {
+        float[] normalized = normalize(checkedDimension(query.embedding()));
+        Set<String> knowledgeIds = query.knowledgeIds().isEmpty() ? null : Set.copyOf(query.knowledgeIds());
+
+        lock.readLock().lock();
+        try {
+            IntPredicate accept = node -> {
+                ChunkSearchHit chunk = chunks.get(node);
+                return chunk != null && (knowledgeIds == null || knowledgeIds.contains(chunk.knowledgeId()));
+            };
+
+            return graph.search(normalized, query.topK(), efSearch, accept).stream()
+                    .map(neighbor -> {
+                        ChunkSearchHit chunk = chunks.get(neighbor.node());
+                        return new ChunkSearchHit(chunk.id(), chunk.knowledgeId(), chunk.chunkOrder(),
+                                chunk.content(), chunk.metadata(), neighbor.similarity());
+                    })
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void hide(String chunkId) {
+        Integer node = nodesById.remove(chunkId);
+        if (node != null) {
+            chunks.set(node, null);
+            removed++;
+        }
+    }
+
+    private float[] checkedDimension(float[] vector) {
+        if (vector.length != graph.dimension()) {
+            throw new BadRequestException(String.format(
+                    "Embedding has %d dimensions, index expects %d", vector.length, graph.dimension()));
+        }
+        return vector;
+    }
+
+    private static float[] normalize(float[] vector) {
+        double sum = 0;
+        for (float value : vector) {
+            sum += value * value;
+        }
+        float[] normalized = new float[vector.length];
+        if (sum == 0) {
+            return normalized;
+        }
+        double norm = Math.sqrt(sum);
+        for (int i = 0; i < vector.length; i++) {
+            normalized[i] = (float) (vector[i] / norm);
+        }
+        return normalized;
+    }
+}
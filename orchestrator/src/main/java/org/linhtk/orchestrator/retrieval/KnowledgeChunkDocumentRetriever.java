@@ -0,0 +1,78 @@
+package org.linhtk.orchestrator.retrieval;
+
+import org.linhtk.orchestrator.service.KnowledgeRetrievalService;
+import org.linhtk.orchestrator.service.VectorStoreService;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.rag.Query;
+import org.springframework.ai.rag.retrieval.search.DocumentRetriever;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link DocumentRetriever} that answers RAG queries through {@link KnowledgeRetrievalService},
+ * scoped to one agent and optionally to some of its knowledge sources.
+ * Hits are returned as documents carrying the chunk ID, text, ownership metadata and score;
+ * hits failing the agent's {@link SimilarityCutoff} are dropped by the search, which in hybrid
+ * mode cuts off the vector hits only.
+ * A query embedding found under {@link #CONTEXT_QUERY_EMBEDDING} is searched with directly.
+ */
+public class KnowledgeChunkDocumentRetriever implements DocumentRetriever {
+
+    public static final String METADATA_CHUNK_ORDER = "chunkOrder";
+
+    /**
+     * Query context key of the question's float[] embedding, when it was computed up front
+     */
+    public static final String CONTEXT_QUERY_EMBEDDING = "queryEmbedding";
+
+    private final KnowledgeRetrievalService retrievalService;
+    private final String agentId;
+    private final List<String> knowledgeIds;
+    private final int topK;
+    private final SimilarityCutoff cutoff;
+
+    public KnowledgeChunkDocumentRetriever(KnowledgeRetrievalService retrievalService,
+                                           String agentId,
+                                           List<String> knowledgeIds,
+                                           int topK,
+                                           SimilarityCutoff cutoff) {
+        this.retrievalService = retrievalService;
+        this.agentId = agentId;
+        this.knowledgeIds = knowledgeIds != null ? List.copyOf(knowledgeIds) : List.of();
+        this.topK = topK;
+        this.cutoff = cutoff != null ? cutoff : SimilarityCutoff.NONE;
+    }
+
+    @Override
+    public List<Document> retrieve(Query query) {
+        return retrievalService.search(agentId, knowledgeIds, query.text(), queryEmbedding(query), topK, cutoff)
+                .stream()
+                .map(this::toDocument)
+                .toList();
+    }
+
+    /**
+     * @return Embedding carried in the query context, or null if the query was not embedded yet
+     */
+    public static float[] queryEmbedding(Query query) {
+        return query.context().get(CONTEXT_QUERY_EMBEDDING) instanceof float[] embedding ? embedding : null;
+    }
+
+    private Document toDocument(ChunkSearchHit hit) {
+        Map<String, Object> metadata = new HashMap<>(hit.metadata());
+        metadata.put(VectorStoreService.METADATA_AGENT_ID, agentId);
+        metadata.put(VectorStoreService.METADATA_KNOWLEDGE_ID, hit.knowledgeId());
+        if (hit.chunkOrder() != null) {
+            metadata.put(METADATA_CHUNK_ORDER, hit.chunkOrder());
+        }
+
+        return Document.builder()
+                .id(hit.id())
+                .text(hit.content())
+                .metadata(metadata)
+                .score(hit.similarity())
+                .build();
+    }
+}
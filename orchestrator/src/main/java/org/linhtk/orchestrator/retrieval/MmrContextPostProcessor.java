@@ -0,0 +1,289 @@
+package org.linhtk.orchestrator.retrieval;
+
+import lombok.extern.slf4j.Slf4j;
+import org.linhtk.orchestrator.config.RetrievalProperties;
+import org.linhtk.orchestrator.service.VectorStoreService;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.rag.Query;
+import org.springframework.ai.rag.postretrieval.document.DocumentPostProcessor;
+import org.springframework.ai.tokenizer.JTokkitTokenCountEstimator;
+import org.springframework.ai.tokenizer.TokenCountEstimator;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link DocumentPostProcessor} that turns an over-fetched candidate list into the context
+ * injected into a chat prompt: diverse, without overlapping neighbours, and within a token budget.
+ *
+ * Implementation notes:
+ * - Maximal marginal relevance picks at most topK candidates, each maximizing
+ *   lambda * sim(query, d) - (1 - lambda) * max sim(d, selected), so near-duplicate chunks of
+ *   the same passage don't crowd out other sources
+ * - Similarities use the chunk embeddings already stored in knowledge_chunk, loaded in one
+ *   query by ID, and the query embedding the retriever searched with, passed in the query
+ *   context ({@link KnowledgeChunkDocumentRetriever#CONTEXT_QUERY_EMBEDDING}); no provider call
+ *   is made. Without a query embedding (PgVectorStore retrieval) relevance is the retrieval
+ *   score, which is the same cosine similarity. Candidates without a stored embedding also fall
+ *   back to their retrieval score and are never treated as redundant
+ * - Selected chunks with consecutive chunk_order in the same knowledge source are merged into
+ *   one passage, dropping the text the splitter duplicated between them; the passage keeps the
+ *   rank and score of its best chunk
+ * - Passages are then added best first while their estimated tokens (JTokkit) fit the budget;
+ *   the best passage is always kept
+ */
+@Slf4j
+public class MmrContextPostProcessor implements DocumentPostProcessor {
+
+    /**
+     * Number of chunks merged into a passage; absent on single chunks
+     */
+    public static final String METADATA_MERGED_CHUNKS = "mergedChunks";
+
+    /**
+     * Shortest overlap removed when merging neighbours; shorter matches are likely coincidental
+     */
+    private static final int MIN_OVERLAP_CHARS = 16;
+
+    private static final TokenCountEstimator TOKEN_COUNT_ESTIMATOR = new JTokkitTokenCountEstimator();
+
+    private final ChunkEmbeddingLoader chunkEmbeddingLoader;
+    private final RetrievalProperties.Context settings;
+    private final int dimension;
+    private final int topK;
+
+    /**
+     * @param dimension Embedding dimension of the agent; 0 if unknown, which disables the
+     *                  redundancy penalty when the query carries no embedding either
+     */
+    public MmrContextPostProcessor(ChunkEmbeddingLoader chunkEmbeddingLoader,
+                                   RetrievalProperties.Context settings,
+                                   int dimension,
+                                   int topK) {
+        this.chunkEmbeddingLoader = chunkEmbeddingLoader;
+        this.settings = settings;
+        this.dimension = dimension;
+        this.topK = topK;
+    }
+
+    @Override
+    public List<Document> process(Query query, List<Document> documents) {
+        if (documents.isEmpty()) {
+            return documents;
+        }
+
+        float[] carried = KnowledgeChunkDocumentRetriever.queryEmbedding(query);
+        float[] queryEmbedding = carried != null ? normalize(carried) : null;
+        int embeddingDimension = carried != null ? carried.length : dimension;
+        Map<String, float[]> embeddings = new HashMap<>();
+        if (embeddingDimension > 0) {
+            chunkEmbeddingLoader.embeddings(documents.stream().map(Document::getId).toList(), embeddingDimension)
+                    .forEach((id, embedding) -> embeddings.put(id, normalize(embedding)));
+        }
+
+        List<Document> selected = mmr(documents, queryEmbedding, embeddings, settings.getMmrLambda(), topK);
+        List<Document> passages = settings.isMergeAdjacent() ? mergeAdjacent(selected) : selected;
+        List<Document> context = fitBudget(passages, settings.getMaxTokens());
+
+        log.debug("Selected {} passages from {} candidates ({} chosen by MMR)",
+                context.size(), documents.size(), selected.size());
+        return context;
+    }
+
+    /**
+     * Greedy MMR selection of at most k documents, in selection order.
+     *
+     * @param query Normalized query embedding, or null to use the retrieval scores as relevance
+     */
+    static List<Document> mmr(List<Document> candidates, float[] query, Map<String, float[]> embeddings,
+                              double lambda, int k) {
+        int n = candidates.size();
+        double[] relevance = new double[n];
+        double[] redundancy = new double[n];
+        boolean[] taken = new boolean[n];
+        for (int i = 0; i < n; i++) {
+            float[] embedding = embeddings.get(candidates.get(i).getId());
+            Double score = candidates.get(i).getScore();
+            relevance[i] = query != null && embedding != null ? dot(query, embedding) : (score != null ? score : 0.0);
+            redundancy[i] = Double.NEGATIVE_INFINITY;
+        }
+
+        List<Document> selected = new ArrayList<>(Math.min(k, n));
+        while (selected.size() < Math.min(k, n)) {
+            int best = -1;
+            double bestScore = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < n; i++) {
+                if (taken[i]) {
+                    continue;
+                }
+                double penalty = redundancy[i] == Double.NEGATIVE_INFINITY ? 0.0 : redundancy[i];
+                double score = lambda * relevance[i] - (1 - lambda) * penalty;
+                if (score > bestScore) {
+                    bestScore = score;
+                    best = i;
+                }
+            }
+
+            taken[best] = true;
+            selected.add(candidates.get(best));
+
+            // Only the newest selection can raise each candidate's max similarity to the selected set
+            float[] chosen = embeddings.get(candidates.get(best).getId());
+            if (chosen != null) {
+                for (int i = 0; i < n; i++) {
+                    float[] embedding = embeddings.get(candidates.get(i).getId());
+                    if (!taken[i] && embedding != null) {
+                        redundancy[i] = Math.max(redundancy[i], dot(chosen, embedding));
+                    }
+                }
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * Merges runs of consecutive chunks of the same knowledge source.
+     * Documents without a knowledge ID or chunk order are kept as they are.
+     */
+    static List<Document> mergeAdjacent(List<Document> documents) {
+        // Group by knowledge source, remembering the rank of each document
+        Map<String, List<Integer>> bySource = new LinkedHashMap<>();
+        for (int rank = 0; rank < documents.size(); rank++) {
+            Document document = documents.get(rank);
+            if (knowledgeId(document) != null && chunkOrder(document) != null) {
+                bySource.computeIfAbsent(knowledgeId(document), id -> new ArrayList<>()).add(rank);
+            }
+        }
+
+        Document[] merged = documents.toArray(new Document[0]);
+        for (List<Integer> ranks : bySource.values()) {
+            if (ranks.size() < 2) {
+                continue;
+            }
+            ranks.sort(Comparator.comparing(rank -> chunkOrder(documents.get(rank))));
+
+            int runStart = 0;
+            for (int i = 1; i <= ranks.size(); i++) {
+                boolean continues = i < ranks.size()
+                        && chunkOrder(documents.get(ranks.get(i))) == chunkOrder(documents.get(ranks.get(i - 1))) + 1;
+                if (!continues) {
+                    if (i - runStart > 1) {
+                        List<Integer> run = ranks.subList(runStart, i);
+                        int bestRank = run.stream().min(Integer::compare).orElseThrow();
+                        merged[bestRank] = mergeRun(documents, run, bestRank);
+                        run.stream().filter(rank -> rank != bestRank).forEach(rank -> merged[rank] = null);
+                    }
+                    runStart = i;
+                }
+            }
+        }
+
+        List<Document> passages = new ArrayList<>(documents.size());
+        for (Document document : merged) {
+            if (document != null) {
+                passages.add(document);
+            }
+        }
+        return passages;
+    }
+
+    private static Document mergeRun(List<Document> documents, List<Integer> run, int bestRank) {
+        StringBuilder text = new StringBuilder(documents.get(run.getFirst()).getText());
+        for (int i = 1; i < run.size(); i++) {
+            String next = documents.get(run.get(i)).getText();
+            int overlap = overlap(text, next);
+            text.append(overlap > 0 ? "" : "\n").append(next, overlap, next.length());
+        }
+
+        Document best = documents.get(bestRank);
+        Map<String, Object> metadata = new HashMap<>(best.getMetadata());
+        metadata.put(KnowledgeChunkDocumentRetriever.METADATA_CHUNK_ORDER, chunkOrder(documents.get(run.getFirst())));
+        metadata.put(METADATA_MERGED_CHUNKS, run.size());
+        return Document.builder()
+                .id(best.getId())
+                .text(text.toString())
+                .metadata(metadata)
+                .score(best.getScore())
+                .build();
+    }
+
+    /**
+     * @return Length of the longest suffix of text that is a prefix of next, or 0
+     */
+    static int overlap(CharSequence text, String next) {
+        int max = Math.min(text.length(), next.length());
+        for (int length = max; length >= MIN_OVERLAP_CHARS; length--) {
+            int start = text.length() - length;
+            boolean matches = true;
+            for (int i = 0; i < length && matches; i++) {
+                matches = text.charAt(start + i) == next.charAt(i);
+            }
+            if (matches) {
+                return length;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Keeps passages, best first, while their estimated tokens fit the budget.
+     */
+    static List<Document> fitBudget(List<Document> passages, int maxTokens) {
+        if (maxTokens <= 0) {
+            return passages;
+        }
+
+        List<Document> context = new ArrayList<>(passages.size());
+        int used = 0;
+        for (Document passage : passages) {
+            int tokens = TOKEN_COUNT_ESTIMATOR.estimate(passage.getText());
+            if (context.isEmpty() || used + tokens <= maxTokens) {
+                context.add(passage);
+                used += tokens;
+            }
+        }
+        return context;
+    }
+
+    /**
+     * @return Number of chunks a selected passage was built from
+     */
+    public static int chunkCount(Document document) {
+        Object value = document.getMetadata().get(METADATA_MERGED_CHUNKS);
+        return value instanceof Number number ? number.intValue() : 1;
+    }
+
+    private static String knowledgeId(Document document) {
+        Object value = document.getMetadata().get(VectorStoreService.METADATA_KNOWLEDGE_ID);
+        return value != null ? value.toString() : null;
+    }
+
+    private static Integer chunkOrder(Document document) {
+        Object value = document.getMetadata().get(KnowledgeChunkDocumentRetriever.METADATA_CHUNK_ORDER);
+        return value instanceof Number number ? number.intValue() : null;
+    }
+
+    private static double dot(float[] a, float[] b) {
+        double sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+
+    private static float[] normalize(float[] vector) {
+        double norm = Math.sqrt(dot(vector, vector));
+        if (norm == 0) {
+            return vector;
+        }
+        float[] normalized = new float[vector.length];
+        for (int i = 0; i < vector.length; i++) {
+            normalized[i] = (float) (vector[i] / norm);
+        }
+        return normalized;
+    }
+}
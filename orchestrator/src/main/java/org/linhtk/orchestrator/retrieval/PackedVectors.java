@@ -0,0 +1,91 @@
+package org.linhtk.orchestrator.retrieval;
+
+import java.util.Arrays;
+
+/**
+ * Append-only array of fixed-dimension float vectors packed into one heap float[].
+ * Vector i occupies floats [i * dimension, (i + 1) * dimension) of the array, so large
+ * indexes add no per-vector objects for the garbage collector to trace.
+ *
+ * Design decisions:
+ * - A heap array rather than a direct ByteBuffer: direct buffers are only released when the
+ *   garbage collector happens to collect them, so repeatedly rebuilding indexes could exhaust
+ *   -XX:MaxDirectMemorySize long before the heap felt any pressure; heap arrays are sized
+ *   and reclaimed like every other index structure and show up in heap metrics
+ * - One array holds at most {@link #MAX_FLOATS} floats (about 8 GB), i.e. roughly 1.4 million
+ *   1536-dimensional vectors per index; the heap (-Xmx) must be sized for all in-memory indexes
+ *
+ * Not thread-safe; callers serialize writes against reads.
+ */
+final class PackedVectors {
+
+    /**
+     * Largest array length the JVM reliably allocates
+     */
+    static final int MAX_FLOATS = Integer.MAX_VALUE - 8;
+
+    private final int dimension;
+    private float[] values;
+    private int size;
+
+    PackedVectors(int dimension, int initialCapacity) {
+        if (dimension <= 0) {
+            throw new IllegalArgumentException("dimension must be greater than 0");
+        }
+        this.dimension = dimension;
+        this.values = new float[checkedLength((long) Math.max(1, initialCapacity) * dimension)];
+    }
+
+    int dimension() {
+        return dimension;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * @param vector Vector of exactly {@link #dimension()} values
+     * @return Index of the stored vector
+     */
+    int add(float[] vector) {
+        if (vector.length != dimension) {
+            throw new IllegalArgumentException(
+                    "Expected " + dimension + " dimensions but got " + vector.length);
+        }
+        ensureCapacity((long) (size + 1) * dimension);
+        System.arraycopy(vector, 0, values, size * dimension, dimension);
+        return size++;
+    }
+
+    float[] get(int index) {
+        int base = index * dimension;
+        return Arrays.copyOfRange(values, base, base + dimension);
+    }
+
+    /**
+     * @return Dot product of the stored vector and the query
+     */
+    double dot(int index, float[] query) {
+        int base = index * dimension;
+        double sum = 0;
+        for (int i = 0; i < dimension; i++) {
+            sum += values[base + i] * query[i];
+        }
+        return sum;
+    }
+
+    private void ensureCapacity(long floats) {
+        if (floats <= values.length) {
+            return;
+        }
+        values = Arrays.copyOf(values, checkedLength(Math.max(floats, Math.min(2L * values.length, MAX_FLOATS))));
+    }
+
+    private static int checkedLength(long floats) {
+        if (floats > MAX_FLOATS) {
+            throw new IllegalStateException("Packed vector array cannot exceed " + MAX_FLOATS + " floats");
+        }
+        return (int) floats;
+    }
+}
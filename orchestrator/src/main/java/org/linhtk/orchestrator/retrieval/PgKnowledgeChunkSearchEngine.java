@@ -0,0 +1,256 @@
+package org.linhtk.orchestrator.retrieval;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.linhtk.common.exception.BadRequestException;
+import org.linhtk.orchestrator.config.RetrievalProperties;
+import org.linhtk.orchestrator.config.hibernate.VectorType;
+import org.linhtk.orchestrator.constant.ChatConfig;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cosine top-K search directly against the embedding columns of knowledge_chunk.
+ *
+ * Implementation notes:
+ * - The query dimension selects embedding_768 or embedding_1536; the "IS NOT NULL" predicate
+ *   matches the partial HNSW index on that column, so the planner can use it
+ * - Agent and knowledge filters are applied in the same statement, and the similarity is
+ *   returned as 1 - cosine distance
+ * - hnsw.ef_search is set with SET LOCAL, so it only affects the current transaction
+ * - Full-precision searches repeat the "full_precision_indexed" predicate of the float32
+ *   indexes, so they only see agents that keep those indexes (all agents without quantization)
+ * - The float32 indexes are shared by all agents and the agent and knowledge filters apply to
+ *   the rows the HNSW scan returns, at most hnsw.ef_search of them; a small agent in a large
+ *   table can therefore get fewer than topK hits, which is why this engine is not the default
+ * - Quantized searches scan the agent's own halfvec or binary_quantize expression index
+ *   (see KnowledgeChunkIndexService) for topK * multiplier candidates, then re-rank those
+ *   with the full-precision embedding, so returned similarities are always exact; custom
+ *   plans are forced so the planner can match the per-agent index predicate
+ * - Full-text search runs on the generated content_tsv column (GIN index) with the 'simple'
+ *   configuration, so identifiers match exactly as typed; the question's terms are OR-ed so
+ *   a chunk containing any of them matches, after dropping the stop words of
+ *   retrieval.hybrid.stop-word-config, so "what is the ..." does not match (and rank)
+ *   nearly every chunk of the agent; a question of stop words only has no text hits
+ * - Each term becomes its own plainto_tsquery, whose text form is quoted by PostgreSQL itself;
+ *   the OR-ed query is parsed back from those forms, so quotes, backslashes and tsquery
+ *   operators in the question are matched literally instead of breaking the query
+ * - PostgreSQL has no BM25; text hits are ranked with ts_rank_cd normalized by document
+ *   length (normalization 1), the closest built-in equivalent
+ */
+@Component
+@Slf4j
+public class PgKnowledgeChunkSearchEngine implements ChunkSearchEngine {
+
+    /**
+     * Text search configuration of the generated content_tsv column
+     */
+    private static final String TEXT_SEARCH_CONFIG = "simple";
+
+    /**
+     * Predicate of the partial full-precision HNSW indexes; rows of agents that dropped them are excluded
+     */
+    private static final String FULL_PRECISION_FILTER = " AND full_precision_indexed";
+
+    private static final TypeReference<Map<String, Object>> METADATA_TYPE = new TypeReference<>() {
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final RetrievalProperties retrievalProperties;
+    private final TransactionTemplate readTransaction;
+
+    public PgKnowledgeChunkSearchEngine(JdbcTemplate jdbcTemplate,
+                                        ObjectMapper objectMapper,
+                                        RetrievalProperties retrievalProperties,
+                                        PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.retrievalProperties = retrievalProperties;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+    }
+
+    @Override
+    public List<ChunkSearchHit> search(ChunkSearchQuery query) {
+        int dimension = query.embedding().length;
+        String column = embeddingColumn(dimension);
+        RetrievalProperties.Quantization quantization = retrievalProperties.getQuantization();
+
+        return switch (query.quantization()) {
+            case NONE -> run(query, column, "%s <=> ?::vector".formatted(column), 0, FULL_PRECISION_FILTER);
+            case HALF -> run(query, column,
+                    "%1$s::halfvec(%2$d) <=> ?::halfvec(%2$d)".formatted(column, dimension),
+                    query.topK() * Math.max(1, quantization.getHalfCandidateMultiplier()), "");
+            case BINARY -> run(query, column,
+                    "binary_quantize(%1$s)::bit(%2$d) <~> binary_quantize(?::vector)".formatted(column, dimension),
+                    query.topK() * Math.max(1, quantization.getBinaryCandidateMultiplier()), "");
+        };
+    }
+
+    @Override
+    public List<ChunkSearchHit> searchExact(ChunkSearchQuery query) {
+        String column = embeddingColumn(query.embedding().length);
+        // "+ 0" makes the ORDER BY differ from the indexed expression, forcing a sequential scan
+        return run(query, column, "(%s <=> ?::vector) + 0".formatted(column), 0, "");
+    }
+
+    /**
+     * Runs a top-K query ordered by the given expression.
+     *
+     * @param column     Full-precision embedding column
+     * @param order      First-stage ORDER BY expression with one placeholder for the query vector
+     * @param candidates Number of first-stage candidates to re-rank with the full-precision
+     *                   embedding, or 0 to return the first stage directly
+     * @param rowFilter  Extra predicate matching the partial index scanned by the first stage
+     */
+    private List<ChunkSearchHit> run(ChunkSearchQuery query, String column, String order, int candidates,
+                                     String rowFilter) {
+        String vector = VectorType.format(query.embedding());
+        boolean filterKnowledge = !query.knowledgeIds().isEmpty();
+        String knowledgeFilter = rowFilter + (filterKnowledge ? " AND agent_knowledge_id = ANY (?)" : "");
+
+        String sql = candidates == 0
+                ? """
+                SELECT id, agent_knowledge_id, chunk_order, content, metadata::text AS metadata,
+                       1 - (%1$s <=> ?::vector) AS similarity
+                FROM knowledge_chunk
+                WHERE agent_id = ? AND %1$s IS NOT NULL %2$s
+                ORDER BY %3$s
+                LIMIT ?
+                """.formatted(column, knowledgeFilter, order)
+                : """
+                SELECT id, agent_knowledge_id, chunk_order, content, metadata::text AS metadata,
+                       1 - (%1$s <=> ?::vector) AS similarity
+                FROM (
+                    SELECT id, agent_knowledge_id, chunk_order, content, metadata, %1$s
+                    FROM knowledge_chunk
+                    WHERE agent_id = ? AND %1$s IS NOT NULL %2$s
+                    ORDER BY %3$s
+                    LIMIT ?
+                ) candidates
+                ORDER BY %1$s <=> ?::vector
+                LIMIT ?
+                """.formatted(column, knowledgeFilter, order);
+
+        PreparedStatementCreator statement = connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql);
+            int index = 1;
+            ps.setString(index++, vector);
+            ps.setString(index++, query.agentId());
+            if (filterKnowledge) {
+                ps.setArray(index++, connection.createArrayOf("varchar", query.knowledgeIds().toArray()));
+            }
+            ps.setString(index++, vector);
+            if (candidates > 0) {
+                ps.setInt(index++, candidates);
+                ps.setString(index++, vector);
+            }
+            ps.setInt(index, query.topK());
+            return ps;
+        };
+
+        // The HNSW scan returns at most ef_search rows, so it must cover all re-ranking candidates
+        int efSearch = Math.max(retrievalProperties.getHnswEfSearch(), candidates);
+        List<ChunkSearchHit> hits = readTransaction.execute(status -> {
+            if (efSearch > 0) {
+                jdbcTemplate.execute("SET LOCAL hnsw.ef_search = " + efSearch);
+            }
+            // A generic plan cannot prove "agent_id = $1" implies a per-agent partial index
+            jdbcTemplate.execute("SET LOCAL plan_cache_mode = force_custom_plan");
+            return jdbcTemplate.query(statement, (rs, rowNum) -> toHit(rs));
+        });
+
+        log.debug("Native {} search on {} returned {} hits for agent: {}", query.quantization(), column,
+                hits != null ? hits.size() : 0, query.agentId());
+        return hits != null ? hits : List.of();
+    }
+
+    @Override
+    public List<ChunkSearchHit> searchText(ChunkSearchQuery query, String text) {
+        String column = embeddingColumn(query.embedding().length);
+        String vector = VectorType.format(query.embedding());
+        boolean filterKnowledge = !query.knowledgeIds().isEmpty();
+
+        String sql = """
+                WITH terms AS (
+                    SELECT DISTINCT t.lexeme
+                    FROM unnest(to_tsvector('%1$s', ?)) AS t
+                    WHERE length(to_tsvector(?::regconfig, t.lexeme)) > 0
+                ), q AS (
+                    SELECT string_agg('(' || plainto_tsquery('%1$s', lexeme)::text || ')', ' | ')::tsquery AS query
+                    FROM terms
+                    WHERE numnode(plainto_tsquery('%1$s', lexeme)) > 0
+                )
+                SELECT c.id, c.agent_knowledge_id, c.chunk_order, c.content, c.metadata::text AS metadata,
+                       COALESCE(1 - (c.%2$s <=> ?::vector), 0) AS similarity
+                FROM knowledge_chunk c, q
+                WHERE c.agent_id = ? AND c.content_tsv @@ q.query %3$s
+                ORDER BY ts_rank_cd(c.content_tsv, q.query, 1) DESC
+                LIMIT ?
+                """.formatted(TEXT_SEARCH_CONFIG, column,
+                filterKnowledge ? "AND c.agent_knowledge_id = ANY (?)" : "");
+
+        List<ChunkSearchHit> hits = jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql);
+            int index = 1;
+            ps.setString(index++, text);
+            ps.setString(index++, retrievalProperties.getHybrid().getStopWordConfig());
+            ps.setString(index++, vector);
+            ps.setString(index++, query.agentId());
+            if (filterKnowledge) {
+                ps.setArray(index++, connection.createArrayOf("varchar", query.knowledgeIds().toArray()));
+            }
+            ps.setInt(index, query.topK());
+            return ps;
+        }, (rs, rowNum) -> toHit(rs));
+
+        log.debug("Full-text search returned {} hits for agent: {}", hits.size(), query.agentId());
+        return hits;
+    }
+
+    /**
+     * @param dimension Query embedding dimension
+     * @return knowledge_chunk column storing embeddings of that dimension
+     * @throws BadRequestException if no column stores that dimension
+     */
+    public static String embeddingColumn(int dimension) {
+        return switch (dimension) {
+            case ChatConfig.GEMINI_DIMENSION -> "embedding_768";
+            case ChatConfig.CHATGPT_DIMENSION -> "embedding_1536";
+            default -> throw new BadRequestException("Unsupported embedding dimension: " + dimension);
+        };
+    }
+
+    private ChunkSearchHit toHit(ResultSet rs) throws SQLException {
+        return new ChunkSearchHit(
+                rs.getString("id"),
+                rs.getString("agent_knowledge_id"),
+                rs.getInt("chunk_order"),
+                rs.getString("content"),
+                parseMetadata(rs.getString("metadata")),
+                rs.getDouble("similarity"));
+    }
+
+    private Map<String, Object> parseMetadata(String json) {
+        if (json == null) {
+            return Map.of();
+        }
+        try {
+            return objectMapper.readValue(json, METADATA_TYPE);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to parse chunk metadata", e);
+        }
+    }
+}
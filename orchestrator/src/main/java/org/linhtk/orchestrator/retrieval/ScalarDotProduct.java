@@ -0,0 +1,30 @@
+package org.linhtk.orchestrator.retrieval;
+
+/**
+ * Plain Java dot product, used when the jdk.incubator.vector module is not available.
+ * Four independent accumulators let the CPU overlap the additions, which a single
+ * floating-point sum (that the JIT may not reorder) would serialize.
+ */
+final class ScalarDotProduct implements DotProduct {
+
+    @Override
+    public float dot(float[] matrix, int offset, float[] vector) {
+        int length = vector.length;
+        float sum0 = 0;
+        float sum1 = 0;
+        float sum2 = 0;
+        float sum3 = 0;
+
+        int i = 0;
+        for (; i + 3 < length; i += 4) {
+            sum0 += matrix[offset + i] * vector[i];
+            sum1 += matrix[offset + i + 1] * vector[i + 1];
+            sum2 += matrix[offset + i + 2] * vector[i + 2];
+            sum3 += matrix[offset + i + 3] * vector[i + 3];
+        }
+        for (; i < length; i++) {
+            sum0 += matrix[offset + i] * vector[i];
+        }
+        return (sum0 + sum1) + (sum2 + sum3);
+    }
+}
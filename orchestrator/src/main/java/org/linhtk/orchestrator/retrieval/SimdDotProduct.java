@@ -0,0 +1,41 @@
+package org.linhtk.orchestrator.retrieval;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Dot product on the widest SIMD registers of the CPU (e.g. 8 floats with AVX2, 16 with AVX-512),
+ * using fused multiply-add and one horizontal reduction per row.
+ *
+ * Only load through {@link DotProducts}, which checks that jdk.incubator.vector is present.
+ */
+final class SimdDotProduct implements DotProduct {
+
+    private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
+
+    @Override
+    public float dot(float[] matrix, int offset, float[] vector) {
+        int length = vector.length;
+        int bound = SPECIES.loopBound(length);
+
+        FloatVector sum = FloatVector.zero(SPECIES);
+        int i = 0;
+        for (; i < bound; i += SPECIES.length()) {
+            FloatVector row = FloatVector.fromArray(SPECIES, matrix, offset + i);
+            FloatVector other = FloatVector.fromArray(SPECIES, vector, i);
+            sum = row.fma(other, sum);
+        }
+
+        float result = sum.reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) {
+            result += matrix[offset + i] * vector[i];
+        }
+        return result;
+    }
+
+    @Override
+    public int lanes() {
+        return SPECIES.length();
+    }
+}
@@ -0,0 +1,39 @@
+package org.linhtk.orchestrator.retrieval;
+
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Drops retrieved chunks that are unlikely to help answer the query, so weak matches are not
+ * injected into the prompt just because top-K asked for them.
+ *
+ * @param minSimilarity Hits below this cosine similarity are dropped; 0 keeps all
+ * @param relativeDrop  Hits scoring below best * (1 - relativeDrop) are dropped; 0 keeps all
+ */
+public record SimilarityCutoff(double minSimilarity, double relativeDrop) {
+
+    /**
+     * Cut-off that keeps every hit.
+     */
+    public static final SimilarityCutoff NONE = new SimilarityCutoff(0, 0);
+
+    /**
+     * Applies the cut-offs, preserving the order of the remaining items.
+     * The best item is the one with the highest similarity, whatever its position.
+     *
+     * @param items      Retrieved items
+     * @param similarity Cosine similarity of an item to the query
+     * @return Items passing both cut-offs
+     */
+    public <T> List<T> apply(List<T> items, ToDoubleFunction<T> similarity) {
+        if (items.isEmpty() || (minSimilarity <= 0 && relativeDrop <= 0)) {
+            return items;
+        }
+
+        double best = items.stream().mapToDouble(similarity).max().orElse(0);
+        double threshold = Math.max(minSimilarity, relativeDrop > 0 ? best * (1 - relativeDrop) : 0);
+        return items.stream()
+                .filter(item -> similarity.applyAsDouble(item) >= threshold)
+                .toList();
+    }
+}
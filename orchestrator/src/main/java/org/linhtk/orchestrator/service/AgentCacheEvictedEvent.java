@@ -0,0 +1,17 @@
+package org.linhtk.orchestrator.service;
+
+/**
+ * Published by {@link DynamicModelService} when cached models of an agent are discarded,
+ * so that other per-agent caches built on top of those models can be dropped as well.
+ *
+ * @param agentId The agent whose caches were cleared, or null when all agents were cleared
+ */
+public record AgentCacheEvictedEvent(String agentId) {
+
+    /**
+     * @return true if the event applies to every agent
+     */
+    public boolean allAgents() {
+        return agentId == null;
+    }
+}
@@ -9,6 +9,7 @@ import org.linhtk.orchestrator.dto.FileKnowledgeImportConfigRequestDto;
 import org.linhtk.orchestrator.mapper.AgentKnowledgeMapper;
 import org.linhtk.orchestrator.model.knowledge.AgentKnowledge;
 import org.linhtk.orchestrator.repository.AgentKnowledgeRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -32,11 +33,14 @@ public class AgentKnowledgeService {
     
     private final AgentKnowledgeRepository agentKnowledgeRepository;
     private final AgentKnowledgeMapper agentKnowledgeMapper;
+    private final ApplicationEventPublisher eventPublisher;
 
     public AgentKnowledgeService(AgentKnowledgeRepository agentKnowledgeRepository,
-                                AgentKnowledgeMapper agentKnowledgeMapper) {
+                                AgentKnowledgeMapper agentKnowledgeMapper,
+                                ApplicationEventPublisher eventPublisher) {
         this.agentKnowledgeRepository = agentKnowledgeRepository;
         this.agentKnowledgeMapper = agentKnowledgeMapper;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -206,6 +210,7 @@ public class AgentKnowledgeService {
         
         // Perform hard delete
         agentKnowledgeRepository.delete(knowledge);
+        eventPublisher.publishEvent(new KnowledgeChangedEvent(agentId));
         
         log.info("Successfully deleted knowledge: {} for agent: {}", knowledgeId, agentId);
     }
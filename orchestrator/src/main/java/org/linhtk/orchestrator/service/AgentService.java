@@ -29,13 +29,16 @@ import java.util.stream.Collectors;
 public class AgentService {
     private final AgentRepository agentRepository;
     private final DynamicModelService dynamicModelService;
+    private final VectorStoreService vectorStoreService;
     private final AgentMapper agentMapper;
 
     public AgentService(AgentRepository agentRepository, 
                        DynamicModelService dynamicModelService,
+                       VectorStoreService vectorStoreService,
                        AgentMapper agentMapper) {
         this.agentRepository = agentRepository;
         this.dynamicModelService = dynamicModelService;
+        this.vectorStoreService = vectorStoreService;
         this.agentMapper = agentMapper;
     }
 
@@ -139,6 +142,18 @@ public class AgentService {
         return agentMapper.toVmResponse(updatedAgent);
     }
 
+    /**
+     * Drops the agent's vector table so it is recreated with the current embedding dimension.
+     * Discards every stored vector of the agent; its knowledge must be re-imported afterwards.
+     *
+     * @param agentId The agent identifier
+     * @throws NotFoundException if agent doesn't exist
+     */
+    public void resetVectorTable(String agentId) {
+        findAgentById(agentId);
+        vectorStoreService.resetVectorTable(agentId);
+    }
+
     /**
      * Helper method to find agent by ID with proper error handling.
      * Centralizes agent retrieval logic for reuse across service methods.
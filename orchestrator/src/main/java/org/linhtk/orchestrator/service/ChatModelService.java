@@ -9,34 +9,53 @@ import org.linhtk.orchestrator.repository.AgentKnowledgeRepository;
 import org.linhtk.orchestrator.repository.AgentToolsRepository;
 import org.linhtk.orchestrator.service.tool.ToolRegistry;
 import org.springframework.ai.chat.client.ChatClient;
-import org.springframework.ai.rag.advisor.RetrievalAugmentationAdvisor;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.rag.Query;
 import org.springframework.ai.rag.generation.augmentation.ContextualQueryAugmenter;
-import org.springframework.ai.rag.retrieval.search.VectorStoreDocumentRetriever;
 import org.springframework.ai.tool.ToolCallback;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 @Service
 @Slf4j
 public class ChatModelService {
+
+    /**
+     * Runs each chat pipeline stage on its own virtual thread; stages mostly wait on I/O
+     */
+    public static final Executor STAGE_EXECUTOR = task -> Thread.ofVirtual().name("chat-stage").start(task);
+
+    /**
+     * Prefix of user turns in the history lines built by ConversationService
+     */
+    private static final String USER_HISTORY_PREFIX = "User: ";
+
+    private static final ContextualQueryAugmenter QUERY_AUGMENTER = ContextualQueryAugmenter.builder()
+            .allowEmptyContext(true)
+            .build();
+
     private final DynamicModelService dynamicModelService;
-    private final VectorStoreService vectorStoreService;
+    private final KnowledgeRetrievalService knowledgeRetrievalService;
     private final AgentToolsRepository agentToolsRepository;
     private final AgentKnowledgeRepository agentKnowledgeRepository;
     private final ToolRegistry toolRegistry;
 
 
     public ChatModelService(DynamicModelService dynamicModelService,
-                            VectorStoreService vectorStoreService,
+                            KnowledgeRetrievalService knowledgeRetrievalService,
                             AgentToolsRepository agentToolsRepository,
                             AgentKnowledgeRepository agentKnowledgeRepository,
                             ToolRegistry toolRegistry) {
         this.dynamicModelService = dynamicModelService;
-        this.vectorStoreService = vectorStoreService;
+        this.knowledgeRetrievalService = knowledgeRetrievalService;
         this.agentToolsRepository = agentToolsRepository;
         this.agentKnowledgeRepository = agentKnowledgeRepository;
         this.toolRegistry = toolRegistry;
@@ -93,18 +112,120 @@ public class ChatModelService {
         return summary != null ? summary.trim() : "New Conversation";
     }
 
-    public Flux<String> call(ChatRequestDto requestDto, List<String> history, String summary) {
-        var model = dynamicModelService.getChatModel(requestDto.getAgentId());
-        var chatClient = ChatClient.builder(model).build();
+    /**
+     * Streams the agent's answer to a question.
+     *
+     * Nothing starts until this is called, so callers answering from the semantic cache call it
+     * only on a miss. The stages the prompt depends on run on virtual threads: chat model lookup
+     * and tool callback resolution start at once, alongside the caller's history loading.
+     * Knowledge retrieval (query embedding, search and context selection) also starts at once
+     * with the bare question by default; with retrieval.context.history-query-turns above 0 it
+     * starts only once the history is loaded, and searches with the question preceded by the
+     * latest user turns ({@link #retrievalQuery}).
+     * The prompt is assembled and the model called once all stages complete.
+     *
+     * @param requestDto        The chat request
+     * @param history           Conversation history as "Role: content" lines, loaded by the caller
+     * @param summary           Running conversation summary, if any
+     * @param questionEmbedding Embedding of the bare question already computed by the caller
+     *                          (e.g. the semantic cache lookup), or null
+     * @return The streamed answer
+     */
+    public Flux<String> call(ChatRequestDto requestDto, CompletableFuture<List<String>> history, String summary,
+                             float[] questionEmbedding) {
+        String agentId = requestDto.getAgentId();
+        String question = requestDto.getQuestion();
+        int historyTurns = knowledgeRetrievalService.historyQueryTurns();
 
-        var ragAdvisor = createRAGAdvisorForAgent(requestDto.getAgentId());
+        CompletableFuture<ChatModel> model = CompletableFuture.supplyAsync(
+                () -> dynamicModelService.getChatModel(agentId), STAGE_EXECUTOR);
+        CompletableFuture<List<Document>> context = historyTurns > 0
+                ? history.thenApplyAsync(messages -> {
+                    String query = retrievalQuery(question, messages, historyTurns);
+                    return retrieveContext(agentId, query, query.equals(question) ? questionEmbedding : null);
+                }, STAGE_EXECUTOR)
+                : CompletableFuture.supplyAsync(
+                        () -> retrieveContext(agentId, question, questionEmbedding), STAGE_EXECUTOR);
+        CompletableFuture<List<ToolCallback>> tools = CompletableFuture.supplyAsync(
+                () -> createToolCallbackForAgent(agentId), STAGE_EXECUTOR);
 
-        var promptBuilder = chatClient.prompt();
+        return Mono.fromFuture(CompletableFuture.allOf(model, context, tools, history))
+                .thenMany(Flux.defer(() -> ChatClient.builder(model.join()).build()
+                        .prompt()
+                        .system(ChatConfig.SYSTEM_PROMPT + ChatConfig.SEARCH_TOOL_INSTRUCTION)
+                        .toolCallbacks(tools.join())
+                        .user(augmentedPrompt(requestDto, history.join(), summary, context.join()))
+                        .stream()
+                        .content()));
+    }
+
+    /**
+     * Retrieves the knowledge injected into the prompt for an agent.
+     *
+     * @param agentId The ID of the agent
+     * @param query   The retrieval query
+     * @return Context documents, best first; empty if nothing relevant was found
+     * @see #retrieveContext(String, String, float[])
+     */
+    public List<Document> retrieveContext(String agentId, String query) {
+        return retrieveContext(agentId, query, null);
+    }
 
-        if (ragAdvisor != null) {
-            promptBuilder = promptBuilder.advisors(ragAdvisor);
+    /**
+     * Retrieves the knowledge injected into the prompt for an agent.
+     * Retrieval runs on the engine selected by retrieval.engine, always scoped to the agent.
+     * Candidates are over-fetched, cut off by the agent's similarity settings and narrowed to at
+     * most the agent's max K diverse passages within the context token budget.
+     * The query is embedded at most once, or not at all when its embedding is given: the
+     * retriever and the context post-processor reuse the embedding carried by the RAG query.
+     *
+     * @param agentId   The ID of the agent
+     * @param query     The retrieval query
+     * @param embedding Embedding of the query, or null to embed it
+     * @return Context documents, best first; empty if nothing relevant was found
+     */
+    public List<Document> retrieveContext(String agentId, String query, float[] embedding) {
+        log.debug("Retrieving context for agent: {}", agentId);
+
+        int maxK = knowledgeRetrievalService.maxK(agentId);
+        Query ragQuery = knowledgeRetrievalService.contextQuery(agentId, query, embedding);
+        List<Document> candidates = knowledgeRetrievalService
+                .documentRetriever(agentId, knowledgeRetrievalService.contextCandidates(maxK))
+                .retrieve(ragQuery);
+        return knowledgeRetrievalService.contextPostProcessor(agentId, maxK).process(ragQuery, candidates);
+    }
+
+    /**
+     * Builds the retrieval query of a follow-up question from the latest user turns, oldest first,
+     * followed by the question. Assistant turns are left out: they are long and would pull the
+     * search towards what was already answered.
+     *
+     * @param question The user question
+     * @param history  Conversation history as "Role: content" lines
+     * @param turns    Maximum number of earlier user turns to include
+     * @return The question alone if the history has no user turns
+     */
+    static String retrievalQuery(String question, List<String> history, int turns) {
+        List<String> userTurns = new ArrayList<>();
+        for (int i = history.size() - 1; i >= 0 && userTurns.size() < turns; i--) {
+            String line = history.get(i);
+            if (line.startsWith(USER_HISTORY_PREFIX)) {
+                userTurns.addFirst(line.substring(USER_HISTORY_PREFIX.length()));
+            }
         }
+        if (userTurns.isEmpty()) {
+            return question;
+        }
+        userTurns.add(question);
+        return String.join("\n", userTurns);
+    }
 
+    /**
+     * Builds the user message from summary, question and history, and adds the retrieved
+     * context using the contextual query augmenter.
+     */
+    private static String augmentedPrompt(ChatRequestDto requestDto, List<String> history, String summary,
+                                          List<Document> context) {
         // Build combined prompt with summary, user question, and chat history
         StringBuilder combinedPromptBuilder = new StringBuilder();
 
@@ -122,42 +243,7 @@ public class ChatModelService {
             combinedPromptBuilder.append("\n");
         }
 
-        String combinedPrompt = combinedPromptBuilder.toString();
-
-        return promptBuilder
-                .system(ChatConfig.SYSTEM_PROMPT + ChatConfig.SEARCH_TOOL_INSTRUCTION)
-                .toolCallbacks(createToolCallbackForAgent(requestDto.getAgentId()))
-                .user(combinedPrompt)
-                .stream()
-                .content();
-    }
-
-    /**
-     * Creates a RAG (Retrieval Augmented Generation) advisor for an agent.
-     * Uses the agent's knowledge base for document retrieval.
-     *
-     * @param agentId The ID of the agent
-     * @return RetrievalAugmentationAdvisor configured with the agent's vector store
-     */
-    public RetrievalAugmentationAdvisor createRAGAdvisorForAgent(String agentId) {
-        log.debug("Creating RAG advisor for agent: {}", agentId);
-
-        var documentRetriever = VectorStoreDocumentRetriever
-                .builder()
-                .vectorStore(vectorStoreService.vectorStore(agentId))
-                .topK(ChatConfig.TOP_K)
-                .build();
-
-        var queryAugmenter = ContextualQueryAugmenter
-                .builder()
-                .allowEmptyContext(true)
-                .build();
-
-        return RetrievalAugmentationAdvisor
-                .builder()
-                .documentRetriever(documentRetriever)
-                .queryAugmenter(queryAugmenter)
-                .build();
+        return QUERY_AUGMENTER.augment(new Query(combinedPromptBuilder.toString()), context).text();
     }
 
     /**
@@ -0,0 +1,275 @@
+package org.linhtk.orchestrator.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.linhtk.orchestrator.config.hibernate.PgVectorCodec;
+import org.linhtk.orchestrator.model.knowledge.KnowledgeChunk;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk loader that streams knowledge chunks into PostgreSQL with COPY ... FROM STDIN.
+ * Used instead of batched INSERTs for very large imports and backfills, where COPY
+ * avoids per-row statement overhead entirely.
+ *
+ * Design decisions:
+ * - Runs on the connection of the current transaction (via JdbcTemplate), so a failed
+ *   import rolls back COPY rows together with everything else
+ * - Rows are encoded in COPY BINARY format: embeddings go over the wire in pgvector's
+ *   vector_recv layout, so neither side formats or parses thousands of decimal strings,
+ *   and text fields need no escaping
+ * - Rows are written through a fixed-size buffer so memory does not grow with the row count
+ * - Rows bypass JPA, so audit columns other than created_at (database default) stay null
+ * - knowledge_chunk is shared by every agent, so rows are always copied into its live indexes;
+ *   dropping any index on it, even a per-agent partial one, would lock the table for all agents.
+ *   Only the offline backfill path defers HNSW maintenance, and only for the index of the
+ *   agent's own vector table, which it drops before the load and rebuilds afterwards.
+ *   DDL is transactional in PostgreSQL, so a rollback restores it
+ */
+@Service
+@Slf4j
+public class ChunkCopyLoader {
+
+    private static final String COPY_CHUNKS_SQL = """
+            COPY knowledge_chunk (id, agent_knowledge_id, agent_id, chunk_order, content, content_hash,
+                                  metadata, embedding_768, embedding_1536)
+            FROM STDIN (FORMAT BINARY)
+            """;
+
+    private static final String COPY_VECTORS_SQL = """
+            COPY public.%s (id, content, metadata, embedding)
+            FROM STDIN (FORMAT BINARY)
+            """;
+
+    /**
+     * Index definition matching VectorStoreService's table creation.
+     */
+    private static final String DROP_VECTOR_INDEX_SQL = "DROP INDEX IF EXISTS public.%s";
+
+    private static final String CREATE_VECTOR_INDEX_SQL =
+            "CREATE INDEX IF NOT EXISTS %s ON public.%s USING hnsw (embedding vector_cosine_ops)";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * COPY BINARY file signature, followed in the header by int32 flags and int32 extension length.
+     */
+    private static final byte[] BINARY_SIGNATURE = {'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0};
+
+    private static final int CHUNK_FIELD_COUNT = 9;
+    private static final int VECTOR_FIELD_COUNT = 4;
+
+    /**
+     * Version byte preceding the JSON text in the binary jsonb format.
+     */
+    private static final int JSONB_VERSION = 1;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final VectorStoreService vectorStoreService;
+
+    public ChunkCopyLoader(JdbcTemplate jdbcTemplate,
+                           ObjectMapper objectMapper,
+                           VectorStoreService vectorStoreService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.vectorStoreService = vectorStoreService;
+    }
+
+    /**
+     * Streams new chunks into knowledge_chunk.
+     * Chunks without an ID get a client-side UUID first.
+     *
+     * @param chunks New chunks to load
+     * @return Number of rows loaded
+     */
+    public long copyChunks(List<KnowledgeChunk> chunks) {
+        for (KnowledgeChunk chunk : chunks) {
+            if (chunk.getId() == null) {
+                chunk.setId(UUID.randomUUID().toString());
+            }
+        }
+
+        long rows = copy(COPY_CHUNKS_SQL, chunks, this::writeChunkRow);
+        log.debug("Copied {} rows into knowledge_chunk", rows);
+        return rows;
+    }
+
+    /**
+     * Streams the vectors of new chunks into the vector tables of their agents.
+     * Chunks without an embedding are skipped. Unlike {@link VectorStoreService#writeChunks},
+     * this does not upsert, so it must only be used for chunks that were never written before.
+     *
+     * @param chunks Chunks carrying IDs and embeddings
+     * @return Number of rows loaded
+     */
+    public long copyVectors(List<KnowledgeChunk> chunks) {
+        Map<String, List<KnowledgeChunk>> embeddedByAgent = chunks.stream()
+                .filter(chunk -> embeddingOf(chunk) != null)
+                .collect(Collectors.groupingBy(KnowledgeChunk::getAgentId, LinkedHashMap::new, Collectors.toList()));
+
+        long rows = 0;
+        for (Map.Entry<String, List<KnowledgeChunk>> entry : embeddedByAgent.entrySet()) {
+            String tableName = vectorStoreService.vectorTable(entry.getKey());
+            long copied = copy(String.format(COPY_VECTORS_SQL, tableName), entry.getValue(), this::writeVectorRow);
+            log.debug("Copied {} rows into {}", copied, tableName);
+            rows += copied;
+        }
+        return rows;
+    }
+
+    /**
+     * Drops the HNSW index of the agent's vector table so a bulk load does not maintain it
+     * row by row. Must be paired with {@link #createVectorIndex(String)} in the same transaction.
+     *
+     * Dropping locks the agent's vector table until the transaction ends, blocking that agent's
+     * vector store searches and imports; other agents are not affected. Only called by
+     * KnowledgeImportService.backfillDocument.
+     *
+     * @param agentId The agent whose vector table is loaded
+     */
+    public void dropVectorIndex(String agentId) {
+        log.info("Dropping vector table HNSW index for bulk load of agent: {}", agentId);
+        // Make sure the agent's table exists before its index is dropped in this transaction
+        vectorStoreService.vectorTable(agentId);
+        jdbcTemplate.execute(String.format(DROP_VECTOR_INDEX_SQL, VectorStoreService.vectorIndexName(agentId)));
+    }
+
+    /**
+     * Rebuilds the index dropped by {@link #dropVectorIndex(String)} in one pass over the data.
+     *
+     * @param agentId The agent whose vector table was loaded
+     */
+    public void createVectorIndex(String agentId) {
+        log.info("Rebuilding vector table HNSW index after bulk load of agent: {}", agentId);
+        jdbcTemplate.execute(String.format(CREATE_VECTOR_INDEX_SQL,
+                VectorStoreService.vectorIndexName(agentId), VectorStoreService.vectorTableName(agentId)));
+    }
+
+    private long copy(String sql, List<KnowledgeChunk> chunks, RowWriter rowWriter) {
+        if (chunks.isEmpty()) {
+            return 0;
+        }
+
+        Long rows = jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+            PGCopyOutputStream copyOut = new PGCopyOutputStream(copyManager.copyIn(sql), BUFFER_SIZE);
+            try {
+                DataOutputStream out = new DataOutputStream(copyOut);
+                out.write(BINARY_SIGNATURE);
+                out.writeInt(0);
+                out.writeInt(0);
+                for (KnowledgeChunk chunk : chunks) {
+                    rowWriter.write(out, chunk);
+                }
+                out.writeShort(-1);
+                out.flush();
+                return copyOut.endCopy();
+            } catch (IOException e) {
+                cancel(copyOut);
+                throw new SQLException("Failed to stream COPY data", e);
+            } catch (SQLException | RuntimeException e) {
+                cancel(copyOut);
+                throw e;
+            }
+        });
+        return rows != null ? rows : 0;
+    }
+
+    private static void cancel(PGCopyOutputStream copyOut) throws SQLException {
+        if (copyOut.isActive()) {
+            copyOut.cancelCopy();
+        }
+    }
+
+    private void writeChunkRow(DataOutputStream out, KnowledgeChunk chunk) throws IOException {
+        out.writeShort(CHUNK_FIELD_COUNT);
+        writeText(out, chunk.getId());
+        writeText(out, chunk.getAgentKnowledgeId());
+        writeText(out, chunk.getAgentId());
+        writeInt(out, chunk.getChunkOrder());
+        writeText(out, chunk.getContent());
+        writeText(out, chunk.getContentHash());
+        writeJsonb(out, toJson(chunk));
+        writeVector(out, chunk.getEmbedding768());
+        writeVector(out, chunk.getEmbedding1536());
+    }
+
+    private void writeVectorRow(DataOutputStream out, KnowledgeChunk chunk) throws IOException {
+        out.writeShort(VECTOR_FIELD_COUNT);
+        writeText(out, chunk.getId());
+        writeText(out, chunk.getContent());
+        writeJsonb(out, vectorStoreService.toMetadataJson(chunk));
+        writeVector(out, embeddingOf(chunk));
+    }
+
+    private String toJson(KnowledgeChunk chunk) {
+        try {
+            return objectMapper.writeValueAsString(chunk.getMetadata() != null ? chunk.getMetadata() : Map.of());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize metadata for chunk " + chunk.getId(), e);
+        }
+    }
+
+    private static float[] embeddingOf(KnowledgeChunk chunk) {
+        return chunk.getEmbedding1536() != null ? chunk.getEmbedding1536() : chunk.getEmbedding768();
+    }
+
+    /**
+     * Writes a text or varchar field: int32 byte length followed by UTF-8 bytes, or -1 for null.
+     */
+    private static void writeText(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static void writeInt(DataOutputStream out, Integer value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(Integer.BYTES);
+        out.writeInt(value);
+    }
+
+    private static void writeJsonb(DataOutputStream out, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length + 1);
+        out.writeByte(JSONB_VERSION);
+        out.write(bytes);
+    }
+
+    private static void writeVector(DataOutputStream out, float[] vector) throws IOException {
+        if (vector == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(PgVectorCodec.binaryLength(vector));
+        PgVectorCodec.writeBinary(out, vector);
+    }
+
+    @FunctionalInterface
+    private interface RowWriter {
+        void write(DataOutputStream out, KnowledgeChunk chunk) throws IOException;
+    }
+}
@@ -0,0 +1,28 @@
+package org.linhtk.orchestrator.service;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands out contiguous chunk order ranges for one knowledge source.
+ * Seeded once from the current maximum order before concurrent imports start,
+ * so files imported in parallel never write overlapping orders and never violate
+ * the uq_knowledge_chunk_order constraint.
+ */
+public final class ChunkOrderAllocator {
+
+    private final AtomicInteger nextOrder;
+
+    public ChunkOrderAllocator(int firstOrder) {
+        this.nextOrder = new AtomicInteger(firstOrder);
+    }
+
+    /**
+     * Reserves a contiguous range of chunk orders.
+     *
+     * @param count Number of chunks that need an order
+     * @return The first order of the reserved range
+     */
+    public int reserve(int count) {
+        return nextOrder.getAndAdd(count);
+    }
+}
@@ -0,0 +1,142 @@
+package org.linhtk.orchestrator.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Alignment of the stored chunks of a document with the chunks of its new version,
+ * computed from their content hashes.
+ *
+ * Implementation notes:
+ * - The longest common subsequence of hashes marks the unchanged chunks, so an inserted or
+ *   removed chunk only affects itself, not every chunk after it
+ * - The LCS is found with Hunt-Szymanski (longest increasing subsequence over matching
+ *   positions), which needs memory proportional to the matches rather than n * m
+ * - Between two unchanged chunks, leftover stored and new chunks are paired in order and
+ *   become in-place updates; surplus stored chunks are removed and surplus new chunks inserted
+ */
+final class ChunkSyncDiff {
+
+    private static final int NONE = -1;
+
+    // For each new chunk, the stored chunk it keeps or overwrites, or NONE for an insert
+    private final int[] storedIndex;
+    private final boolean[] unchanged;
+    private final List<Integer> removed;
+
+    private ChunkSyncDiff(int[] storedIndex, boolean[] unchanged, List<Integer> removed) {
+        this.storedIndex = storedIndex;
+        this.unchanged = unchanged;
+        this.removed = removed;
+    }
+
+    /**
+     * @param stored  Content hashes of the stored chunks, in chunk order
+     * @param updated Content hashes of the new chunks, in document order
+     * @return The alignment of the two versions
+     */
+    static ChunkSyncDiff compute(List<String> stored, List<String> updated) {
+        int[] storedIndex = new int[updated.size()];
+        boolean[] unchanged = new boolean[updated.size()];
+        Arrays.fill(storedIndex, NONE);
+
+        // Anchors of the LCS, as (stored, updated) index pairs in ascending order
+        List<int[]> anchors = longestCommonSubsequence(stored, updated);
+        for (int[] anchor : anchors) {
+            storedIndex[anchor[1]] = anchor[0];
+            unchanged[anchor[1]] = true;
+        }
+
+        // Pair the chunks between consecutive anchors, including before the first and after the last
+        List<Integer> removed = new ArrayList<>();
+        int storedFrom = 0;
+        int updatedFrom = 0;
+        for (int a = 0; a <= anchors.size(); a++) {
+            int storedTo = a < anchors.size() ? anchors.get(a)[0] : stored.size();
+            int updatedTo = a < anchors.size() ? anchors.get(a)[1] : updated.size();
+
+            int paired = Math.min(storedTo - storedFrom, updatedTo - updatedFrom);
+            for (int i = 0; i < paired; i++) {
+                storedIndex[updatedFrom + i] = storedFrom + i;
+            }
+            for (int i = storedFrom + paired; i < storedTo; i++) {
+                removed.add(i);
+            }
+
+            storedFrom = storedTo + 1;
+            updatedFrom = updatedTo + 1;
+        }
+
+        return new ChunkSyncDiff(storedIndex, unchanged, removed);
+    }
+
+    /**
+     * @return Index of the stored chunk the new chunk keeps or overwrites, or -1 if it is inserted
+     */
+    int storedIndex(int updatedIndex) {
+        return storedIndex[updatedIndex];
+    }
+
+    /**
+     * @return Whether the new chunk is identical to the stored chunk at {@link #storedIndex(int)}
+     */
+    boolean isUnchanged(int updatedIndex) {
+        return unchanged[updatedIndex];
+    }
+
+    /**
+     * @return Indexes of the stored chunks absent from the new version, ascending
+     */
+    List<Integer> removed() {
+        return removed;
+    }
+
+    private static List<int[]> longestCommonSubsequence(List<String> stored, List<String> updated) {
+        // Positions of every hash among the stored chunks, descending
+        Map<String, List<Integer>> positions = new HashMap<>();
+        for (int i = stored.size() - 1; i >= 0; i--) {
+            positions.computeIfAbsent(stored.get(i), hash -> new ArrayList<>()).add(i);
+        }
+
+        // tails.get(k) ends the increasing run of length k + 1 with the smallest stored index
+        List<Match> tails = new ArrayList<>();
+        for (int j = 0; j < updated.size(); j++) {
+            // Descending positions keep two matches of the same new chunk out of one run
+            for (int i : positions.getOrDefault(updated.get(j), List.of())) {
+                int k = firstTailAtOrAfter(tails, i);
+                Match match = new Match(i, j, k > 0 ? tails.get(k - 1) : null);
+                if (k == tails.size()) {
+                    tails.add(match);
+                } else {
+                    tails.set(k, match);
+                }
+            }
+        }
+
+        List<int[]> anchors = new ArrayList<>(tails.size());
+        for (Match match = tails.isEmpty() ? null : tails.getLast(); match != null; match = match.previous()) {
+            anchors.add(new int[]{match.stored(), match.updated()});
+        }
+        return anchors.reversed();
+    }
+
+    private static int firstTailAtOrAfter(List<Match> tails, int storedIndex) {
+        int low = 0;
+        int high = tails.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (tails.get(mid).stored() < storedIndex) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private record Match(int stored, int updated, Match previous) {
+    }
+}
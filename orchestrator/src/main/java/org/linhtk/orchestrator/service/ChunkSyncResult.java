@@ -0,0 +1,13 @@
+package org.linhtk.orchestrator.service;
+
+/**
+ * Outcome of synchronizing a knowledge source's chunks with a new document version.
+ *
+ * @param unchanged Stored chunks left untouched because their content hash matched
+ * @param updated   Stored chunks whose content was replaced in place
+ * @param inserted  New chunks appended after the stored ones
+ * @param deleted   Stored chunks removed because the new version is shorter
+ * @param embedded  Chunks whose text had to be sent to the embedding service
+ */
+public record ChunkSyncResult(int unchanged, int updated, int inserted, int deleted, int embedded) {
+}
@@ -0,0 +1,252 @@
+package org.linhtk.orchestrator.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.linhtk.common.exception.NotFoundException;
+import org.linhtk.orchestrator.config.KnowledgeImportProperties;
+import org.linhtk.orchestrator.dto.AgentKnowledgeImportResponseDto;
+import org.linhtk.orchestrator.dto.AgentKnowledgeResponseDto;
+import org.linhtk.orchestrator.dto.KnowledgeImportingResponseDto;
+import org.linhtk.orchestrator.model.agent.Agent;
+import org.linhtk.orchestrator.repository.AgentRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+/**
+ * Service for importing several files into one knowledge source concurrently.
+ * Each file runs on its own virtual thread through the regular single-file pipeline,
+ * so a batch of small files completes in roughly the time of the slowest one.
+ *
+ * Design decisions:
+ * - Concurrency is capped per agent and per upstream embedding quota with semaphores shared
+ *   across requests; virtual threads waiting for a permit cost almost nothing
+ * - The quota key is the provider's base URL (the provider name when the default URL is used),
+ *   a fingerprint of the API key and the embedding model, so agents sharing a key and model
+ *   share a limit whatever their provider name, and different keys or models don't
+ * - Permits are always acquired agent first, then provider, to avoid lock-order deadlocks
+ * - Chunk orders come from a ChunkOrderAllocator seeded once before any file starts,
+ *   each file reserving one contiguous range after it is chunked
+ * - Results are reported per file in completion order; the synchronous import rethrows the
+ *   first failure once all files have finished, matching the sequential import which also
+ *   keeps files committed before the failing one
+ */
+@Service
+@Slf4j
+public class ConcurrentKnowledgeImportService {
+
+    private final KnowledgeImportService knowledgeImportService;
+    private final KnowledgeChunkService chunkService;
+    private final AgentRepository agentRepository;
+    private final KnowledgeImportProperties importProperties;
+
+    // Permits shared by all concurrent imports, keyed by agent ID and by upstream quota
+    private final Map<String, Semaphore> agentPermits = new ConcurrentHashMap<>();
+    private final Map<String, Semaphore> providerPermits = new ConcurrentHashMap<>();
+
+    public ConcurrentKnowledgeImportService(KnowledgeImportService knowledgeImportService,
+                                            KnowledgeChunkService chunkService,
+                                            AgentRepository agentRepository,
+                                            KnowledgeImportProperties importProperties) {
+        this.knowledgeImportService = knowledgeImportService;
+        this.chunkService = chunkService;
+        this.agentRepository = agentRepository;
+        this.importProperties = importProperties;
+    }
+
+    /**
+     * Receives the outcome of each file of a concurrent import.
+     * Methods are called from the files' virtual threads, possibly at the same time.
+     */
+    public interface FileImportListener {
+
+        /**
+         * Called once the file holds its permits and starts importing.
+         *
+         * @param index Position of the file in the submitted list
+         */
+        default void started(int index) {
+        }
+
+        /**
+         * @param index  Position of the file in the submitted list
+         * @param result Import result of the file
+         */
+        void completed(int index, KnowledgeImportingResponseDto result);
+
+        /**
+         * @param index Position of the file in the submitted list
+         * @param error Failure of the file
+         */
+        void failed(int index, RuntimeException error);
+    }
+
+    /**
+     * Imports all files into the knowledge source, one virtual thread per file.
+     * Blocks until every file has finished.
+     *
+     * @param agentId   The agent identifier that owns the knowledge
+     * @param knowledge The knowledge source receiving the chunks
+     * @param files     The uploaded files to import
+     * @return Aggregated file names and chunk count of the import
+     * @throws NotFoundException if the agent doesn't exist
+     */
+    public AgentKnowledgeImportResponseDto importFiles(String agentId,
+                                                       AgentKnowledgeResponseDto knowledge,
+                                                       List<MultipartFile> files) {
+        List<String> fileNames = new ArrayList<>(files.size());
+        int[] chunks = {0};
+        RuntimeException[] firstFailure = {null};
+
+        importFiles(agentId, knowledge.getId(), files, new FileImportListener() {
+            @Override
+            public synchronized void completed(int index, KnowledgeImportingResponseDto result) {
+                fileNames.add(result.getOriginalFilename());
+                chunks[0] += result.getNumberOfSegments();
+            }
+
+            @Override
+            public synchronized void failed(int index, RuntimeException error) {
+                if (firstFailure[0] == null) {
+                    firstFailure[0] = error;
+                }
+            }
+        });
+
+        if (firstFailure[0] != null) {
+            throw firstFailure[0];
+        }
+
+        return AgentKnowledgeImportResponseDto.builder()
+                .agentKnowledgeResponse(knowledge)
+                .fileNames(fileNames)
+                .chunks(chunks[0])
+                .build();
+    }
+
+    /**
+     * Imports all files into the knowledge source, one virtual thread per file, reporting
+     * each outcome to the listener. Blocks until every file has finished; failures are
+     * reported, not thrown.
+     *
+     * @param agentId     The agent identifier that owns the knowledge
+     * @param knowledgeId The knowledge source receiving the chunks
+     * @param files       The files to import
+     * @param listener    Receives per-file progress
+     * @throws NotFoundException if the agent doesn't exist
+     */
+    public void importFiles(String agentId, String knowledgeId, List<? extends MultipartFile> files,
+                            FileImportListener listener) {
+        Agent agent = agentRepository.findById(agentId)
+                .orElseThrow(() -> new NotFoundException("Agent not found with ID: " + agentId));
+
+        Semaphore agentLimit = agentPermits.computeIfAbsent(agentId,
+                k -> new Semaphore(Math.max(1, importProperties.getMaxConcurrentFilesPerAgent())));
+        Semaphore providerLimit = providerPermits.computeIfAbsent(quotaKey(agent),
+                k -> new Semaphore(Math.max(1, importProperties.getMaxConcurrentFilesPerProvider())));
+
+        ChunkOrderAllocator orderAllocator = new ChunkOrderAllocator(
+                chunkService.getNextChunkOrderForKnowledge(agentId, knowledgeId));
+
+        log.info("Starting concurrent import of {} files for agent: {}, knowledge: {}",
+                files.size(), agentId, knowledgeId);
+
+        int completed = 0;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            CompletionService<Integer> completionService = new ExecutorCompletionService<>(executor);
+
+            for (int i = 0; i < files.size(); i++) {
+                int index = i;
+                MultipartFile file = files.get(i);
+                completionService.submit(() -> {
+                    try {
+                        KnowledgeImportingResponseDto result = importWithPermits(agentLimit, providerLimit, () -> {
+                            listener.started(index);
+                            return knowledgeImportService.importDocument(agentId, knowledgeId, file, orderAllocator);
+                        });
+                        listener.completed(index, result);
+                    } catch (RuntimeException e) {
+                        listener.failed(index, e);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        listener.failed(index, new RuntimeException("Import was interrupted while waiting for a permit", e));
+                    }
+                    return index;
+                });
+            }
+
+            for (int i = 0; i < files.size(); i++) {
+                try {
+                    completionService.take().get();
+                    completed++;
+                } catch (ExecutionException e) {
+                    // Failures are reported to the listener inside the task; this is a defensive fallback
+                    log.warn("Concurrent import task failed: {}", e.getCause().getMessage());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Concurrent import was interrupted", e);
+        }
+
+        log.info("Completed concurrent import for knowledge: {}, files={}", knowledgeId, completed);
+    }
+
+    /**
+     * Key of the upstream embedding quota an agent draws from.
+     * The API key is hashed so it is never kept in memory in plain text longer than needed.
+     */
+    static String quotaKey(Agent agent) {
+        String upstream = agent.getBaseUrl() != null && !agent.getBaseUrl().isBlank()
+                ? agent.getBaseUrl().strip().replaceAll("/+$", "").toLowerCase(Locale.ROOT)
+                : String.valueOf(agent.getProviderName()).toLowerCase(Locale.ROOT);
+        return upstream + '|' + fingerprint(agent.getProviderApiKey()) + '|' + agent.getProviderEmbeddingModelName();
+    }
+
+    private static String fingerprint(String apiKey) {
+        if (apiKey == null) {
+            return "";
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(apiKey.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            // Every JRE is required to provide SHA-256
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Runs one file import while holding an agent permit and a provider permit.
+     */
+    private KnowledgeImportingResponseDto importWithPermits(Semaphore agentLimit,
+                                                           Semaphore providerLimit,
+                                                           Supplier<KnowledgeImportingResponseDto> fileImport) throws InterruptedException {
+        agentLimit.acquire();
+        try {
+            providerLimit.acquire();
+            try {
+                return fileImport.get();
+            } finally {
+                providerLimit.release();
+            }
+        } finally {
+            agentLimit.release();
+        }
+    }
+}
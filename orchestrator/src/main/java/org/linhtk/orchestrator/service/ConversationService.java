@@ -15,8 +15,12 @@ import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 @Service
@@ -32,32 +36,47 @@ public class ConversationService {
     private final ChatMessageRepository chatMessageRepository;
     private final ConversationMapper conversationMapper;
     private final ChatMessageMapper chatMessageMapper;
+    private final SemanticAnswerCacheService semanticAnswerCacheService;
 
     public ConversationService(ChatModelService chatModelService,
                                ConversationRepository conversationRepository,
                                ChatMessageRepository chatMessageRepository,
                                ConversationMapper conversationMapper,
-                               ChatMessageMapper chatMessageMapper) {
+                               ChatMessageMapper chatMessageMapper,
+                               SemanticAnswerCacheService semanticAnswerCacheService) {
         this.chatModelService = chatModelService;
         this.conversationRepository = conversationRepository;
         this.chatMessageRepository = chatMessageRepository;
         this.conversationMapper = conversationMapper;
         this.chatMessageMapper = chatMessageMapper;
+        this.semanticAnswerCacheService = semanticAnswerCacheService;
     }
 
     @Transactional
     public ChatResponseDto createConversation(ChatRequestDto requestDto, String answer) {
+        String conversationName = chatModelService.createSummarize(
+            requestDto.getAgentId(), 
+            requestDto.getQuestion(), 
+            CONVERSATION_NAME_MAX_LENGTH
+        );
+        return createConversation(requestDto, answer, conversationName);
+    }
+
+    /**
+     * Creates a conversation holding the first question and its answer under the given name.
+     *
+     * @param requestDto       The first chat request
+     * @param answer           The answer to the question
+     * @param conversationName The conversation title
+     * @return The saved assistant message and its conversation
+     */
+    @Transactional
+    public ChatResponseDto createConversation(ChatRequestDto requestDto, String answer, String conversationName) {
         log.info("Creating new conversation for agent: {}", requestDto.getAgentId());
         
         try {
             Conversation conversation = new Conversation();
             conversation.setAgentId(requestDto.getAgentId());
-            
-            String conversationName = chatModelService.createSummarize(
-                requestDto.getAgentId(), 
-                requestDto.getQuestion(), 
-                CONVERSATION_NAME_MAX_LENGTH
-            );
             conversation.setName(conversationName);
             
             Conversation savedConversation = conversationRepository.save(conversation);
@@ -275,30 +294,50 @@ public class ConversationService {
             .build();
     }
 
+    /**
+     * Streams the answer to a chat request and persists the exchange once the stream completes.
+     *
+     * Implementation notes:
+     * - Follow-ups in an existing conversation load their history on a virtual thread, in
+     *   parallel with the chat model stages (see {@link ChatModelService#call})
+     * - First questions (no conversation yet) are checked against the semantic answer cache
+     *   before any model stage starts; on a hit no model, retrieval or tool work is done at
+     *   all, and on a miss retrieval reuses the embedding the lookup computed
+     * - Conversations started by a cache hit are titled with the truncated question
+     *   ({@link #questionTitle}) instead of a model-generated summary
+     */
     public Flux<ServerSentEvent<String>> streamConversation(ChatRequestDto requestDto) {
         log.info("Starting conversation stream for agent: {}", requestDto.getAgentId());
         
         try {
-            List<String> history = null;
+            String conversationId = requestDto.getConversationId();
             String summary = null;
             
-            if (requestDto.getConversationId() != null && !requestDto.getConversationId().isBlank()) {
-                List<ChatMessage> messages = chatMessageRepository
-                    .findAllByConversationIdOrderByCreatedAtAsc(requestDto.getConversationId());
-                
-                history = messages.stream()
-                    .map(msg -> {
-                        String role = msg.getType() == MESSAGE_TYPE_USER ? "User" : "Assistant";
-                        return role + ": " + msg.getContent();
-                    })
-                    .collect(Collectors.toList());
-                
-                log.debug("Loaded {} messages from conversation history", history.size());
-            }
+            boolean firstQuestion = conversationId == null || conversationId.isBlank();
             
             StringBuilder completeResponse = new StringBuilder();
-            
-            Flux<String> streamResponse = chatModelService.call(requestDto, history, summary);
+            AtomicReference<SemanticCacheLookup> cacheLookup = new AtomicReference<>();
+            
+            Flux<String> streamResponse;
+            if (firstQuestion) {
+                // Only first questions are answered from the semantic cache; later turns depend on history
+                CompletableFuture<List<String>> noHistory = CompletableFuture.completedFuture(List.of());
+                streamResponse = Mono.fromFuture(CompletableFuture.supplyAsync(
+                        () -> Optional.ofNullable(
+                                semanticAnswerCacheService.lookup(requestDto.getAgentId(), requestDto.getQuestion())),
+                        ChatModelService.STAGE_EXECUTOR))
+                    .flatMapMany(lookup -> {
+                        lookup.ifPresent(cacheLookup::set);
+                        return lookup.filter(SemanticCacheLookup::hit).isPresent()
+                            ? semanticAnswerCacheService.replay(lookup.get().answer())
+                            : chatModelService.call(requestDto, noHistory, summary,
+                                lookup.map(SemanticCacheLookup::questionEmbedding).orElse(null));
+                    });
+            } else {
+                CompletableFuture<List<String>> history = CompletableFuture.supplyAsync(
+                        () -> loadHistory(conversationId), ChatModelService.STAGE_EXECUTOR);
+                streamResponse = chatModelService.call(requestDto, history, summary, null);
+            }
             
             return streamResponse
                 .doOnNext(completeResponse::append)
@@ -308,12 +347,19 @@ public class ConversationService {
                 .doOnComplete(() -> {
                     String answer = completeResponse.toString();
                     log.debug("Stream completed with response length: {}", answer.length());
+                    semanticAnswerCacheService.store(cacheLookup.get(), answer);
                     
-                    if (requestDto.getConversationId() == null || requestDto.getConversationId().isBlank()) {
-                        createConversation(requestDto, answer);
+                    if (conversationId == null || conversationId.isBlank()) {
+                        SemanticCacheLookup lookup = cacheLookup.get();
+                        if (lookup != null && lookup.hit()) {
+                            // Cached answers skip the model entirely, including the title call
+                            createConversation(requestDto, answer, questionTitle(requestDto.getQuestion()));
+                        } else {
+                            createConversation(requestDto, answer);
+                        }
                         log.info("Created new conversation after streaming");
                     } else {
-                        addMessageToConversation(requestDto.getConversationId(), requestDto, answer);
+                        addMessageToConversation(conversationId, requestDto, answer);
                         log.info("Added messages to existing conversation after streaming");
                     }
                 })
@@ -324,4 +370,32 @@ public class ConversationService {
             return Flux.error(new RuntimeException("Failed to stream conversation", e));
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Builds a conversation title from the question alone, without calling the chat model:
+     * whitespace is collapsed and the result cut to CONVERSATION_NAME_MAX_LENGTH characters.
+     */
+    static String questionTitle(String question) {
+        String title = question == null ? "" : question.strip().replaceAll("\\s+", " ");
+        if (title.isEmpty()) {
+            return "New Conversation";
+        }
+        return title.length() > CONVERSATION_NAME_MAX_LENGTH
+            ? title.substring(0, CONVERSATION_NAME_MAX_LENGTH - 3) + "..."
+            : title;
+    }
+
+    private List<String> loadHistory(String conversationId) {
+        List<ChatMessage> messages = chatMessageRepository.findAllByConversationIdOrderByCreatedAtAsc(conversationId);
+        
+        List<String> history = messages.stream()
+            .map(msg -> {
+                String role = msg.getType() == MESSAGE_TYPE_USER ? "User" : "Assistant";
+                return role + ": " + msg.getContent();
+            })
+            .collect(Collectors.toList());
+        
+        log.debug("Loaded {} messages from conversation history", history.size());
+        return history;
+    }
+}
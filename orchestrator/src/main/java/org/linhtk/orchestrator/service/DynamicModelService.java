@@ -14,6 +14,7 @@ import org.springframework.ai.openai.OpenAiChatOptions;
 import org.springframework.ai.openai.OpenAiEmbeddingModel;
 import org.springframework.ai.openai.OpenAiEmbeddingOptions;
 import org.springframework.ai.openai.api.OpenAiApi;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.retry.support.RetryTemplate;
 import org.springframework.stereotype.Service;
 import java.util.HashMap;
@@ -31,6 +32,7 @@ public class DynamicModelService {
     private final ToolCallingManager toolCallingManager;
     private final AgentRepository agentRepository;
     private final ObservationRegistry observationRegistry;
+    private final ApplicationEventPublisher eventPublisher;
     
     // Single retry template for all OpenAI operations
     private final RetryTemplate retryTemplate;
@@ -42,11 +44,13 @@ public class DynamicModelService {
     public DynamicModelService(ToolCallingManager toolCallingManager, 
                               AgentRepository agentRepository,
                               ObservationRegistry observationRegistry,
-                              RetryTemplate retryTemplate) {
+                              RetryTemplate retryTemplate,
+                              ApplicationEventPublisher eventPublisher) {
         this.toolCallingManager = toolCallingManager;
         this.agentRepository = agentRepository;
         this.observationRegistry = observationRegistry;
         this.retryTemplate = retryTemplate;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -240,7 +244,8 @@ public class DynamicModelService {
     
     /**
      * Clears the model cache for a specific agent
-     * Useful when agent configuration changes and models need to be recreated
+     * Useful when agent configuration changes and models need to be recreated.
+     * Publishes an {@link AgentCacheEvictedEvent} so dependent caches (e.g. vector stores) follow.
      * @param agentId The agent identifier whose cache should be cleared
      */
     public void clearAgentCache(String agentId) {
@@ -249,6 +254,7 @@ public class DynamicModelService {
         
         log.info("Cache cleared for agent: {} (chat: {}, embedding: {})", 
                 agentId, chatModelRemoved, embeddingModelRemoved);
+        eventPublisher.publishEvent(new AgentCacheEvictedEvent(agentId));
     }
     
     /**
@@ -264,6 +270,7 @@ public class DynamicModelService {
         
         log.info("All caches cleared - chat models: {}, embedding models: {}", 
                 chatModelsCleared, embeddingModelsCleared);
+        eventPublisher.publishEvent(new AgentCacheEvictedEvent(null));
     }
     
     /**
@@ -0,0 +1,194 @@
+package org.linhtk.orchestrator.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.linhtk.orchestrator.config.EmbeddingCacheProperties;
+import org.linhtk.orchestrator.config.hibernate.PgVectorCodec;
+import org.linhtk.orchestrator.config.hibernate.VectorType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.PreparedStatement;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Two-tier cache of embeddings keyed by (model, dimension, SHA-256 of normalized text).
+ * Lets re-imports and boilerplate paragraphs shared across files reuse vectors that were
+ * already paid for instead of calling the embedding provider again.
+ *
+ * Design decisions:
+ * - Tier 1 is a bounded Caffeine LRU cache in memory, tier 2 the embedding_cache table
+ * - Text is normalized (NFC, trimmed, whitespace collapsed) before hashing, so formatting-only
+ *   differences between re-exports of the same document still hit
+ * - The model key includes the provider so equal model names on different providers never mix
+ * - Persistent reads select vector_send(embedding) as bytea and decode the raw floats,
+ *   skipping decimal text formatting on the server and parsing on the client
+ * - Persistent writes use ON CONFLICT DO NOTHING so concurrent imports can't fail the
+ *   surrounding transaction on a duplicate key
+ */
+@Service
+@Slf4j
+public class EmbeddingCacheService {
+
+    private static final String METRIC_LOOKUPS = "embedding.cache.lookups";
+    private static final String METRIC_MEMORY_CACHE = "embedding.cache.memory";
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private static final String SELECT_SQL = """
+            SELECT content_hash, vector_send(embedding)
+            FROM embedding_cache
+            WHERE model = ? AND dimension = ? AND content_hash = ANY (?)
+            """;
+
+    private static final String INSERT_SQL = """
+            INSERT INTO embedding_cache (model, dimension, content_hash, embedding)
+            VALUES (?, ?, ?, ?::vector)
+            ON CONFLICT DO NOTHING
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EmbeddingCacheProperties properties;
+    private final Cache<String, float[]> memoryCache;
+
+    private final Counter memoryHits;
+    private final Counter persistentHits;
+    private final Counter misses;
+
+    public EmbeddingCacheService(JdbcTemplate jdbcTemplate,
+                                 EmbeddingCacheProperties properties,
+                                 MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+        this.memoryCache = Caffeine.newBuilder()
+                .maximumSize(properties.getMemoryMaxEntries())
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, memoryCache, METRIC_MEMORY_CACHE);
+        this.memoryHits = lookupCounter(meterRegistry, "memory_hit");
+        this.persistentHits = lookupCounter(meterRegistry, "persistent_hit");
+        this.misses = lookupCounter(meterRegistry, "miss");
+    }
+
+    /**
+     * @return true if embeddings should be looked up in the cache before calling the provider
+     */
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * Looks up embeddings for the given content hashes, memory first, then the database.
+     * Persistent hits are promoted to the memory tier.
+     *
+     * @param model     Provider-qualified embedding model name
+     * @param dimension Embedding dimension
+     * @param hashes    Content hashes produced by {@link #contentHash(String)}
+     * @return Map from content hash to embedding, containing only the hashes that were found
+     */
+    public Map<String, float[]> lookup(String model, int dimension, List<String> hashes) {
+        Map<String, float[]> found = new HashMap<>();
+        List<String> remaining = new ArrayList<>();
+
+        for (String hash : hashes) {
+            float[] embedding = memoryCache.getIfPresent(cacheKey(model, dimension, hash));
+            if (embedding != null) {
+                found.put(hash, embedding);
+            } else {
+                remaining.add(hash);
+            }
+        }
+        memoryHits.increment(found.size());
+
+        if (!remaining.isEmpty() && properties.isPersistent()) {
+            Map<String, float[]> stored = selectPersistent(model, dimension, remaining);
+            stored.forEach((hash, embedding) -> memoryCache.put(cacheKey(model, dimension, hash), embedding));
+            persistentHits.increment(stored.size());
+            found.putAll(stored);
+        }
+
+        misses.increment(hashes.size() - found.size());
+        return found;
+    }
+
+    /**
+     * Stores freshly computed embeddings in both tiers.
+     *
+     * @param model      Provider-qualified embedding model name
+     * @param dimension  Embedding dimension
+     * @param embeddings Map from content hash to embedding
+     */
+    public void store(String model, int dimension, Map<String, float[]> embeddings) {
+        if (embeddings.isEmpty()) {
+            return;
+        }
+
+        embeddings.forEach((hash, embedding) -> memoryCache.put(cacheKey(model, dimension, hash), embedding));
+
+        if (properties.isPersistent()) {
+            List<Object[]> rows = new ArrayList<>(embeddings.size());
+            embeddings.forEach((hash, embedding) ->
+                    rows.add(new Object[]{model, dimension, hash, VectorType.format(embedding)}));
+            jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+        }
+
+        log.debug("Cached {} embeddings for model: {} ({} dimensions)", embeddings.size(), model, dimension);
+    }
+
+    /**
+     * Computes the cache hash of a text: hex SHA-256 of its normalized form.
+     *
+     * @param text The text to hash
+     * @return 64-character lowercase hex digest
+     */
+    public static String contentHash(String text) {
+        String normalized = WHITESPACE.matcher(Normalizer.normalize(text, Normalizer.Form.NFC).strip())
+                .replaceAll(" ");
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(normalized.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            // Every JRE is required to provide SHA-256
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private Map<String, float[]> selectPersistent(String model, int dimension, List<String> hashes) {
+        Map<String, float[]> stored = new HashMap<>();
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(SELECT_SQL);
+            ps.setString(1, model);
+            ps.setInt(2, dimension);
+            ps.setArray(3, connection.createArrayOf("varchar", hashes.toArray()));
+            return ps;
+        }, rs -> {
+            stored.put(rs.getString(1), PgVectorCodec.decodeBinary(rs.getBytes(2)));
+        });
+        return stored;
+    }
+
+    private static String cacheKey(String model, int dimension, String hash) {
+        return model + '|' + dimension + '|' + hash;
+    }
+
+    private static Counter lookupCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder(METRIC_LOOKUPS)
+                .description("Embedding cache lookups by outcome")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,176 @@
+package org.linhtk.orchestrator.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.linhtk.common.exception.NotFoundException;
+import org.linhtk.orchestrator.config.KnowledgeImportProperties;
+import org.linhtk.orchestrator.model.agent.Agent;
+import org.linhtk.orchestrator.repository.AgentRepository;
+import org.springframework.ai.embedding.Embedding;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingResponse;
+import org.springframework.ai.tokenizer.JTokkitTokenCountEstimator;
+import org.springframework.ai.tokenizer.TokenCountEstimator;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Service for generating embeddings in provider-sized batches.
+ * Groups texts by count and estimated token budget so that each group is embedded
+ * with a single request to the agent's embedding provider.
+ *
+ * Design decisions:
+ * - Uses JTokkit (bundled with Spring AI) to estimate tokens without a provider call
+ * - A single text larger than the token budget is sent alone rather than rejected,
+ *   leaving the provider to apply its own truncation rules
+ * - Results are returned in the same order as the input texts
+ * - The content-hash embedding cache is consulted first; only texts it doesn't know are
+ *   sent to the provider, and identical texts within one call are embedded once
+ */
+@Service
+@Slf4j
+public class EmbeddingService {
+
+    private final DynamicModelService dynamicModelService;
+    private final EmbeddingCacheService embeddingCacheService;
+    private final AgentRepository agentRepository;
+    private final KnowledgeImportProperties importProperties;
+    private final TokenCountEstimator tokenCountEstimator = new JTokkitTokenCountEstimator();
+
+    public EmbeddingService(DynamicModelService dynamicModelService,
+                            EmbeddingCacheService embeddingCacheService,
+                            AgentRepository agentRepository,
+                            KnowledgeImportProperties importProperties) {
+        this.dynamicModelService = dynamicModelService;
+        this.embeddingCacheService = embeddingCacheService;
+        this.agentRepository = agentRepository;
+        this.importProperties = importProperties;
+    }
+
+    /**
+     * Embeds all texts using the agent's embedding model.
+     * Cached embeddings are reused; the remaining texts are grouped into batches bounded
+     * by count and token budget, and each batch is embedded with one provider request.
+     *
+     * @param agentId The agent whose embedding model should be used
+     * @param texts   The texts to embed
+     * @return Embeddings in the same order as the input texts
+     */
+    public List<float[]> embedAll(String agentId, List<String> texts) {
+        if (texts.isEmpty()) {
+            return List.of();
+        }
+
+        if (!embeddingCacheService.isEnabled()) {
+            return embedWithProvider(agentId, texts);
+        }
+
+        Agent agent = agentRepository.findById(agentId)
+                .orElseThrow(() -> new NotFoundException("Agent not found with ID: " + agentId));
+        String model = agent.getProviderName().toLowerCase() + ":" + agent.getProviderEmbeddingModelName();
+        int dimension = agent.getDimension();
+
+        List<String> hashes = texts.stream().map(EmbeddingCacheService::contentHash).toList();
+        Map<String, float[]> cached = embeddingCacheService.lookup(model, dimension, hashes);
+
+        // Collect each uncached text once, keyed by hash, keeping first-occurrence order
+        Map<String, String> missing = new LinkedHashMap<>();
+        int served = 0;
+        for (int i = 0; i < texts.size(); i++) {
+            if (cached.containsKey(hashes.get(i))) {
+                served++;
+            } else {
+                missing.putIfAbsent(hashes.get(i), texts.get(i));
+            }
+        }
+
+        log.debug("Embedding cache for agent: {} served {}/{} texts, {} unique texts to embed",
+                agentId, served, texts.size(), missing.size());
+
+        if (!missing.isEmpty()) {
+            List<float[]> computed = embedWithProvider(agentId, new ArrayList<>(missing.values()));
+            Map<String, float[]> fresh = new LinkedHashMap<>();
+            int index = 0;
+            for (String hash : missing.keySet()) {
+                fresh.put(hash, computed.get(index++));
+            }
+            embeddingCacheService.store(model, dimension, fresh);
+            cached.putAll(fresh);
+        }
+
+        List<float[]> embeddings = new ArrayList<>(texts.size());
+        for (String hash : hashes) {
+            embeddings.add(cached.get(hash));
+        }
+        return embeddings;
+    }
+
+    /**
+     * Embeds texts with the agent's provider in batches bounded by count and token budget.
+     */
+    private List<float[]> embedWithProvider(String agentId, List<String> texts) {
+        EmbeddingModel embeddingModel = dynamicModelService.getEmbeddingModel(agentId);
+        List<List<String>> batches = partition(texts);
+
+        log.debug("Embedding {} texts for agent: {} in {} batches", texts.size(), agentId, batches.size());
+
+        List<float[]> embeddings = new ArrayList<>(texts.size());
+        for (List<String> batch : batches) {
+            embeddings.addAll(embedBatch(embeddingModel, batch));
+        }
+        return embeddings;
+    }
+
+    /**
+     * Embeds one batch and orders the results by their response index.
+     * Providers are not required to return embeddings in request order.
+     */
+    private List<float[]> embedBatch(EmbeddingModel embeddingModel, List<String> batch) {
+        EmbeddingResponse response = embeddingModel.embedForResponse(batch);
+        List<Embedding> results = response.getResults();
+
+        if (results.size() != batch.size()) {
+            throw new IllegalStateException(String.format(
+                    "Embedding provider returned %d embeddings for %d inputs", results.size(), batch.size()));
+        }
+
+        float[][] ordered = new float[batch.size()][];
+        for (Embedding result : results) {
+            ordered[result.getIndex()] = result.getOutput();
+        }
+        return List.of(ordered);
+    }
+
+    /**
+     * Splits texts into consecutive batches limited by the configured
+     * maximum batch size and maximum estimated token count.
+     */
+    private List<List<String>> partition(List<String> texts) {
+        int maxBatchSize = Math.max(1, importProperties.getEmbeddingBatchSize());
+        int maxBatchTokens = Math.max(1, importProperties.getEmbeddingBatchMaxTokens());
+
+        List<List<String>> batches = new ArrayList<>();
+        List<String> current = new ArrayList<>();
+        int currentTokens = 0;
+
+        for (String text : texts) {
+            int tokens = tokenCountEstimator.estimate(text);
+            boolean full = current.size() >= maxBatchSize || currentTokens + tokens > maxBatchTokens;
+            if (!current.isEmpty() && full) {
+                batches.add(current);
+                current = new ArrayList<>();
+                currentTokens = 0;
+            }
+            current.add(text);
+            currentTokens += tokens;
+        }
+
+        if (!current.isEmpty()) {
+            batches.add(current);
+        }
+        return batches;
+    }
+}
@@ -0,0 +1,137 @@
+package org.linhtk.orchestrator.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.linhtk.common.exception.NotFoundException;
+import org.linhtk.orchestrator.config.RetrievalProperties;
+import org.linhtk.orchestrator.model.agent.Agent;
+import org.linhtk.orchestrator.repository.AgentRepository;
+import org.linhtk.orchestrator.retrieval.ChunkEmbeddingLoader;
+import org.linhtk.orchestrator.retrieval.ChunkSearchHit;
+import org.linhtk.orchestrator.retrieval.ChunkSearchQuery;
+import org.linhtk.orchestrator.retrieval.ExactChunkIndex;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Owns the exact-search matrices of agents in EXACT retrieval mode.
+ * A matrix is loaded from knowledge_chunk on first use and only when the agent has at most
+ * retrieval.exact.max-chunks embedded chunks; larger agents keep searching in PostgreSQL.
+ *
+ * Design decisions:
+ * - Matrices are immutable once built; any committed knowledge change or agent configuration
+ *   change drops the agent's matrix and the next search reloads it, which is cheap below the
+ *   size threshold
+ * - The size check is cached with the matrix, so agents above the threshold are not counted
+ *   on every search
+ */
+@Service
+@Slf4j
+public class ExactSearchService {
+
+    private final AgentRepository agentRepository;
+    private final ChunkEmbeddingLoader chunkEmbeddingLoader;
+    private final RetrievalProperties retrievalProperties;
+
+    // Loaded or loading matrices keyed by agent ID; empty when the agent is above the threshold
+    private final Map<String, CompletableFuture<Optional<ExactChunkIndex>>> indexes = new ConcurrentHashMap<>();
+
+    public ExactSearchService(AgentRepository agentRepository,
+                              ChunkEmbeddingLoader chunkEmbeddingLoader,
+                              RetrievalProperties retrievalProperties) {
+        this.agentRepository = agentRepository;
+        this.chunkEmbeddingLoader = chunkEmbeddingLoader;
+        this.retrievalProperties = retrievalProperties;
+    }
+
+    /**
+     * Scans all of the agent's chunks, loading its matrix first if needed.
+     *
+     * @param query Agent, knowledge filter, query embedding and K
+     * @return Exact top-K hits, most similar first; empty if the agent is too large for exact search
+     */
+    public Optional<List<ChunkSearchHit>> search(ChunkSearchQuery query) {
+        return index(query.agentId()).map(index -> index.search(query));
+    }
+
+    /**
+     * Drops the agent's matrix once a knowledge change has committed.
+     *
+     * @param event Change published by the knowledge services
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onKnowledgeChanged(KnowledgeChangedEvent event) {
+        if (indexes.remove(event.agentId()) != null) {
+            log.debug("Dropped exact-search matrix for agent: {}", event.agentId());
+        }
+    }
+
+    /**
+     * Drops matrices when agent configuration, e.g. the embedding model, changes.
+     *
+     * @param event Eviction published by {@link DynamicModelService}
+     */
+    @EventListener
+    public void onAgentCacheEvicted(AgentCacheEvictedEvent event) {
+        if (event.allAgents()) {
+            indexes.clear();
+        } else {
+            indexes.remove(event.agentId());
+        }
+    }
+
+    private Optional<ExactChunkIndex> index(String agentId) {
+        CompletableFuture<Optional<ExactChunkIndex>> existing = indexes.get(agentId);
+        if (existing == null) {
+            CompletableFuture<Optional<ExactChunkIndex>> created = new CompletableFuture<>();
+            existing = indexes.putIfAbsent(agentId, created);
+            if (existing == null) {
+                try {
+                    created.complete(load(agentId));
+                } catch (RuntimeException e) {
+                    indexes.remove(agentId, created);
+                    created.completeExceptionally(e);
+                    throw e;
+                }
+                return created.join();
+            }
+        }
+
+        try {
+            return existing.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException runtimeException
+                    ? runtimeException
+                    : new RuntimeException("Failed to load exact-search matrix: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    private Optional<ExactChunkIndex> load(String agentId) {
+        Agent agent = agentRepository.findById(agentId)
+                .orElseThrow(() -> new NotFoundException("Agent not found with ID: " + agentId));
+        int dimension = agent.getDimension();
+        RetrievalProperties.Exact settings = retrievalProperties.getExact();
+
+        long chunks = chunkEmbeddingLoader.count(agentId, dimension);
+        if (chunks > settings.getMaxChunks()) {
+            log.info("Agent: {} has {} chunks, above the exact-search limit of {}; searching in PostgreSQL",
+                    agentId, chunks, settings.getMaxChunks());
+            return Optional.empty();
+        }
+
+        long start = System.nanoTime();
+        ExactChunkIndex index = new ExactChunkIndex(dimension, (int) chunks, settings.isSimd());
+        chunkEmbeddingLoader.forEachChunk(agentId, dimension, index::add);
+
+        log.info("Loaded exact-search matrix for agent: {} with {} chunks in {} ms",
+                agentId, index.size(), (System.nanoTime() - start) / 1_000_000);
+        return Optional.of(index);
+    }
+}
@@ -0,0 +1,185 @@
+package org.linhtk.orchestrator.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.linhtk.common.exception.NotFoundException;
+import org.linhtk.orchestrator.config.RetrievalProperties;
+import org.linhtk.orchestrator.constant.RetrievalMode;
+import org.linhtk.orchestrator.model.agent.Agent;
+import org.linhtk.orchestrator.model.knowledge.KnowledgeChunk;
+import org.linhtk.orchestrator.repository.AgentRepository;
+import org.linhtk.orchestrator.retrieval.ChunkEmbeddingLoader;
+import org.linhtk.orchestrator.retrieval.ChunkSearchHit;
+import org.linhtk.orchestrator.retrieval.ChunkSearchQuery;
+import org.linhtk.orchestrator.retrieval.InMemoryChunkIndex;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Owns the in-process HNSW indexes of agents in IN_MEMORY retrieval mode.
+ * PostgreSQL stays the source of truth: an index is built from knowledge_chunk at startup or
+ * on first use, kept current from committed chunk changes, and rebuilt whenever that is not
+ * possible.
+ *
+ * Design decisions:
+ * - Indexes are built once per agent; concurrent first searches wait for the same build
+ * - The build streams embeddings through {@link ChunkEmbeddingLoader}, so it never holds the
+ *   whole result set in memory
+ * - Chunk changes are applied after their transaction commits, so a rollback never leaves
+ *   rows in an index that are not in the database
+ * - A change that arrives while an index is being built, a change without chunk details,
+ *   an agent configuration change or too many replaced nodes drop the index; the next
+ *   search rebuilds it
+ */
+@Service
+@Slf4j
+public class InMemoryIndexService {
+
+    private final AgentRepository agentRepository;
+    private final ChunkEmbeddingLoader chunkEmbeddingLoader;
+    private final RetrievalProperties retrievalProperties;
+
+    // Built or building indexes keyed by agent ID
+    private final Map<String, CompletableFuture<InMemoryChunkIndex>> indexes = new ConcurrentHashMap<>();
+
+    public InMemoryIndexService(AgentRepository agentRepository,
+                                ChunkEmbeddingLoader chunkEmbeddingLoader,
+                                RetrievalProperties retrievalProperties) {
+        this.agentRepository = agentRepository;
+        this.chunkEmbeddingLoader = chunkEmbeddingLoader;
+        this.retrievalProperties = retrievalProperties;
+    }
+
+    /**
+     * Searches the agent's in-memory index, building it first if needed.
+     *
+     * @param query Agent, knowledge filter, query embedding and K
+     * @return At most topK hits, most similar first
+     */
+    public List<ChunkSearchHit> search(ChunkSearchQuery query) {
+        return index(query.agentId()).search(query);
+    }
+
+    /**
+     * Builds the indexes of IN_MEMORY agents in the background once the application is up.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void preload() {
+        if (!retrievalProperties.getInMemory().isPreload()) {
+            return;
+        }
+
+        agentRepository.findAll().stream()
+                .filter(agent -> agent.getRetrievalMode() == RetrievalMode.IN_MEMORY)
+                .map(Agent::getId)
+                .forEach(agentId -> Thread.ofVirtual().name("hnsw-preload-" + agentId).start(() -> {
+                    try {
+                        index(agentId);
+                    } catch (RuntimeException e) {
+                        log.warn("Failed to preload in-memory index for agent: {}: {}", agentId, e.getMessage());
+                    }
+                }));
+    }
+
+    /**
+     * Applies committed chunk changes to a built index, or drops the index if they cannot be applied.
+     *
+     * @param event Change published by the knowledge services
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onKnowledgeChanged(KnowledgeChangedEvent event) {
+        CompletableFuture<InMemoryChunkIndex> future = indexes.get(event.agentId());
+        if (future == null) {
+            return;
+        }
+        if (!event.incremental() || !future.isDone() || future.isCompletedExceptionally()) {
+            drop(event.agentId(), future);
+            return;
+        }
+
+        InMemoryChunkIndex index = future.join();
+        event.removedChunkIds().forEach(index::remove);
+        for (KnowledgeChunk chunk : event.writtenChunks()) {
+            float[] embedding = ChunkEmbeddingLoader.embeddingOf(chunk, index.dimension());
+            if (embedding != null) {
+                index.upsert(ChunkEmbeddingLoader.toChunk(chunk), embedding);
+            } else {
+                index.remove(chunk.getId());
+            }
+        }
+
+        if (index.needsRebuild()) {
+            drop(event.agentId(), future);
+        }
+    }
+
+    /**
+     * Drops indexes when agent configuration, e.g. the embedding model, changes.
+     *
+     * @param event Eviction published by {@link DynamicModelService}
+     */
+    @EventListener
+    public void onAgentCacheEvicted(AgentCacheEvictedEvent event) {
+        if (event.allAgents()) {
+            indexes.clear();
+        } else {
+            indexes.remove(event.agentId());
+        }
+    }
+
+    private InMemoryChunkIndex index(String agentId) {
+        CompletableFuture<InMemoryChunkIndex> existing = indexes.get(agentId);
+        if (existing == null) {
+            CompletableFuture<InMemoryChunkIndex> created = new CompletableFuture<>();
+            existing = indexes.putIfAbsent(agentId, created);
+            if (existing == null) {
+                try {
+                    created.complete(build(agentId));
+                } catch (RuntimeException e) {
+                    indexes.remove(agentId, created);
+                    created.completeExceptionally(e);
+                    throw e;
+                }
+                return created.join();
+            }
+        }
+
+        try {
+            return existing.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException runtimeException
+                    ? runtimeException
+                    : new RuntimeException("Failed to build in-memory index: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    private InMemoryChunkIndex build(String agentId) {
+        Agent agent = agentRepository.findById(agentId)
+                .orElseThrow(() -> new NotFoundException("Agent not found with ID: " + agentId));
+        int dimension = agent.getDimension();
+
+        RetrievalProperties.InMemory settings = retrievalProperties.getInMemory();
+        InMemoryChunkIndex index = new InMemoryChunkIndex(dimension, settings.getM(),
+                settings.getEfConstruction(), settings.getEfSearch());
+
+        long start = System.nanoTime();
+        chunkEmbeddingLoader.forEachChunk(agentId, dimension, index::upsert);
+
+        log.info("Built in-memory index for agent: {} with {} chunks in {} ms",
+                agentId, index.size(), (System.nanoTime() - start) / 1_000_000);
+        return index;
+    }
+
+    private void drop(String agentId, CompletableFuture<InMemoryChunkIndex> future) {
+        if (indexes.remove(agentId, future)) {
+            log.debug("Dropped in-memory index for agent: {}", agentId);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package org.linhtk.orchestrator.service;
+
+import org.linhtk.orchestrator.model.knowledge.KnowledgeChunk;
+
+import java.util.List;
+
+/**
+ * Published when chunks of an agent's knowledge are added, replaced or removed,
+ * so that caches and indexes derived from them can be updated or dropped.
+ *
+ * @param agentId         The agent whose knowledge changed
+ * @param writtenChunks   Chunks inserted or updated, with their embeddings; null if the
+ *                        change is not known chunk by chunk
+ * @param removedChunkIds IDs of deleted chunks; null if the change is not known chunk by chunk
+ */
+public record KnowledgeChangedEvent(String agentId, List<KnowledgeChunk> writtenChunks, List<String> removedChunkIds) {
+
+    /**
+     * Change whose affected chunks are unknown; listeners must drop everything for the agent.
+     */
+    public KnowledgeChangedEvent(String agentId) {
+        this(agentId, null, null);
+    }
+
+    public static KnowledgeChangedEvent written(String agentId, List<KnowledgeChunk> chunks) {
+        return new KnowledgeChangedEvent(agentId, List.copyOf(chunks), List.of());
+    }
+
+    /**
+     * @return true if the written and removed chunks are listed and can be applied incrementally
+     */
+    public boolean incremental() {
+        return writtenChunks != null && removedChunkIds != null;
+    }
+}
@@ -0,0 +1,217 @@
+package org.linhtk.orchestrator.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.linhtk.orchestrator.config.KnowledgeImportExecutorConfig;
+import org.linhtk.orchestrator.constant.VectorQuantization;
+import org.linhtk.orchestrator.model.agent.Agent;
+import org.linhtk.orchestrator.repository.AgentRepository;
+import org.linhtk.orchestrator.retrieval.PgKnowledgeChunkSearchEngine;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Maintains the per-agent HNSW indexes of knowledge_chunk that depend on agent settings.
+ *
+ * Design decisions:
+ * - Quantized (halfvec or bit) indexes are opt-in: only agents with a HALF or BINARY
+ *   vector_quantization get one, as a partial expression index over their own rows
+ *   (WHERE agent_id = '...') on the column of their embedding dimension
+ * - Agents with a quantization can set fullPrecisionIndex=false to keep their rows out of the
+ *   shared float32 HNSW indexes; the knowledge_chunk.full_precision_indexed flag is set by an
+ *   insert trigger and rewritten here when the setting changes
+ * - Indexes are built with CREATE INDEX CONCURRENTLY, which cannot run in a transaction;
+ *   syncing therefore runs on the import executor after the agent update has committed, and
+ *   never blocks writes to knowledge_chunk
+ * - A failed concurrent build leaves an invalid index that IF NOT EXISTS would keep forever,
+ *   so invalid indexes are dropped and rebuilt
+ * - At startup every live agent is reconciled and the quantized indexes of deleted agents are
+ *   dropped, which also covers settings changed while the application was down
+ */
+@Service
+@Slf4j
+public class KnowledgeChunkIndexService {
+
+    private static final String INDEX_PREFIX = "knowledge_chunk_";
+    private static final String HALF_SUFFIX = "_halfvec";
+    private static final String BINARY_SUFFIX = "_bit";
+
+    private static final String CREATE_HALF_INDEX_SQL = """
+            CREATE INDEX %1$s IF NOT EXISTS %2$s
+                ON knowledge_chunk USING hnsw ((%3$s::halfvec(%4$d)) halfvec_cosine_ops)
+                WHERE agent_id = '%5$s' AND %3$s IS NOT NULL
+            """;
+
+    private static final String CREATE_BINARY_INDEX_SQL = """
+            CREATE INDEX %1$s IF NOT EXISTS %2$s
+                ON knowledge_chunk USING hnsw ((binary_quantize(%3$s)::bit(%4$d)) bit_hamming_ops)
+                WHERE agent_id = '%5$s' AND %3$s IS NOT NULL
+            """;
+
+    private static final String DROP_INDEX_SQL = "DROP INDEX %s IF EXISTS public.%s";
+
+    private static final String CONCURRENTLY = "CONCURRENTLY";
+
+    private static final String INDEX_VALID_SQL = "SELECT indisvalid FROM pg_index WHERE indexrelid = to_regclass(?)";
+
+    private static final String QUANTIZED_INDEXES_SQL = """
+            SELECT indexname
+            FROM pg_indexes
+            WHERE schemaname = 'public' AND tablename = 'knowledge_chunk'
+              AND (indexname LIKE 'knowledge\\_chunk\\_%\\_halfvec' OR indexname LIKE 'knowledge\\_chunk\\_%\\_bit')
+            """;
+
+    private static final String UPDATE_FULL_PRECISION_SQL = """
+            UPDATE knowledge_chunk SET full_precision_indexed = ?
+            WHERE agent_id = ? AND full_precision_indexed <> ?
+            """;
+
+    private final AgentRepository agentRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TaskExecutor indexExecutor;
+
+    public KnowledgeChunkIndexService(AgentRepository agentRepository,
+                                      JdbcTemplate jdbcTemplate,
+                                      @Qualifier(KnowledgeImportExecutorConfig.KNOWLEDGE_IMPORT_EXECUTOR)
+                                      TaskExecutor indexExecutor) {
+        this.agentRepository = agentRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.indexExecutor = indexExecutor;
+    }
+
+    /**
+     * @param agentId The agent identifier
+     * @return Name of the agent's halfvec index
+     */
+    public static String halfIndexName(String agentId) {
+        return VectorStoreService.identifier(INDEX_PREFIX, agentId, HALF_SUFFIX) + HALF_SUFFIX;
+    }
+
+    /**
+     * @param agentId The agent identifier
+     * @return Name of the agent's bit index
+     */
+    public static String binaryIndexName(String agentId) {
+        return VectorStoreService.identifier(INDEX_PREFIX, agentId, BINARY_SUFFIX) + BINARY_SUFFIX;
+    }
+
+    /**
+     * @return Whether the agent's chunks belong in the full-precision HNSW index;
+     *         mirrors the knowledge_chunk insert trigger
+     */
+    public static boolean fullPrecisionIndexed(Agent agent) {
+        return quantization(agent) == VectorQuantization.NONE || !Boolean.FALSE.equals(agent.getFullPrecisionIndex());
+    }
+
+    /**
+     * Re-syncs the agent's indexes once an agent update has committed.
+     * Runs in the background because index builds can take minutes on large corpora.
+     *
+     * @param event Eviction published by {@link DynamicModelService} whenever an agent is saved
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAgentCacheEvicted(AgentCacheEvictedEvent event) {
+        try {
+            indexExecutor.execute(() -> {
+                if (event.allAgents()) {
+                    syncAll();
+                } else {
+                    agentRepository.findById(event.agentId()).ifPresent(this::syncIndexesSafely);
+                }
+            });
+        } catch (TaskRejectedException e) {
+            log.warn("Index executor is saturated, indexes of agent {} are synced at next startup", event.agentId());
+        }
+    }
+
+    /**
+     * Creates missing indexes for live agents and drops those of deleted agents.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcileIndexes() {
+        indexExecutor.execute(this::syncAll);
+    }
+
+    /**
+     * Brings the agent's quantized index and full-precision flags in line with its settings.
+     * Must not be called inside a transaction.
+     *
+     * @param agent The agent whose indexes are synced
+     */
+    public void syncIndexes(Agent agent) {
+        VectorQuantization quantization = agent.isDeleted() ? VectorQuantization.NONE : quantization(agent);
+        ensureIndex(agent, VectorQuantization.HALF, quantization == VectorQuantization.HALF);
+        ensureIndex(agent, VectorQuantization.BINARY, quantization == VectorQuantization.BINARY);
+
+        boolean indexed = fullPrecisionIndexed(agent);
+        int updated = jdbcTemplate.update(UPDATE_FULL_PRECISION_SQL, indexed, agent.getId(), indexed);
+        if (updated > 0) {
+            log.info("Set full_precision_indexed={} on {} chunks of agent {}", indexed, updated, agent.getId());
+        }
+    }
+
+    private void syncAll() {
+        List<Agent> agents = agentRepository.findAll();
+        agents.forEach(this::syncIndexesSafely);
+
+        Set<String> liveIndexes = agents.stream()
+                .filter(agent -> !agent.isDeleted())
+                .flatMap(agent -> Stream.of(halfIndexName(agent.getId()), binaryIndexName(agent.getId())))
+                .collect(Collectors.toSet());
+        jdbcTemplate.queryForList(QUANTIZED_INDEXES_SQL, String.class).stream()
+                .filter(indexName -> !liveIndexes.contains(indexName))
+                .forEach(indexName -> {
+                    jdbcTemplate.execute(DROP_INDEX_SQL.formatted(CONCURRENTLY, indexName));
+                    log.warn("Dropped quantized index {} of a deleted agent", indexName);
+                });
+    }
+
+    private void syncIndexesSafely(Agent agent) {
+        try {
+            syncIndexes(agent);
+        } catch (RuntimeException e) {
+            log.error("Failed to sync knowledge chunk indexes of agent {}: {}", agent.getId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Creates or drops one quantized index of the agent, concurrently.
+     */
+    private void ensureIndex(Agent agent, VectorQuantization quantization, boolean wanted) {
+        String indexName = quantization == VectorQuantization.HALF
+                ? halfIndexName(agent.getId())
+                : binaryIndexName(agent.getId());
+        List<Boolean> valid = jdbcTemplate.queryForList(INDEX_VALID_SQL, Boolean.class, "public." + indexName);
+        boolean exists = !valid.isEmpty();
+        if (exists && (!wanted || !valid.getFirst())) {
+            jdbcTemplate.execute(DROP_INDEX_SQL.formatted(CONCURRENTLY, indexName));
+            log.info("Dropped {} index {} of agent {}", quantization, indexName, agent.getId());
+            exists = false;
+        }
+        if (!wanted || exists || agent.getDimension() == null) {
+            return;
+        }
+
+        String sql = quantization == VectorQuantization.HALF ? CREATE_HALF_INDEX_SQL : CREATE_BINARY_INDEX_SQL;
+        long start = System.nanoTime();
+        // The index name check above limits the agent ID to letters, digits and hyphens, so it can be inlined
+        jdbcTemplate.execute(sql.formatted(CONCURRENTLY, indexName,
+                PgKnowledgeChunkSearchEngine.embeddingColumn(agent.getDimension()), agent.getDimension(), agent.getId()));
+        log.info("Built {} index {} of agent {} in {} ms", quantization, indexName, agent.getId(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private static VectorQuantization quantization(Agent agent) {
+        return agent.getVectorQuantization() != null ? agent.getVectorQuantization() : VectorQuantization.NONE;
+    }
+}
@@ -1,23 +1,35 @@
 package org.linhtk.orchestrator.service;
 
 import lombok.extern.slf4j.Slf4j;
+import org.linhtk.common.exception.BadRequestException;
 import org.linhtk.common.exception.NotFoundException;
+import org.linhtk.orchestrator.chunking.DocumentChunker;
+import org.linhtk.orchestrator.dto.KnowledgeChunkPageResponseDto;
 import org.linhtk.orchestrator.dto.KnowledgeChunkResponseDto;
 import org.linhtk.orchestrator.mapper.KnowledgeChunkMapper;
 import org.linhtk.orchestrator.model.knowledge.AgentKnowledge;
 import org.linhtk.orchestrator.model.knowledge.KnowledgeChunk;
 import org.linhtk.orchestrator.repository.AgentKnowledgeRepository;
 import org.linhtk.orchestrator.repository.KnowledgeChunkRepository;
+import org.linhtk.orchestrator.repository.KnowledgeChunkSummary;
+import org.linhtk.orchestrator.retrieval.ChunkSearchHit;
 import org.springframework.ai.document.Document;
-import org.springframework.ai.embedding.EmbeddingModel;
-import org.springframework.ai.embedding.EmbeddingResponse;
-import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Service for managing knowledge chunks.
@@ -28,22 +40,37 @@ import java.util.stream.Collectors;
 @Slf4j
 public class KnowledgeChunkService {
 
+    /**
+     * Default and maximum number of chunks per keyset page.
+     */
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    public static final int MAX_PAGE_SIZE = 1000;
+
     private final KnowledgeChunkRepository knowledgeChunkRepository;
     private final AgentKnowledgeRepository agentKnowledgeRepository;
-    private final DynamicModelService dynamicModelService;
     private final VectorStoreService vectorStoreService;
+    private final EmbeddingService embeddingService;
+    private final ChunkCopyLoader chunkCopyLoader;
+    private final KnowledgeRetrievalService knowledgeRetrievalService;
     private final KnowledgeChunkMapper knowledgeChunkMapper;
+    private final ApplicationEventPublisher eventPublisher;
 
     public KnowledgeChunkService(KnowledgeChunkRepository knowledgeChunkRepository,
                                  AgentKnowledgeRepository agentKnowledgeRepository,
-                                 DynamicModelService dynamicModelService,
                                  VectorStoreService vectorStoreService,
-                                 KnowledgeChunkMapper knowledgeChunkMapper) {
+                                 EmbeddingService embeddingService,
+                                 ChunkCopyLoader chunkCopyLoader,
+                                 KnowledgeRetrievalService knowledgeRetrievalService,
+                                 KnowledgeChunkMapper knowledgeChunkMapper,
+                                 ApplicationEventPublisher eventPublisher) {
         this.knowledgeChunkRepository = knowledgeChunkRepository;
         this.agentKnowledgeRepository = agentKnowledgeRepository;
-        this.dynamicModelService = dynamicModelService;
         this.vectorStoreService = vectorStoreService;
+        this.embeddingService = embeddingService;
+        this.chunkCopyLoader = chunkCopyLoader;
+        this.knowledgeRetrievalService = knowledgeRetrievalService;
         this.knowledgeChunkMapper = knowledgeChunkMapper;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -59,53 +86,309 @@ public class KnowledgeChunkService {
      */
     @Transactional
     public KnowledgeChunk addChunk(String agentId, String knowledgeId, Document document, int chunkOrder) {
-        log.debug("Adding chunk for knowledge: {}, order: {}", knowledgeId, chunkOrder);
+        return addChunks(agentId, knowledgeId, List.of(document), chunkOrder).get(0);
+    }
+
+    /**
+     * Adds a list of chunks with embeddings to the knowledge base in bulk.
+     * Chunks are embedded in provider-sized batches and persisted together,
+     * so a large document costs a handful of embedding requests instead of one per chunk.
+     *
+     * Implementation notes:
+     * - Ownership is validated once for the whole list
+     * - Chunk orders are assigned sequentially starting from startOrder
+     * - Vector store failures are logged and do not roll back saved chunks
+     *
+     * @param agentId     The agent identifier
+     * @param knowledgeId The knowledge source identifier
+     * @param documents   The document chunks to process, in document order
+     * @param startOrder  The chunk order assigned to the first document
+     * @return The saved KnowledgeChunk entities in document order
+     */
+    @Transactional
+    public List<KnowledgeChunk> addChunks(String agentId, String knowledgeId, List<Document> documents, int startOrder) {
+        return addChunks(agentId, knowledgeId, documents, startOrder, false);
+    }
+
+    /**
+     * Adds a list of chunks with embeddings, optionally loading them with PostgreSQL COPY.
+     * COPY skips per-row statement overhead and is meant for very large imports; the chunks
+     * are not attached to the persistence context.
+     *
+     * @param agentId     The agent identifier
+     * @param knowledgeId The knowledge source identifier
+     * @param documents   The document chunks to process, in document order
+     * @param startOrder  The chunk order assigned to the first document
+     * @param useCopy     Whether to load rows with COPY instead of batched INSERTs
+     * @return The saved KnowledgeChunk entities in document order
+     */
+    @Transactional
+    public List<KnowledgeChunk> addChunks(String agentId, String knowledgeId, List<Document> documents,
+                                          int startOrder, boolean useCopy) {
+        log.debug("Adding {} chunks for knowledge: {}, starting order: {}", documents.size(), knowledgeId, startOrder);
+
+        if (documents.isEmpty()) {
+            return List.of();
+        }
 
         // Validate ownership
         validateKnowledgeOwnership(agentId, knowledgeId);
 
-        // Get embedding model for the agent
-        EmbeddingModel embeddingModel = dynamicModelService.getEmbeddingModel(agentId);
+        // Generate embeddings for all chunks in batched provider requests
+        List<float[]> embeddings = embeddingService.embedAll(agentId,
+                documents.stream().map(Document::getText).toList());
+
+        // Build knowledge chunk entities
+        List<KnowledgeChunk> chunks = new ArrayList<>(documents.size());
+        for (int i = 0; i < documents.size(); i++) {
+            Document document = documents.get(i);
+            KnowledgeChunk chunk = KnowledgeChunk.builder()
+                    .agentKnowledgeId(knowledgeId)
+                    .agentId(agentId)
+                    .content(document.getText())
+                    .contentHash(EmbeddingCacheService.contentHash(document.getText()))
+                    .chunkOrder(startOrder + i)
+                    .metadata(document.getMetadata())
+                    .build();
+            applyEmbedding(chunk, embeddings.get(i));
+            chunks.add(chunk);
+        }
 
-        // Generate embeddings for the document content
-        EmbeddingResponse embeddingResponse = embeddingModel.embedForResponse(List.of(document.getText()));
-        float[] embedding = embeddingResponse.getResults().get(0).getOutput();
+        // Insert chunks with COPY or in JDBC batches, both with client-side IDs
+        List<KnowledgeChunk> savedChunks;
+        if (useCopy) {
+            chunkCopyLoader.copyChunks(chunks);
+            savedChunks = chunks;
+        } else {
+            savedChunks = knowledgeChunkRepository.persistAll(chunks);
+        }
+        eventPublisher.publishEvent(KnowledgeChangedEvent.written(agentId, savedChunks));
 
-        // Determine embedding dimension and store accordingly
-        int dimension = embedding.length;
+        // Add the already computed vectors to the vector store when searches run there
+        if (!knowledgeRetrievalService.usesVectorStore()) {
+            return savedChunks;
+        }
+        try {
+            if (useCopy) {
+                chunkCopyLoader.copyVectors(savedChunks);
+            } else {
+                vectorStoreService.writeChunks(savedChunks);
+            }
+            log.debug("Successfully added {} chunks to vector store", savedChunks.size());
+        } catch (Exception e) {
+            log.error("Failed to add chunks to vector store: {}", e.getMessage(), e);
+            // Continue execution - chunks are saved even if vector store addition fails
+        }
 
-        // Build knowledge chunk entity
-        KnowledgeChunk chunk = KnowledgeChunk.builder()
-                .agentKnowledgeId(knowledgeId)
-                .agentId(agentId)
-                .content(document.getText())
-                .chunkOrder(chunkOrder)
-                .metadata(document.getMetadata())
-                .build();
+        return savedChunks;
+    }
 
-        // Store embedding in appropriate field based on dimension
-        if (dimension == 768) {
-            chunk.setEmbedding768(embedding);
-        } else if (dimension == 1536) {
-            chunk.setEmbedding1536(embedding);
-        } else {
-            log.warn("Unsupported embedding dimension: {}. Chunk will be saved without embeddings.", dimension);
+    /**
+     * Replaces the chunks of one file of a knowledge source with a new version of the document,
+     * touching only what changed.
+     *
+     * Implementation notes:
+     * - Only stored chunks of the same file (metadata source equal to the new version's) take
+     *   part, so syncing one file never touches the other files of a multi-file source
+     * - Stored and new chunks are aligned by content hash with {@link ChunkSyncDiff}; chunks in
+     *   the longest common subsequence are left untouched, wherever they moved
+     * - Between unchanged chunks, changed chunks update stored rows in place; surplus new chunks
+     *   are inserted and surplus stored rows are deleted from knowledge_chunk and the vector store
+     * - The source's chunks are then renumbered so chunk_order follows document order again:
+     *   the file's chunks take the place of its first stored chunk and the other files keep
+     *   their relative order. Rows whose order changes are first parked on negative orders,
+     *   so swapping positions never trips uq_knowledge_chunk_order
+     * - Embeddings are reused from any stored chunk of the source with the same hash, so only
+     *   unknown text is sent to the embedding service
+     *
+     * @param agentId     The agent identifier
+     * @param knowledgeId The knowledge source identifier
+     * @param documents   Chunks of the new document version, in document order
+     * @return Counts of unchanged, updated, inserted, deleted and embedded chunks
+     * @throws BadRequestException if the new version has no chunks
+     * @throws NotFoundException if knowledge doesn't exist or doesn't belong to agent
+     */
+    @Transactional
+    public ChunkSyncResult syncChunks(String agentId, String knowledgeId, List<Document> documents) {
+        if (documents == null || documents.isEmpty()) {
+            throw new BadRequestException("Document has no chunks to sync");
         }
+        validateKnowledgeOwnership(agentId, knowledgeId);
 
-        // Save chunk to database
-        KnowledgeChunk savedChunk = knowledgeChunkRepository.save(chunk);
+        List<KnowledgeChunk> stored = knowledgeChunkRepository.findAllByKnowledgeIdAndAgentId(knowledgeId, agentId);
+        Object source = documents.getFirst().getMetadata().get(DocumentChunker.METADATA_SOURCE);
+        Predicate<KnowledgeChunk> inFile = chunk -> chunk.getMetadata() != null
+                && Objects.equals(source, chunk.getMetadata().get(DocumentChunker.METADATA_SOURCE));
+        List<KnowledgeChunk> existing = stored.stream().filter(inFile).toList();
+
+        // Index stored embeddings by hash so moved content can reuse them
+        Map<String, float[]> storedEmbeddings = new HashMap<>();
+        for (KnowledgeChunk chunk : stored) {
+            float[] embedding = chunk.getEmbedding1536() != null ? chunk.getEmbedding1536() : chunk.getEmbedding768();
+            if (embedding != null) {
+                storedEmbeddings.putIfAbsent(hashOf(chunk), embedding);
+            }
+        }
+
+        List<String> hashes = documents.stream()
+                .map(document -> EmbeddingCacheService.contentHash(document.getText()))
+                .toList();
+        ChunkSyncDiff diff = ChunkSyncDiff.compute(existing.stream().map(this::hashOf).toList(), hashes);
+
+        List<KnowledgeChunk> fileChunks = new ArrayList<>(documents.size());
+        List<KnowledgeChunk> changed = new ArrayList<>();
+        List<String> textsToEmbed = new ArrayList<>();
+        List<KnowledgeChunk> chunksToEmbed = new ArrayList<>();
+        int unchanged = 0;
+        int updated = 0;
+        int inserted = 0;
+
+        for (int i = 0; i < documents.size(); i++) {
+            if (diff.isUnchanged(i)) {
+                fileChunks.add(existing.get(diff.storedIndex(i)));
+                unchanged++;
+                continue;
+            }
+
+            Document document = documents.get(i);
+            String hash = hashes.get(i);
+
+            KnowledgeChunk chunk;
+            if (diff.storedIndex(i) >= 0) {
+                chunk = existing.get(diff.storedIndex(i));
+                updated++;
+            } else {
+                chunk = KnowledgeChunk.builder()
+                        .agentKnowledgeId(knowledgeId)
+                        .agentId(agentId)
+                        .build();
+                inserted++;
+            }
+            fileChunks.add(chunk);
+
+            chunk.setContent(document.getText());
+            chunk.setContentHash(hash);
+            chunk.setMetadata(document.getMetadata());
+
+            float[] reused = storedEmbeddings.get(hash);
+            if (reused != null) {
+                applyEmbedding(chunk, reused);
+            } else {
+                textsToEmbed.add(document.getText());
+                chunksToEmbed.add(chunk);
+            }
+            changed.add(chunk);
+        }
+
+        List<float[]> embeddings = embeddingService.embedAll(agentId, textsToEmbed);
+        for (int i = 0; i < chunksToEmbed.size(); i++) {
+            applyEmbedding(chunksToEmbed.get(i), embeddings.get(i));
+        }
+
+        List<KnowledgeChunk> removed = diff.removed().stream().map(existing::get).toList();
+        List<String> removedIds = removed.stream().map(KnowledgeChunk::getId).toList();
+
+        knowledgeChunkRepository.deleteAllInBatch(removed);
+
+        // Park stored rows that move on negative orders; inserts and moves then only take free orders
+        List<KnowledgeChunk> ordered = documentOrder(stored, fileChunks, inFile);
+        int firstOrder = stored.isEmpty() ? 1 : stored.getFirst().getChunkOrder();
+        List<KnowledgeChunk> moved = new ArrayList<>();
+        for (int i = 0; i < ordered.size(); i++) {
+            KnowledgeChunk chunk = ordered.get(i);
+            if (chunk.getId() != null && chunk.getChunkOrder() != firstOrder + i) {
+                moved.add(chunk);
+            }
+        }
+        if (!moved.isEmpty()) {
+            knowledgeChunkRepository.parkChunkOrders(moved.stream().map(KnowledgeChunk::getId).toList());
+        }
+        for (int i = 0; i < ordered.size(); i++) {
+            ordered.get(i).setChunkOrder(firstOrder + i);
+        }
+
+        List<KnowledgeChunk> savedChunks = knowledgeChunkRepository.saveAll(changed);
+
+        // Moved rows are written too, so in-memory indexes pick up their new orders
+        Set<KnowledgeChunk> written = new LinkedHashSet<>(savedChunks);
+        written.addAll(moved);
+        eventPublisher.publishEvent(new KnowledgeChangedEvent(agentId, List.copyOf(written), removedIds));
 
-        // Add to vector store for semantic search
         try {
-            var vectorStore = vectorStoreService.vectorStore(agentId);
-            vectorStore.add(List.of(document));
-            log.debug("Successfully added chunk {} to vector store", savedChunk.getId());
+            if (knowledgeRetrievalService.usesVectorStore()) {
+                vectorStoreService.deleteChunks(agentId, removedIds);
+                vectorStoreService.writeChunks(savedChunks);
+            }
         } catch (Exception e) {
-            log.error("Failed to add chunk to vector store: {}", e.getMessage(), e);
-            // Continue execution - chunk is saved even if vector store addition fails
+            log.error("Failed to sync chunks to vector store: {}", e.getMessage(), e);
+            // Continue execution - chunks are synced even if vector store update fails
+        }
+
+        log.info("Synced knowledge: {}, source: {} - unchanged={}, updated={}, inserted={}, deleted={}, embedded={}, "
+                        + "renumbered={}",
+                knowledgeId, source, unchanged, updated, inserted, removedIds.size(), textsToEmbed.size(), moved.size());
+
+        return new ChunkSyncResult(unchanged, updated, inserted, removedIds.size(), textsToEmbed.size());
+    }
+
+    /**
+     * Orders the chunks of a knowledge source after one of its files was synced.
+     * The file's chunks, in document order, take the place of its first stored chunk, or go
+     * last if the file had none; chunks of other files keep their relative order.
+     *
+     * @param stored     All stored chunks of the source before the sync, in chunk order
+     * @param fileChunks Chunks of the synced file in document order, stored or new
+     * @param inFile     Whether a stored chunk belongs to the synced file
+     * @return Every chunk of the source after the sync, in the order to number them
+     */
+    static List<KnowledgeChunk> documentOrder(List<KnowledgeChunk> stored, List<KnowledgeChunk> fileChunks,
+                                              Predicate<KnowledgeChunk> inFile) {
+        List<KnowledgeChunk> ordered = new ArrayList<>(stored.size() + fileChunks.size());
+        boolean placed = false;
+        for (KnowledgeChunk chunk : stored) {
+            if (!inFile.test(chunk)) {
+                ordered.add(chunk);
+            } else if (!placed) {
+                ordered.addAll(fileChunks);
+                placed = true;
+            }
+        }
+        if (!placed) {
+            ordered.addAll(fileChunks);
         }
+        return ordered;
+    }
 
-        return savedChunk;
+    /**
+     * Returns the stored content hash of a chunk, computing it for rows stored before hashes existed.
+     */
+    private String hashOf(KnowledgeChunk chunk) {
+        return chunk.getContentHash() != null
+                ? chunk.getContentHash()
+                : EmbeddingCacheService.contentHash(chunk.getContent());
+    }
+
+    /**
+     * Stores the embedding in the field matching its dimension.
+     * Clears the other dimension so a chunk never carries two embeddings.
+     *
+     * @param chunk     The chunk to update
+     * @param embedding The embedding vector
+     */
+    private void applyEmbedding(KnowledgeChunk chunk, float[] embedding) {
+        int dimension = embedding.length;
+
+        if (dimension == 768) {
+            chunk.setEmbedding768(embedding);
+            chunk.setEmbedding1536(null);
+        } else if (dimension == 1536) {
+            chunk.setEmbedding1536(embedding);
+            chunk.setEmbedding768(null);
+        } else {
+            log.warn("Unsupported embedding dimension: {}. Chunk will be saved without embeddings.", dimension);
+            chunk.setEmbedding768(null);
+            chunk.setEmbedding1536(null);
+        }
     }
 
     /**
@@ -128,12 +411,13 @@ public class KnowledgeChunkService {
     /**
      * Validates that the knowledge source belongs to the specified agent.
      * Implements access control to ensure agents can only access their own knowledge.
+     * Public so that callers can fail fast before committing a streamed response.
      *
      * @param agentId     The agent identifier to validate
      * @param knowledgeId The knowledge source identifier to validate
      * @throws NotFoundException if knowledge doesn't exist or doesn't belong to agent
      */
-    private void validateKnowledgeOwnership(String agentId, String knowledgeId) {
+    public void validateKnowledgeOwnership(String agentId, String knowledgeId) {
         AgentKnowledge knowledge = agentKnowledgeRepository.findById(knowledgeId)
                 .orElseThrow(() -> new NotFoundException("Knowledge source not found with ID: " + knowledgeId));
 
@@ -159,24 +443,91 @@ public class KnowledgeChunkService {
         // Validate ownership first - ensures knowledge exists and belongs to agent
         validateKnowledgeOwnership(agentId, knowledgeId);
 
-        // Retrieve all chunks for this knowledge source
-        List<KnowledgeChunk> chunks = knowledgeChunkRepository.findAllByKnowledgeIdAndAgentId(knowledgeId, agentId);
+        // Retrieve all chunks for this knowledge source, without loading their embeddings
+        List<KnowledgeChunkSummary> chunks =
+                knowledgeChunkRepository.findSummariesByKnowledgeIdAndAgentId(knowledgeId, agentId);
 
         log.debug("Found {} chunks for knowledge: {}", chunks.size(), knowledgeId);
         return chunks.stream().map(
-                knowledgeChunkMapper::toVmResponse
+                knowledgeChunkMapper::toSummaryResponse
         ).collect(Collectors.toList());
     }
 
+    /**
+     * Retrieves one page of chunks for a knowledge source using keyset pagination on chunk order.
+     * Unlike offset paging, deep pages cost the same as the first one.
+     *
+     * @param agentId     The agent identifier
+     * @param knowledgeId The knowledge source identifier
+     * @param after       Chunk order of the last chunk already seen, or null for the first page
+     * @param size        Page size, clamped to 1..{@value #MAX_PAGE_SIZE}
+     * @return The page and the cursor for the next one
+     * @throws NotFoundException if knowledge doesn't exist or doesn't belong to agent
+     */
+    public KnowledgeChunkPageResponseDto getPageByKnowledge(String agentId, String knowledgeId, Integer after, int size) {
+        validateKnowledgeOwnership(agentId, knowledgeId);
+
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        int afterOrder = after != null ? after : -1;
+
+        // Fetch one extra row to learn whether another page follows
+        List<KnowledgeChunkSummary> chunks = knowledgeChunkRepository.findSummariesAfter(
+                knowledgeId, agentId, afterOrder, Limit.of(pageSize + 1));
+        boolean hasMore = chunks.size() > pageSize;
+        List<KnowledgeChunkSummary> page = hasMore ? chunks.subList(0, pageSize) : chunks;
+
+        log.debug("Found {} chunks after order {} for knowledge: {}", page.size(), afterOrder, knowledgeId);
+        return KnowledgeChunkPageResponseDto.builder()
+                .chunks(page.stream().map(knowledgeChunkMapper::toSummaryResponse).toList())
+                .nextCursor(page.isEmpty() ? null : page.get(page.size() - 1).getChunkOrder())
+                .hasMore(hasMore)
+                .build();
+    }
+
+    /**
+     * Walks all chunks of a knowledge source in chunk order, handing each one to the consumer
+     * as it is read from the database cursor.
+     *
+     * Implementation notes:
+     * - Rows are fetched in blocks of knowledge.import.chunk-stream-fetch-size and are never collected,
+     *   so memory stays constant for any knowledge source size
+     * - Projections are not managed entities, so the persistence context does not grow either
+     * - The read-only transaction keeps the cursor open until the consumer has seen every chunk
+     *
+     * @param agentId     The agent identifier
+     * @param knowledgeId The knowledge source identifier
+     * @param consumer    Receives each chunk in order
+     * @return Number of chunks handed to the consumer
+     * @throws NotFoundException if knowledge doesn't exist or doesn't belong to agent
+     */
+    @Transactional(readOnly = true)
+    public long streamByKnowledge(String agentId, String knowledgeId, Consumer<KnowledgeChunkResponseDto> consumer) {
+        validateKnowledgeOwnership(agentId, knowledgeId);
+
+        long count = 0;
+        try (Stream<KnowledgeChunkSummary> chunks =
+                     knowledgeChunkRepository.streamSummariesByKnowledgeIdAndAgentId(knowledgeId, agentId)) {
+            var iterator = chunks.iterator();
+            while (iterator.hasNext()) {
+                consumer.accept(knowledgeChunkMapper.toSummaryResponse(iterator.next()));
+                count++;
+            }
+        }
+
+        log.debug("Streamed {} chunks for knowledge: {}", count, knowledgeId);
+        return count;
+    }
+
     /**
      * Searches for similar chunks using semantic similarity search.
-     * Uses the agent's vector store to find the most relevant chunks based on the query.
+     * The knowledge and agent filters are applied inside the search, so up to topK hits
+     * come back from the requested knowledge source; they are hydrated in a single query.
      *
      * @param agentId     The agent identifier
      * @param knowledgeId The knowledge source identifier to search within
      * @param query       The search query text
      * @param topK        The number of top results to return (default: 5)
-     * @return List of similar knowledge chunks ordered by relevance
+     * @return List of similar knowledge chunks ordered by relevance, with their similarity
      * @throws NotFoundException if knowledge doesn't exist or doesn't belong to agent
      */
     public List<KnowledgeChunkResponseDto> searchSimilarChunks(String agentId, String knowledgeId, String query, int topK) {
@@ -196,36 +547,33 @@ public class KnowledgeChunkService {
         }
 
         try {
-            // Get vector store for the agent
-            var vectorStore = vectorStoreService.vectorStore(agentId);
-
-            // Perform similarity search using Spring AI VectorStore
-            // The search returns documents ordered by similarity score
-            List<org.springframework.ai.document.Document> similarDocuments =
-                    vectorStore.similaritySearch(SearchRequest.builder().query(query).topK(topK).build());
-
-            log.debug("Vector store returned {} similar documents", similarDocuments.size());
-
-            // Extract chunk IDs from the document metadata and retrieve full chunks
-            List<KnowledgeChunk> similarChunks = new java.util.ArrayList<>();
-
-            for (org.springframework.ai.document.Document doc : similarDocuments) {
-                // The document ID should correspond to the chunk ID
-                String chunkId = doc.getId();
-                if (chunkId != null) {
-                    knowledgeChunkRepository.findById(chunkId).ifPresent(chunk -> {
-                        // Only include chunks from the specified knowledge source
-                        if (knowledgeId.equals(chunk.getAgentKnowledgeId()) && agentId.equals(chunk.getAgentId())) {
-                            similarChunks.add(chunk);
-                        }
-                    });
+            // Search on the configured retrieval engine; hits are ordered by similarity
+            List<ChunkSearchHit> hits = knowledgeRetrievalService.search(agentId, List.of(knowledgeId), query, topK);
+
+            log.debug("Retrieval returned {} similar chunks", hits.size());
+            if (hits.isEmpty()) {
+                return List.of();
+            }
+
+            // Hydrate all hits with one IN query, then restore similarity order
+            Map<String, KnowledgeChunkSummary> chunksById = knowledgeChunkRepository.findSummariesByIds(
+                            hits.stream().map(ChunkSearchHit::id).toList(), knowledgeId, agentId).stream()
+                    .collect(Collectors.toMap(KnowledgeChunkSummary::getId, chunk -> chunk));
+
+            List<KnowledgeChunkResponseDto> similarChunks = new ArrayList<>(hits.size());
+            for (ChunkSearchHit hit : hits) {
+                KnowledgeChunkSummary chunk = chunksById.get(hit.id());
+                if (chunk != null) {
+                    KnowledgeChunkResponseDto response = knowledgeChunkMapper.toSummaryResponse(chunk);
+                    response.setSimilarity(hit.similarity());
+                    similarChunks.add(response);
                 }
             }
 
             log.info("Found {} similar chunks for knowledge: {}, query: '{}'",
                     similarChunks.size(), knowledgeId, query);
 
-            return similarChunks.stream().map(knowledgeChunkMapper::toVmResponse).collect(Collectors.toList());
+            return similarChunks;
 
         } catch (Exception e) {
             log.error("Failed to search similar chunks: knowledge={}, error={}",
@@ -277,18 +625,12 @@ public class KnowledgeChunkService {
         }
 
         try {
-            // Get embedding model for the agent
-            EmbeddingModel embeddingModel = dynamicModelService.getEmbeddingModel(agentId);
-
-            // Generate new embeddings for the updated content
-            EmbeddingResponse embeddingResponse = embeddingModel.embedForResponse(List.of(newContent));
-            float[] newEmbedding = embeddingResponse.getResults().get(0).getOutput();
-
-            // Determine embedding dimension
-            int dimension = newEmbedding.length;
+            // Generate new embeddings for the updated content, reusing a cached vector when available
+            float[] newEmbedding = embeddingService.embedAll(agentId, List.of(newContent)).get(0);
 
             // Update chunk content
             existingChunk.setContent(newContent);
+            existingChunk.setContentHash(EmbeddingCacheService.contentHash(newContent));
 
             // Update metadata if provided
             if (newMetadata != null && !newMetadata.isEmpty()) {
@@ -296,38 +638,18 @@ public class KnowledgeChunkService {
             }
 
             // Update embedding in appropriate field based on dimension
-            if (dimension == 768) {
-                existingChunk.setEmbedding768(newEmbedding);
-                existingChunk.setEmbedding1536(null); // Clear other dimension
-            } else if (dimension == 1536) {
-                existingChunk.setEmbedding1536(newEmbedding);
-                existingChunk.setEmbedding768(null); // Clear other dimension
-            } else {
-                log.warn("Unsupported embedding dimension: {}. Chunk will be saved without embeddings.", dimension);
-                existingChunk.setEmbedding768(null);
-                existingChunk.setEmbedding1536(null);
-            }
+            applyEmbedding(existingChunk, newEmbedding);
 
             // Save updated chunk to database
             KnowledgeChunk updatedChunk = knowledgeChunkRepository.save(existingChunk);
+            eventPublisher.publishEvent(KnowledgeChangedEvent.written(agentId, List.of(updatedChunk)));
 
-            // Update vector store with new embeddings
+            // Replace the vector store row with the embedding computed above
             try {
-                var vectorStore = vectorStoreService.vectorStore(agentId);
-
-                // Create document with updated content for vector store
-                Document updatedDocument =
-                        Document.builder()
-                                .id(chunkId)
-                                .text(newContent)
-                                .metadata(newMetadata != null ? newMetadata : existingChunk.getMetadata())
-                                .build();
-
-                // Delete old vector and add new one
-                vectorStore.delete(List.of(chunkId));
-                vectorStore.add(List.of(updatedDocument));
-
-                log.debug("Successfully updated chunk {} in vector store", chunkId);
+                if (knowledgeRetrievalService.usesVectorStore()) {
+                    vectorStoreService.writeChunks(List.of(updatedChunk));
+                    log.debug("Successfully updated chunk {} in vector store", chunkId);
+                }
             } catch (Exception e) {
                 log.error("Failed to update chunk in vector store: {}", e.getMessage(), e);
                 // Continue execution - chunk is updated in DB even if vector store update fails
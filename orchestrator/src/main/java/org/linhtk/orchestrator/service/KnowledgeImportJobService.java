@@ -0,0 +1,440 @@
+package org.linhtk.orchestrator.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.linhtk.common.exception.BadRequestException;
+import org.linhtk.common.exception.InternalServerErrorException;
+import org.linhtk.common.exception.NotFoundException;
+import org.linhtk.orchestrator.config.KnowledgeImportExecutorConfig;
+import org.linhtk.orchestrator.config.KnowledgeImportProperties;
+import org.linhtk.orchestrator.constant.KnowledgeImportStatus;
+import org.linhtk.orchestrator.dto.KnowledgeImportJobResponseDto;
+import org.linhtk.orchestrator.dto.KnowledgeImportingResponseDto;
+import org.linhtk.orchestrator.mapper.KnowledgeImportJobMapper;
+import org.linhtk.orchestrator.model.knowledge.KnowledgeImportFileProgress;
+import org.linhtk.orchestrator.model.knowledge.KnowledgeImportJob;
+import org.linhtk.orchestrator.repository.KnowledgeImportJobRepository;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Service for running knowledge imports as asynchronous jobs.
+ * The request thread only stages uploads to disk and persists a job row; the
+ * extract, chunk, embed and persist pipeline runs on a bounded worker pool and
+ * records per-file progress on the job so clients can poll for the outcome.
+ *
+ * Design decisions:
+ * - Each file is imported in its own transaction through KnowledgeImportService,
+ *   so a database connection is held per file instead of for the whole upload
+ * - A failed file is recorded on the job and does not abort the remaining files
+ * - Staged temporary files are always deleted once the job finishes
+ * - With concurrent=true the files of a job are imported through ConcurrentKnowledgeImportService,
+ *   sharing its per-agent and per-quota permits with synchronous concurrent imports; progress
+ *   updates from the file threads are serialized on the job
+ * - Jobs only live in the worker pool of the instance that accepted them. Each job records
+ *   its owner (knowledge.import.instance-id) and the owner refreshes a heartbeat while it is
+ *   PENDING or RUNNING, so with several replicas or during a rolling deploy an instance only
+ *   fails its own jobs from an earlier run and jobs whose heartbeat went stale
+ * - Staged files are deleted as orphans only when no PENDING or RUNNING job references them
+ *   and they are older than the stale timeout, so uploads of live jobs on other instances
+ *   sharing the directory are never removed
+ */
+@Service
+@Slf4j
+public class KnowledgeImportJobService {
+
+    private static final List<KnowledgeImportStatus> ACTIVE_STATUSES =
+            List.of(KnowledgeImportStatus.PENDING, KnowledgeImportStatus.RUNNING);
+
+    private final KnowledgeImportJobRepository jobRepository;
+    private final KnowledgeImportService knowledgeImportService;
+    private final ConcurrentKnowledgeImportService concurrentKnowledgeImportService;
+    private final KnowledgeImportJobMapper jobMapper;
+    private final TaskExecutor importExecutor;
+    private final Path stagingDirectory;
+    private final String instanceId;
+    private final Duration staleTimeout;
+
+    // Jobs this instance owned before it started belong to an earlier run
+    private final ZonedDateTime instanceStartedAt = ZonedDateTime.now();
+
+    public KnowledgeImportJobService(KnowledgeImportJobRepository jobRepository,
+                                     KnowledgeImportService knowledgeImportService,
+                                     ConcurrentKnowledgeImportService concurrentKnowledgeImportService,
+                                     KnowledgeImportJobMapper jobMapper,
+                                     @Qualifier(KnowledgeImportExecutorConfig.KNOWLEDGE_IMPORT_EXECUTOR)
+                                     TaskExecutor importExecutor,
+                                     KnowledgeImportProperties importProperties) {
+        this.jobRepository = jobRepository;
+        this.knowledgeImportService = knowledgeImportService;
+        this.concurrentKnowledgeImportService = concurrentKnowledgeImportService;
+        this.jobMapper = jobMapper;
+        this.importExecutor = importExecutor;
+        this.stagingDirectory = Path.of(importProperties.getStagingDirectory());
+        this.instanceId = importProperties.getInstanceId() != null && !importProperties.getInstanceId().isBlank()
+                ? importProperties.getInstanceId()
+                : UUID.randomUUID().toString();
+        this.staleTimeout = importProperties.getJobStaleTimeout();
+    }
+
+    /**
+     * Fails this instance's jobs interrupted by a restart, and stale jobs of other instances,
+     * then deletes the uploads nobody references anymore.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recoverInterruptedJobs() {
+        int recovered = failInterruptedJobs();
+        int deletedFiles = deleteOrphanedStagedFiles();
+        if (recovered > 0 || deletedFiles > 0) {
+            log.warn("Recovered {} interrupted import jobs and deleted {} orphaned staged files",
+                    recovered, deletedFiles);
+        }
+    }
+
+    /**
+     * Refreshes the heartbeat of the jobs this instance runs and fails jobs whose owner
+     * stopped reporting, e.g. an instance that crashed and was not restarted.
+     */
+    @Scheduled(initialDelayString = "${knowledge.import.job-heartbeat-interval:30s}",
+            fixedDelayString = "${knowledge.import.job-heartbeat-interval:30s}")
+    public void heartbeat() {
+        try {
+            jobRepository.touchHeartbeats(instanceId, ACTIVE_STATUSES.stream().map(Enum::name).toList());
+            if (failInterruptedJobs() > 0) {
+                deleteOrphanedStagedFiles();
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to refresh import job heartbeats: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Accepts files for import into a knowledge source and schedules a job to process them.
+     * Returns as soon as the uploads are staged and the job is queued.
+     *
+     * @param agentId     The agent identifier that owns the knowledge
+     * @param knowledgeId The knowledge source identifier to add chunks to
+     * @param files       The uploaded files to import
+     * @param concurrent  Whether the job imports its files concurrently instead of one by one
+     * @return The created job in PENDING state
+     * @throws BadRequestException if no files are provided
+     * @throws InternalServerErrorException if uploads cannot be staged or the job queue is full
+     */
+    public KnowledgeImportJobResponseDto submit(String agentId, String knowledgeId, List<MultipartFile> files,
+                                                boolean concurrent) {
+        if (files == null || files.isEmpty()) {
+            throw new BadRequestException("At least one file is required for import");
+        }
+
+        List<StagedMultipartFile> stagedFiles = stageFiles(files);
+
+        List<KnowledgeImportFileProgress> progress = stagedFiles.stream()
+                .map(file -> KnowledgeImportFileProgress.builder()
+                        .fileName(Optional.ofNullable(file.getOriginalFilename()).orElse("unknown"))
+                        .contentType(file.getContentType())
+                        .fileSize(file.getSize())
+                        .stagedFile(file.stagedName())
+                        .status(KnowledgeImportStatus.PENDING)
+                        .build())
+                .collect(Collectors.toCollection(ArrayList::new));
+
+        KnowledgeImportJob job = jobRepository.save(KnowledgeImportJob.builder()
+                .agentId(agentId)
+                .agentKnowledgeId(knowledgeId)
+                .ownerInstance(instanceId)
+                .status(KnowledgeImportStatus.PENDING)
+                .totalFiles(stagedFiles.size())
+                .files(progress)
+                .build());
+
+        try {
+            String jobId = job.getId();
+            importExecutor.execute(() -> run(jobId, stagedFiles, concurrent));
+        } catch (TaskRejectedException e) {
+            log.warn("Import queue is full, rejecting job: {} for agent: {}", job.getId(), agentId);
+            deleteStagedFiles(stagedFiles);
+            job.setStatus(KnowledgeImportStatus.FAILED);
+            job.setErrorMessage("Import queue is full");
+            job.setCompletedAt(ZonedDateTime.now());
+            jobRepository.save(job);
+            throw new InternalServerErrorException("Import queue is full, please retry later");
+        }
+
+        log.info("Accepted import job: {} for agent: {}, knowledge: {}, files: {}",
+                job.getId(), agentId, knowledgeId, stagedFiles.size());
+
+        return jobMapper.toDto(job);
+    }
+
+    /**
+     * Retrieves the current status and per-file progress of an import job.
+     *
+     * @param agentId The agent identifier that owns the job
+     * @param jobId   The import job identifier
+     * @return KnowledgeImportJobResponseDto with status, progress and errors
+     * @throws NotFoundException if the job doesn't exist or doesn't belong to the agent
+     */
+    public KnowledgeImportJobResponseDto getJob(String agentId, String jobId) {
+        KnowledgeImportJob job = jobRepository.findByAgentIdAndId(agentId, jobId)
+                .orElseThrow(() -> new NotFoundException(
+                        String.format("Import job not found with ID: %s for agent: %s", jobId, agentId)));
+
+        return jobMapper.toDto(job);
+    }
+
+    /**
+     * Processes all files of a job on the worker pool, persisting progress after each file.
+     *
+     * @param jobId       The import job identifier
+     * @param stagedFiles Staged uploads in the same order as the job's file progress entries
+     * @param concurrent  Whether to import the files concurrently
+     */
+    private void run(String jobId, List<StagedMultipartFile> stagedFiles, boolean concurrent) {
+        KnowledgeImportJob job = jobRepository.findById(jobId).orElse(null);
+        if (job == null) {
+            log.error("Import job {} disappeared before it could run", jobId);
+            deleteStagedFiles(stagedFiles);
+            return;
+        }
+
+        try {
+            job.setStatus(KnowledgeImportStatus.RUNNING);
+            job.setStartedAt(ZonedDateTime.now());
+            job = jobRepository.save(job);
+
+            int succeeded = concurrent
+                    ? importConcurrently(job, stagedFiles)
+                    : importSequentially(job, stagedFiles);
+            // Progress was saved on copies returned by each save; continue from the latest row
+            job = jobRepository.findById(jobId).orElse(job);
+
+            job.setStatus(resolveFinalStatus(succeeded, stagedFiles.size()));
+            log.info("Import job {} finished: status={}, files={}/{}, chunks={}",
+                    jobId, job.getStatus(), succeeded, stagedFiles.size(), job.getTotalChunks());
+
+        } catch (Exception e) {
+            log.error("Import job {} failed: {}", jobId, e.getMessage(), e);
+            job.setStatus(KnowledgeImportStatus.FAILED);
+            job.setErrorMessage(e.getMessage());
+        } finally {
+            job.setCompletedAt(ZonedDateTime.now());
+            jobRepository.save(job);
+            deleteStagedFiles(stagedFiles);
+        }
+    }
+
+    /**
+     * Imports the files one by one, persisting progress after each file.
+     *
+     * @return Number of files imported successfully
+     */
+    private int importSequentially(KnowledgeImportJob job, List<StagedMultipartFile> stagedFiles) {
+        int succeeded = 0;
+        for (int i = 0; i < stagedFiles.size(); i++) {
+            job.getFiles().get(i).setStatus(KnowledgeImportStatus.RUNNING);
+            job = jobRepository.save(job);
+
+            if (importFile(job, i, stagedFiles.get(i))) {
+                succeeded++;
+            }
+            job.setProcessedFiles(job.getProcessedFiles() + 1);
+            job = jobRepository.save(job);
+        }
+        return succeeded;
+    }
+
+    /**
+     * Imports the files concurrently, persisting progress as each file starts and finishes.
+     * The file threads share one job instance, so every update and save holds its lock.
+     *
+     * @return Number of files imported successfully
+     */
+    private int importConcurrently(KnowledgeImportJob job, List<StagedMultipartFile> stagedFiles) {
+        KnowledgeImportJob[] current = {job};
+        int[] succeeded = {0};
+
+        concurrentKnowledgeImportService.importFiles(job.getAgentId(), job.getAgentKnowledgeId(), stagedFiles,
+                new ConcurrentKnowledgeImportService.FileImportListener() {
+                    @Override
+                    public void started(int index) {
+                        synchronized (current) {
+                            current[0].getFiles().get(index).setStatus(KnowledgeImportStatus.RUNNING);
+                            current[0] = jobRepository.save(current[0]);
+                        }
+                    }
+
+                    @Override
+                    public void completed(int index, KnowledgeImportingResponseDto result) {
+                        synchronized (current) {
+                            recordCompleted(current[0], index, result);
+                            succeeded[0]++;
+                            current[0].setProcessedFiles(current[0].getProcessedFiles() + 1);
+                            current[0] = jobRepository.save(current[0]);
+                        }
+                    }
+
+                    @Override
+                    public void failed(int index, RuntimeException error) {
+                        synchronized (current) {
+                            recordFailed(current[0], index, error);
+                            current[0].setProcessedFiles(current[0].getProcessedFiles() + 1);
+                            current[0] = jobRepository.save(current[0]);
+                        }
+                    }
+                });
+        return succeeded[0];
+    }
+
+    /**
+     * Imports one file and records its outcome on the job's progress entry.
+     *
+     * @return true if the file was imported successfully
+     */
+    private boolean importFile(KnowledgeImportJob job, int index, StagedMultipartFile file) {
+        try {
+            KnowledgeImportingResponseDto result =
+                    knowledgeImportService.importDocument(job.getAgentId(), job.getAgentKnowledgeId(), file);
+            recordCompleted(job, index, result);
+            return true;
+
+        } catch (Exception e) {
+            recordFailed(job, index, e);
+            return false;
+        }
+    }
+
+    private void recordCompleted(KnowledgeImportJob job, int index, KnowledgeImportingResponseDto result) {
+        KnowledgeImportFileProgress progress = job.getFiles().get(index);
+        progress.setStatus(KnowledgeImportStatus.COMPLETED);
+        progress.setChunks(result.getNumberOfSegments());
+        progress.setChunkingProfile(result.getChunkingProfile());
+        job.setTotalChunks(job.getTotalChunks() + result.getNumberOfSegments());
+    }
+
+    private void recordFailed(KnowledgeImportJob job, int index, Exception e) {
+        KnowledgeImportFileProgress progress = job.getFiles().get(index);
+        log.warn("Import job {} failed on file {}: {}", job.getId(), progress.getFileName(), e.getMessage());
+        progress.setStatus(KnowledgeImportStatus.FAILED);
+        progress.setErrorMessage(e.getMessage());
+    }
+
+    private KnowledgeImportStatus resolveFinalStatus(int succeeded, int total) {
+        if (succeeded == total) {
+            return KnowledgeImportStatus.COMPLETED;
+        }
+        return succeeded == 0 ? KnowledgeImportStatus.FAILED : KnowledgeImportStatus.PARTIALLY_COMPLETED;
+    }
+
+    /**
+     * Copies all uploads to disk so they outlive the HTTP request.
+     * Already staged files are removed if any copy fails.
+     */
+    private List<StagedMultipartFile> stageFiles(List<MultipartFile> files) {
+        List<StagedMultipartFile> stagedFiles = new ArrayList<>(files.size());
+        try {
+            for (MultipartFile file : files) {
+                stagedFiles.add(StagedMultipartFile.stage(file, stagingDirectory));
+            }
+            return stagedFiles;
+        } catch (IOException e) {
+            deleteStagedFiles(stagedFiles);
+            log.error("Failed to stage uploaded files for import: {}", e.getMessage(), e);
+            throw new InternalServerErrorException("Failed to store uploaded files for import");
+        }
+    }
+
+    /**
+     * Marks interrupted jobs, and their unfinished files, as FAILED.
+     * See {@link KnowledgeImportJobRepository#findInterrupted} for which jobs qualify.
+     *
+     * @return Number of failed jobs
+     */
+    private int failInterruptedJobs() {
+        List<KnowledgeImportJob> interrupted = jobRepository.findInterrupted(ACTIVE_STATUSES, instanceId,
+                instanceStartedAt, ZonedDateTime.now().minus(staleTimeout));
+
+        for (KnowledgeImportJob job : interrupted) {
+            String reason = instanceId.equals(job.getOwnerInstance())
+                    ? "Interrupted by application restart"
+                    : "Abandoned by instance " + job.getOwnerInstance();
+            job.getFiles().stream()
+                    .filter(file -> ACTIVE_STATUSES.contains(file.getStatus()))
+                    .forEach(file -> {
+                        file.setStatus(KnowledgeImportStatus.FAILED);
+                        file.setErrorMessage(reason);
+                    });
+            job.setStatus(KnowledgeImportStatus.FAILED);
+            job.setErrorMessage(reason);
+            job.setCompletedAt(ZonedDateTime.now());
+        }
+        jobRepository.saveAll(interrupted);
+        return interrupted.size();
+    }
+
+    /**
+     * Deletes staged uploads that no PENDING or RUNNING job references.
+     * Files younger than the stale timeout are kept, since their job may not be saved yet.
+     *
+     * @return Number of deleted files
+     */
+    private int deleteOrphanedStagedFiles() {
+        Set<String> referenced = jobRepository.findAllByStatusIn(ACTIVE_STATUSES).stream()
+                .flatMap(job -> job.getFiles().stream())
+                .map(KnowledgeImportFileProgress::getStagedFile)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Instant orphanedBefore = Instant.now().minus(staleTimeout);
+
+        int deleted = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(stagingDirectory,
+                StagedMultipartFile.FILE_PREFIX + "*" + StagedMultipartFile.FILE_SUFFIX)) {
+            for (Path file : files) {
+                try {
+                    if (!referenced.contains(file.getFileName().toString())
+                            && Files.getLastModifiedTime(file).toInstant().isBefore(orphanedBefore)) {
+                        Files.deleteIfExists(file);
+                        deleted++;
+                    }
+                } catch (IOException e) {
+                    log.warn("Failed to delete orphaned staged import file {}: {}", file, e.getMessage());
+                }
+            }
+        } catch (NoSuchFileException e) {
+            // Nothing was ever staged
+        } catch (IOException e) {
+            log.warn("Failed to scan import staging directory {}: {}", stagingDirectory, e.getMessage());
+        }
+        return deleted;
+    }
+
+    private void deleteStagedFiles(List<StagedMultipartFile> stagedFiles) {
+        for (StagedMultipartFile file : stagedFiles) {
+            try {
+                file.delete();
+            } catch (IOException e) {
+                log.warn("Failed to delete staged import file {}: {}", file.getOriginalFilename(), e.getMessage());
+            }
+        }
+    }
+}
@@ -4,17 +4,22 @@ import lombok.extern.slf4j.Slf4j;
 import org.linhtk.common.exception.BadRequestException;
 import org.linhtk.common.exception.NotFoundException;
 import org.linhtk.orchestrator.chunking.DocumentChunker;
+import org.linhtk.orchestrator.config.KnowledgeImportProperties;
 import org.linhtk.orchestrator.model.knowledge.AgentKnowledge;
 import org.linhtk.orchestrator.model.knowledge.KnowledgeChunk;
 import org.linhtk.orchestrator.repository.AgentKnowledgeRepository;
 import org.linhtk.orchestrator.dto.KnowledgeImportingResponseDto;
+import org.linhtk.orchestrator.dto.KnowledgeSyncResponseDto;
 import org.springframework.ai.document.Document;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Service for importing knowledge documents into the system.
@@ -27,13 +32,19 @@ public class KnowledgeImportService {
     private final KnowledgeChunkService chunkService;
     private final AgentKnowledgeRepository knowledgeRepository;
     private final DocumentChunker documentChunker;
+    private final ChunkCopyLoader chunkCopyLoader;
+    private final KnowledgeImportProperties importProperties;
 
     public KnowledgeImportService(KnowledgeChunkService chunkService, 
                                  AgentKnowledgeRepository knowledgeRepository, 
-                                 DocumentChunker documentChunker) {
+                                 DocumentChunker documentChunker,
+                                 ChunkCopyLoader chunkCopyLoader,
+                                 KnowledgeImportProperties importProperties) {
         this.chunkService = chunkService;
         this.knowledgeRepository = knowledgeRepository;
         this.documentChunker = documentChunker;
+        this.chunkCopyLoader = chunkCopyLoader;
+        this.importProperties = importProperties;
     }
 
     /**
@@ -54,6 +65,23 @@ public class KnowledgeImportService {
      */
     @Transactional
     public KnowledgeImportingResponseDto importDocument(String agentId, String knowledgeId, MultipartFile file) {
+        return importDocument(agentId, knowledgeId, file, null);
+    }
+
+    /**
+     * Imports a document file using chunk orders reserved from a shared allocator.
+     * Used when several files of the same knowledge source are imported concurrently,
+     * so each file writes a contiguous order range that cannot collide with the others.
+     *
+     * @param agentId The agent identifier that owns the knowledge
+     * @param knowledgeId The knowledge source identifier to add chunks to
+     * @param file The uploaded file to process
+     * @param orderAllocator Allocator to reserve chunk orders from, or null to continue after the current maximum
+     * @return KnowledgeImportingResponseVm containing import results and statistics
+     */
+    @Transactional
+    public KnowledgeImportingResponseDto importDocument(String agentId, String knowledgeId, MultipartFile file,
+                                                        ChunkOrderAllocator orderAllocator) {
         var fileName = Optional.ofNullable(file.getOriginalFilename()).orElse("unknown");
         var contentType = file.getContentType();
 
@@ -73,40 +101,22 @@ public class KnowledgeImportService {
         }
 
         try {
-            // Step 4: Process document into chunks using Spring AI pipeline
-            List<Document> documents = documentChunker.splitDocumentIntoChunks(file, null);
-
-            if (documents.isEmpty()) {
-                throw new BadRequestException("No processable content found in the document");
-            }
-
-            // Step 5: Get starting chunk order for proper sequencing
-            int currentOrder = chunkService.getNextChunkOrderForKnowledge(agentId, knowledgeId);
-
-            // Step 6: Process each chunk with embedding generation and storage
-            String chunkingProfile = extractChunkingProfile(documents);
-            
-            for (int i = 0; i < documents.size(); i++) {
-                Document document = documents.get(i);
-                int chunkOrder = currentOrder + i;
-                
-                // Create chunk with embeddings and add to vector store
-                KnowledgeChunk savedChunk = chunkService.addChunk(agentId, knowledgeId, document, chunkOrder);
-                
-                log.debug("Processed chunk {}/{}: id={}, order={}", 
-                         i + 1, documents.size(), savedChunk.getId(), chunkOrder);
-            }
+            // Step 4-6: Chunk, embed and store, page by page when the format allows it
+            boolean streaming = importProperties.isStreamingExtraction() && documentChunker.supportsStreaming(file);
+            ImportedChunks imported = streaming
+                    ? importStreaming(agentId, knowledgeId, file, orderAllocator)
+                    : importWhole(agentId, knowledgeId, file, orderAllocator);
 
             log.info("Successfully imported document: file={}, chunks={}, knowledge={}", 
-                     fileName, documents.size(), knowledgeId);
+                     fileName, imported.count(), knowledgeId);
 
             // Step 7: Build comprehensive response
             return KnowledgeImportingResponseDto.builder()
                     .originalFilename(fileName)
-                    .numberOfSegments(documents.size())
+                    .numberOfSegments(imported.count())
                     .contentType(contentType)
                     .fileSize(file.getSize())
-                    .chunkingProfile(chunkingProfile)
+                    .chunkingProfile(imported.chunkingProfile())
                     .knowledgeId(knowledgeId)
                     .agentId(agentId)
                     .build();
@@ -118,6 +128,216 @@ public class KnowledgeImportService {
         }
     }
 
+    /**
+     * Loads a very large document for an offline backfill: the HNSW index of the agent's vector
+     * table is dropped, all chunks are loaded with COPY, and the index is rebuilt in one pass
+     * before the transaction commits. knowledge_chunk is shared by every agent, so its rows are
+     * copied into the live indexes like any large import.
+     *
+     * Dropping the index locks the agent's vector table until commit, blocking that agent's
+     * vector store retrieval and imports. Regular imports never do this; the operation is only
+     * available while knowledge.import.offline-backfill-enabled is set for a maintenance window.
+     *
+     * @param agentId The agent identifier that owns the knowledge
+     * @param knowledgeId The knowledge source identifier to add chunks to
+     * @param file The document to load
+     * @return KnowledgeImportingResponseDto containing import results and statistics
+     * @throws BadRequestException if offline backfills are disabled or the file is invalid
+     */
+    @Transactional
+    public KnowledgeImportingResponseDto backfillDocument(String agentId, String knowledgeId, MultipartFile file) {
+        if (!importProperties.isOfflineBackfillEnabled()) {
+            throw new BadRequestException("Offline backfill is disabled; enable knowledge.import.offline-backfill-enabled "
+                    + "only while retrieval and imports can be paused");
+        }
+
+        var fileName = Optional.ofNullable(file.getOriginalFilename()).orElse("unknown");
+        validateImportRequest(agentId, knowledgeId, file);
+        validateKnowledgeOwnership(agentId, knowledgeId);
+        if (extractFileExtension(fileName).isEmpty()) {
+            throw new BadRequestException("File must have a valid extension");
+        }
+
+        List<Document> documents = documentChunker.splitDocumentIntoChunks(file, null);
+        if (documents.isEmpty()) {
+            throw new BadRequestException("No processable content found in the document");
+        }
+
+        log.warn("Starting offline backfill with index rebuild: agent={}, knowledge={}, file={}, chunks={}",
+                agentId, knowledgeId, fileName, documents.size());
+
+        int currentOrder = chunkService.getNextChunkOrderForKnowledge(agentId, knowledgeId);
+        chunkCopyLoader.dropVectorIndex(agentId);
+        List<KnowledgeChunk> savedChunks = chunkService.addChunks(agentId, knowledgeId, documents, currentOrder, true);
+        chunkCopyLoader.createVectorIndex(agentId);
+
+        return KnowledgeImportingResponseDto.builder()
+                .originalFilename(fileName)
+                .numberOfSegments(savedChunks.size())
+                .contentType(file.getContentType())
+                .fileSize(file.getSize())
+                .chunkingProfile(extractChunkingProfile(documents))
+                .knowledgeId(knowledgeId)
+                .agentId(agentId)
+                .build();
+    }
+
+    /**
+     * Synchronizes an existing knowledge source with a new version of one of its documents,
+     * matched by filename; the source's other files are left as they are.
+     * Only inserted or changed chunks are embedded; removed chunks are deleted from
+     * knowledge_chunk and the vector store.
+     *
+     * The document is chunked the same way as a regular import (page by page for PDFs when
+     * streaming extraction is enabled), so unchanged content produces identical chunks.
+     *
+     * @param agentId The agent identifier that owns the knowledge
+     * @param knowledgeId The knowledge source identifier to synchronize
+     * @param file The new version of the document
+     * @return KnowledgeSyncResponseDto with the size of the diff
+     */
+    @Transactional
+    public KnowledgeSyncResponseDto syncDocument(String agentId, String knowledgeId, MultipartFile file) {
+        var fileName = Optional.ofNullable(file.getOriginalFilename()).orElse("unknown");
+
+        log.info("Starting document sync: agent={}, knowledge={}, file={}, size={} bytes",
+                agentId, knowledgeId, fileName, file.getSize());
+
+        validateImportRequest(agentId, knowledgeId, file);
+        validateKnowledgeOwnership(agentId, knowledgeId);
+
+        if (extractFileExtension(fileName).isEmpty()) {
+            throw new BadRequestException("File must have a valid extension");
+        }
+
+        try {
+            boolean streaming = importProperties.isStreamingExtraction() && documentChunker.supportsStreaming(file);
+            List<Document> documents = streaming
+                    ? documentChunker.streamDocumentChunks(file, null).collectList().block()
+                    : documentChunker.splitDocumentIntoChunks(file, null);
+
+            if (documents == null || documents.isEmpty()) {
+                throw new BadRequestException("No processable content found in the document");
+            }
+
+            ChunkSyncResult result = chunkService.syncChunks(agentId, knowledgeId, documents);
+
+            return KnowledgeSyncResponseDto.builder()
+                    .originalFilename(fileName)
+                    .knowledgeId(knowledgeId)
+                    .agentId(agentId)
+                    .chunkingProfile(extractChunkingProfile(documents))
+                    .totalChunks(documents.size())
+                    .unchangedChunks(result.unchanged())
+                    .updatedChunks(result.updated())
+                    .insertedChunks(result.inserted())
+                    .deletedChunks(result.deleted())
+                    .embeddedChunks(result.embedded())
+                    .build();
+
+        } catch (Exception e) {
+            log.error("Failed to sync document: agent={}, knowledge={}, file={}, error={}",
+                      agentId, knowledgeId, fileName, e.getMessage(), e);
+            throw new RuntimeException("Document sync failed: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Chunks the whole document in memory, then embeds and stores all chunks.
+     */
+    private ImportedChunks importWhole(String agentId, String knowledgeId, MultipartFile file,
+                                       ChunkOrderAllocator orderAllocator) {
+        List<Document> documents = documentChunker.splitDocumentIntoChunks(file, null);
+
+        if (documents.isEmpty()) {
+            throw new BadRequestException("No processable content found in the document");
+        }
+
+        // Get starting chunk order for proper sequencing
+        int currentOrder = orderAllocator != null
+                ? orderAllocator.reserve(documents.size())
+                : chunkService.getNextChunkOrderForKnowledge(agentId, knowledgeId);
+
+        // Very large documents are loaded with COPY into the live indexes
+        boolean useCopy = documents.size() >= importProperties.getCopyThresholdChunks();
+        List<KnowledgeChunk> savedChunks = chunkService.addChunks(agentId, knowledgeId, documents, currentOrder, useCopy);
+
+        log.debug("Processed {} chunks for knowledge: {}, orders {}-{}",
+                 savedChunks.size(), knowledgeId, currentOrder, currentOrder + savedChunks.size() - 1);
+
+        return new ImportedChunks(savedChunks.size(), extractChunkingProfile(documents));
+    }
+
+    /**
+     * Streams chunks page by page and embeds and stores them one embedding batch at a time,
+     * so only a few pages and one batch of chunks are in memory at once.
+     *
+     * Implementation notes:
+     * - toStream(1) pulls the next batch only after the previous one is stored,
+     *   keeping the whole pipeline on the calling thread and inside its transaction;
+     *   the stream is closed on every exit so the upstream cleanup always runs
+     * - Orders are reserved per batch; with a shared allocator a file's chunks stay in
+     *   document order but may be interleaved with other files imported concurrently
+     * - Once the file exceeds knowledge.import.copy-threshold-chunks, the remaining batches
+     *   are loaded with COPY
+     */
+    private ImportedChunks importStreaming(String agentId, String knowledgeId, MultipartFile file,
+                                           ChunkOrderAllocator orderAllocator) {
+        int batchSize = Math.max(1, importProperties.getEmbeddingBatchSize());
+        int nextOrder = orderAllocator != null ? -1 : chunkService.getNextChunkOrderForKnowledge(agentId, knowledgeId);
+        int count = 0;
+        String chunkingProfile = null;
+
+        // Closing the stream cancels the subscription, so a failed batch still releases the
+        // extractor's document and staged file
+        try (Stream<List<Document>> batches = documentChunker.streamDocumentChunks(file, null)
+                .buffer(batchSize)
+                .toStream(1)) {
+            Iterator<List<Document>> iterator = batches.iterator();
+            while (iterator.hasNext()) {
+                List<Document> batch = iterator.next();
+                int startOrder = orderAllocator != null ? orderAllocator.reserve(batch.size()) : nextOrder;
+
+                // Switch to COPY once the file has grown past the threshold
+                boolean useCopy = count + batch.size() > importProperties.getCopyThresholdChunks();
+                chunkService.addChunks(agentId, knowledgeId, batch, startOrder, useCopy);
+
+                nextOrder = startOrder + batch.size();
+                count += batch.size();
+                if (chunkingProfile == null) {
+                    chunkingProfile = extractChunkingProfile(batch);
+                }
+                log.debug("Stored streamed batch of {} chunks for knowledge: {}, orders {}-{}",
+                         batch.size(), knowledgeId, startOrder, nextOrder - 1);
+            }
+        }
+
+        if (count == 0) {
+            throw new BadRequestException("No processable content found in the document");
+        }
+
+        return new ImportedChunks(count, chunkingProfile);
+    }
+
+    /**
+     * Validates uploaded files before anything is persisted for them.
+     * Lets callers reject an upload before creating the knowledge source it would be imported into.
+     *
+     * @param files The uploaded files
+     * @throws BadRequestException if no files are given or any file fails validation
+     */
+    public void validateFiles(List<MultipartFile> files) {
+        if (files == null || files.isEmpty()) {
+            throw new BadRequestException("At least one file is required for import");
+        }
+        for (MultipartFile file : files) {
+            validateFile(file);
+            if (extractFileExtension(file.getOriginalFilename()).isEmpty()) {
+                throw new BadRequestException("File must have a valid extension");
+            }
+        }
+    }
+
     /**
      * Validates the import request parameters following OWASP security best practices.
      * Implements comprehensive input validation to prevent security vulnerabilities.
@@ -131,14 +351,21 @@ public class KnowledgeImportService {
             throw new BadRequestException("Knowledge ID cannot be null or empty");
         }
         
+        validateFile(file);
+    }
+
+    /**
+     * Validates a single uploaded file: presence, size, name and content type.
+     */
+    private void validateFile(MultipartFile file) {
         if (file == null || file.isEmpty()) {
             throw new BadRequestException("File cannot be null or empty");
         }
         
-        // File size validation - 10MB limit for security and performance
-        long maxFileSize = 10 * 1024 * 1024; // 10MB
-        if (file.getSize() > maxFileSize) {
-            throw new BadRequestException("File size exceeds maximum limit of 10MB");
+        // File size validation - configurable limit for security and performance
+        DataSize maxFileSize = importProperties.getMaxFileSize();
+        if (file.getSize() > maxFileSize.toBytes()) {
+            throw new BadRequestException("File size exceeds maximum limit of " + maxFileSize.toMegabytes() + "MB");
         }
         
         // Filename validation
@@ -199,4 +426,10 @@ public class KnowledgeImportService {
                 .getOrDefault("profile", "unknown")
                 .toString();
     }
+
+    /**
+     * Number of chunks stored for a document and the chunking profile that produced them.
+     */
+    private record ImportedChunks(int count, String chunkingProfile) {
+    }
 }
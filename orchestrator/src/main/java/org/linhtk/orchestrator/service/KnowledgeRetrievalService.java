@@ -0,0 +1,440 @@
+package org.linhtk.orchestrator.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.linhtk.common.exception.NotFoundException;
+import org.linhtk.orchestrator.config.RetrievalProperties;
+import org.linhtk.orchestrator.constant.ChatConfig;
+import org.linhtk.orchestrator.constant.RetrievalMode;
+import org.linhtk.orchestrator.constant.VectorQuantization;
+import org.linhtk.orchestrator.model.agent.Agent;
+import org.linhtk.orchestrator.repository.AgentRepository;
+import org.linhtk.orchestrator.retrieval.ChunkEmbeddingLoader;
+import org.linhtk.orchestrator.retrieval.ChunkSearchEngine;
+import org.linhtk.orchestrator.retrieval.ChunkSearchHit;
+import org.linhtk.orchestrator.retrieval.ChunkSearchQuery;
+import org.linhtk.orchestrator.retrieval.KnowledgeChunkDocumentRetriever;
+import org.linhtk.orchestrator.retrieval.MmrContextPostProcessor;
+import org.linhtk.orchestrator.retrieval.SimilarityCutoff;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.rag.Query;
+import org.springframework.ai.rag.postretrieval.document.DocumentPostProcessor;
+import org.springframework.ai.rag.retrieval.search.DocumentRetriever;
+import org.springframework.ai.rag.retrieval.search.VectorStoreDocumentRetriever;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.ai.vectorstore.filter.Filter;
+import org.springframework.ai.vectorstore.filter.FilterExpressionBuilder;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Entry point for semantic retrieval over agent knowledge.
+ * Hides whether searches run natively on knowledge_chunk or through the per-agent
+ * PgVectorStore tables, as selected by retrieval.engine.
+ *
+ * Design decisions:
+ * - Both engines apply the agent filter, and the knowledge filter when given, inside the
+ *   search itself rather than on the returned hits
+ * - The query text is embedded with the agent's own embedding model, so its dimension
+ *   always matches the stored chunk embeddings; repeated queries are served from the
+ *   query-embedding cache on both engines
+ * - Agents in HYBRID mode also run a full-text search on knowledge_chunk, in parallel with the
+ *   vector search, and the two lists are merged with reciprocal-rank fusion; chunk IDs are
+ *   shared by knowledge_chunk and the vector tables, so fusion works with either engine
+ * - Agents in IN_MEMORY mode are searched through their in-process HNSW index
+ *   ({@link InMemoryIndexService}), skipping the database round trip
+ * - Agents in EXACT mode are scanned exactly in memory ({@link ExactSearchService}) while their
+ *   corpus is below retrieval.exact.max-chunks, and searched like VECTOR agents above it
+ * - Native knowledge_chunk searches scan the agent's quantized index (agent.vector_quantization)
+ *   and re-rank the candidates at full precision; other paths ignore the quantization
+ * - The RAG retriever injects at most the agent's max K chunks and drops hits below its
+ *   minimum-similarity and relative-drop cut-offs; the number of chunks actually injected is
+ *   recorded as chat.rag.injected_chunks
+ * - The retrieval settings of an agent are cached and dropped with the agent's other caches
+ */
+@Service
+@Slf4j
+public class KnowledgeRetrievalService {
+
+    private static final String METRIC_INJECTED_CHUNKS = "chat.rag.injected_chunks";
+
+    private final RetrievalProperties retrievalProperties;
+    private final ChunkSearchEngine chunkSearchEngine;
+    private final QueryEmbeddingCacheService queryEmbeddingCacheService;
+    private final VectorStoreService vectorStoreService;
+    private final AgentRepository agentRepository;
+    private final InMemoryIndexService inMemoryIndexService;
+    private final ExactSearchService exactSearchService;
+    private final ChunkEmbeddingLoader chunkEmbeddingLoader;
+    private final DistributionSummary injectedChunks;
+
+    // Retrieval settings keyed by agent ID
+    private final Map<String, RetrievalSettings> retrievalSettings = new ConcurrentHashMap<>();
+
+    public KnowledgeRetrievalService(RetrievalProperties retrievalProperties,
+                                     ChunkSearchEngine chunkSearchEngine,
+                                     QueryEmbeddingCacheService queryEmbeddingCacheService,
+                                     VectorStoreService vectorStoreService,
+                                     AgentRepository agentRepository,
+                                     InMemoryIndexService inMemoryIndexService,
+                                     ExactSearchService exactSearchService,
+                                     ChunkEmbeddingLoader chunkEmbeddingLoader,
+                                     MeterRegistry meterRegistry) {
+        this.retrievalProperties = retrievalProperties;
+        this.chunkSearchEngine = chunkSearchEngine;
+        this.queryEmbeddingCacheService = queryEmbeddingCacheService;
+        this.vectorStoreService = vectorStoreService;
+        this.agentRepository = agentRepository;
+        this.inMemoryIndexService = inMemoryIndexService;
+        this.exactSearchService = exactSearchService;
+        this.chunkEmbeddingLoader = chunkEmbeddingLoader;
+        this.injectedChunks = DistributionSummary.builder(METRIC_INJECTED_CHUNKS)
+                .description("Knowledge chunks injected into a chat prompt")
+                .baseUnit("chunks")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return true if chunk vectors must also be written to the per-agent vector tables
+     */
+    public boolean usesVectorStore() {
+        return retrievalProperties.getEngine() == RetrievalProperties.Engine.VECTOR_STORE;
+    }
+
+    /**
+     * Creates the document retriever that supplies chat context for an agent.
+     * Hits failing the agent's similarity cut-offs are dropped; in HYBRID mode only vector hits
+     * are cut off, before fusion (see {@link #fuseHybrid}).
+     *
+     * @param agentId The agent identifier
+     * @param topK    Number of documents to retrieve per query
+     * @return Retriever scoped to the agent's knowledge
+     */
+    public DocumentRetriever documentRetriever(String agentId, int topK) {
+        SimilarityCutoff cutoff = retrievalSettings(agentId).cutoff();
+        if (usesVectorStore() && retrievalMode(agentId) == RetrievalMode.VECTOR) {
+            DocumentRetriever retriever = VectorStoreDocumentRetriever.builder()
+                    .vectorStore(vectorStoreService.vectorStore(agentId))
+                    .filterExpression(filter(agentId, List.of()))
+                    .topK(topK)
+                    .build();
+            return query -> cutoff.apply(retriever.retrieve(query),
+                    document -> document.getScore() != null ? document.getScore() : 0.0);
+        }
+        return new KnowledgeChunkDocumentRetriever(this, agentId, List.of(), topK, cutoff);
+    }
+
+    /**
+     * Returns the maximum number of chunks injected per chat turn for an agent.
+     *
+     * @param agentId The agent identifier
+     * @return The agent's max K, {@link ChatConfig#TOP_K} when none is set
+     * @throws NotFoundException if agent is not found
+     */
+    public int maxK(String agentId) {
+        return retrievalSettings(agentId).maxK();
+    }
+
+    /**
+     * Number of chunks a chat turn should retrieve so that
+     * {@link #contextPostProcessor(String, int)} has candidates to choose from.
+     *
+     * @param topK Maximum number of chunks injected into the prompt
+     * @return topK * retrieval.context.candidate-multiplier
+     */
+    public int contextCandidates(int topK) {
+        return topK * Math.max(1, retrievalProperties.getContext().getCandidateMultiplier());
+    }
+
+    /**
+     * @return Earlier user turns added to a follow-up question's retrieval query;
+     *         0 retrieves with the bare question (retrieval.context.history-query-turns)
+     */
+    public int historyQueryTurns() {
+        return Math.max(0, retrievalProperties.getContext().getHistoryQueryTurns());
+    }
+
+    /**
+     * Creates the post-processor that selects the injected context from the retrieved candidates:
+     * MMR re-ranking, merging of adjacent chunks and the token budget (retrieval.context.*).
+     *
+     * @param agentId The agent identifier
+     * @param topK    Maximum number of chunks injected into the prompt
+     * @return Post-processor for the agent's chat context
+     */
+    public DocumentPostProcessor contextPostProcessor(String agentId, int topK) {
+        DocumentPostProcessor selection = new MmrContextPostProcessor(chunkEmbeddingLoader,
+                retrievalProperties.getContext(),
+                retrievalSettings(agentId).dimension(),
+                topK);
+        return (query, documents) -> {
+            List<Document> context = selection.process(query, documents);
+            injectedChunks.record(context.stream().mapToInt(MmrContextPostProcessor::chunkCount).sum());
+            return context;
+        };
+    }
+
+    /**
+     * Creates the RAG query of a chat turn.
+     * When the agent's retriever embeds the question itself (native searches and the
+     * KnowledgeChunkDocumentRetriever), the question is embedded here once and carried in the
+     * query context under {@link KnowledgeChunkDocumentRetriever#CONTEXT_QUERY_EMBEDDING}, so the
+     * retriever and the context post-processor reuse it instead of embedding it again.
+     *
+     * @param agentId   The agent identifier
+     * @param question  The retrieval query text
+     * @param embedding Embedding of that text by the agent's model (cosine searches accept it
+     *                  normalized), or null to embed it here
+     * @return Query for {@link #documentRetriever(String, int)} and {@link #contextPostProcessor(String, int)}
+     */
+    public Query contextQuery(String agentId, String question, float[] embedding) {
+        if (usesVectorStore() && retrievalMode(agentId) == RetrievalMode.VECTOR) {
+            // PgVectorStore embeds the text itself and accepts no precomputed vector
+            return new Query(question);
+        }
+        return Query.builder()
+                .text(question)
+                .context(Map.of(KnowledgeChunkDocumentRetriever.CONTEXT_QUERY_EMBEDDING,
+                        embedding != null ? embedding : embed(agentId, question)))
+                .build();
+    }
+
+    /**
+     * Finds the chunks most similar to a query.
+     *
+     * @param agentId      The agent whose knowledge is searched
+     * @param knowledgeIds Knowledge sources to search within; empty searches all of them
+     * @param query        The search query text
+     * @param topK         Maximum number of hits
+     * @return Hits ordered by similarity, or by fused rank for agents in HYBRID mode; best first
+     */
+    public List<ChunkSearchHit> search(String agentId, List<String> knowledgeIds, String query, int topK) {
+        return search(agentId, knowledgeIds, query, null, topK);
+    }
+
+    /**
+     * Finds the chunks most similar to a query whose embedding may already be known.
+     *
+     * @param agentId      The agent whose knowledge is searched
+     * @param knowledgeIds Knowledge sources to search within; empty searches all of them
+     * @param query        The search query text
+     * @param embedding    Embedding of the query by the agent's model, or null to embed it on demand
+     * @param topK         Maximum number of hits
+     * @return Hits ordered by similarity, or by fused rank for agents in HYBRID mode; best first
+     */
+    public List<ChunkSearchHit> search(String agentId, List<String> knowledgeIds, String query, float[] embedding,
+                                       int topK) {
+        return search(agentId, knowledgeIds, query, embedding, topK, SimilarityCutoff.NONE);
+    }
+
+    /**
+     * Finds the chunks most similar to a query, dropping hits that fail a similarity cut-off.
+     * For agents in HYBRID mode the cut-off applies to the vector hits before fusion: full-text
+     * hits are kept for their lexical match, however weak their embedding similarity.
+     *
+     * @param agentId      The agent whose knowledge is searched
+     * @param knowledgeIds Knowledge sources to search within; empty searches all of them
+     * @param query        The search query text
+     * @param embedding    Embedding of the query by the agent's model, or null to embed it on demand
+     * @param topK         Maximum number of hits
+     * @param cutoff       Similarity cut-off applied to vector hits
+     * @return Hits ordered by similarity, or by fused rank for agents in HYBRID mode; best first
+     */
+    public List<ChunkSearchHit> search(String agentId, List<String> knowledgeIds, String query, float[] embedding,
+                                       int topK, SimilarityCutoff cutoff) {
+        RetrievalMode mode = retrievalMode(agentId);
+        if (mode == RetrievalMode.HYBRID) {
+            return searchHybrid(agentId, knowledgeIds, query, embedding, topK, cutoff);
+        }
+
+        List<ChunkSearchHit> hits = switch (mode) {
+            case IN_MEMORY -> inMemoryIndexService.search(embeddedQuery(agentId, knowledgeIds, query, embedding, topK));
+            case EXACT -> exactSearchService.search(embeddedQuery(agentId, knowledgeIds, query, embedding, topK))
+                    .orElseGet(() -> searchVector(agentId, knowledgeIds, query, embedding, topK));
+            default -> searchVector(agentId, knowledgeIds, query, embedding, topK);
+        };
+        return cutoff.apply(hits, ChunkSearchHit::similarity);
+    }
+
+    /**
+     * Returns the retrieval mode configured for an agent.
+     *
+     * @param agentId The agent identifier
+     * @return The agent's mode, VECTOR when none is set
+     * @throws NotFoundException if agent is not found
+     */
+    public RetrievalMode retrievalMode(String agentId) {
+        return retrievalSettings(agentId).mode();
+    }
+
+    /**
+     * Returns the vector quantization configured for an agent.
+     *
+     * @param agentId The agent identifier
+     * @return The agent's quantization, NONE when none is set
+     * @throws NotFoundException if agent is not found
+     */
+    public VectorQuantization vectorQuantization(String agentId) {
+        return retrievalSettings(agentId).quantization();
+    }
+
+    /**
+     * Drops cached retrieval settings when agent configuration changes.
+     *
+     * @param event Eviction published by {@link DynamicModelService}
+     */
+    @EventListener
+    public void onAgentCacheEvicted(AgentCacheEvictedEvent event) {
+        if (event.allAgents()) {
+            retrievalSettings.clear();
+        } else {
+            retrievalSettings.remove(event.agentId());
+        }
+    }
+
+    private RetrievalSettings retrievalSettings(String agentId) {
+        RetrievalSettings cached = retrievalSettings.get(agentId);
+        if (cached != null) {
+            return cached;
+        }
+        return retrievalSettings.computeIfAbsent(agentId, id -> {
+            Agent agent = agentRepository.findById(id)
+                    .orElseThrow(() -> new NotFoundException("Agent not found with ID: " + id));
+            return new RetrievalSettings(
+                    agent.getRetrievalMode() != null ? agent.getRetrievalMode() : RetrievalMode.VECTOR,
+                    agent.getVectorQuantization() != null ? agent.getVectorQuantization() : VectorQuantization.NONE,
+                    agent.getRetrievalMaxK() != null && agent.getRetrievalMaxK() > 0
+                            ? agent.getRetrievalMaxK() : ChatConfig.TOP_K,
+                    new SimilarityCutoff(
+                            agent.getRetrievalMinSimilarity() != null ? agent.getRetrievalMinSimilarity() : 0,
+                            agent.getRetrievalRelativeDrop() != null ? agent.getRetrievalRelativeDrop() : 0),
+                    agent.getDimension() != null ? agent.getDimension() : 0);
+        });
+    }
+
+    private List<ChunkSearchHit> searchVector(String agentId, List<String> knowledgeIds, String query,
+                                              float[] embedding, int topK) {
+        if (usesVectorStore()) {
+            return searchVectorStore(agentId, knowledgeIds, query, topK);
+        }
+
+        return chunkSearchEngine.search(embeddedQuery(agentId, knowledgeIds, query, embedding, topK));
+    }
+
+    private ChunkSearchQuery embeddedQuery(String agentId, List<String> knowledgeIds, String query,
+                                           float[] embedding, int topK) {
+        return new ChunkSearchQuery(agentId, knowledgeIds, embedding != null ? embedding : embed(agentId, query),
+                topK, vectorQuantization(agentId));
+    }
+
+    private float[] embed(String agentId, String query) {
+        return queryEmbeddingCacheService.queryEmbeddingModel(agentId).embed(query);
+    }
+
+    /**
+     * Runs the vector and full-text searches in parallel and fuses their rankings.
+     * The query is embedded at most once and shared by both legs.
+     */
+    private List<ChunkSearchHit> searchHybrid(String agentId, List<String> knowledgeIds, String query,
+                                              float[] queryEmbedding, int topK, SimilarityCutoff cutoff) {
+        RetrievalProperties.Hybrid hybrid = retrievalProperties.getHybrid();
+        int candidates = topK * Math.max(1, hybrid.getCandidateMultiplier());
+        float[] embedding = queryEmbedding != null ? queryEmbedding : embed(agentId, query);
+
+        List<ChunkSearchHit> vectorHits;
+        List<ChunkSearchHit> textHits;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            CompletableFuture<List<ChunkSearchHit>> textSearch = CompletableFuture.supplyAsync(() ->
+                    chunkSearchEngine.searchText(new ChunkSearchQuery(agentId, knowledgeIds, embedding, candidates), query),
+                    executor);
+            vectorHits = searchVector(agentId, knowledgeIds, query, embedding, candidates);
+            textHits = textSearch.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException runtimeException
+                    ? runtimeException
+                    : new RuntimeException("Full-text search failed: " + e.getCause().getMessage(), e.getCause());
+        }
+
+        List<ChunkSearchHit> fused = fuseHybrid(vectorHits, textHits, cutoff, hybrid.getRrfK(), topK);
+        log.debug("Hybrid search fused {} vector and {} text hits into {} for agent: {}",
+                vectorHits.size(), textHits.size(), fused.size(), agentId);
+        return fused;
+    }
+
+    /**
+     * Fuses hybrid rankings after applying the similarity cut-off to the vector hits only.
+     * Full-text hits report their chunk's cosine similarity, which says nothing about how well
+     * the terms matched, so cutting them off would drop exact identifier matches whose
+     * embedding happens to be far from the question's.
+     */
+    static List<ChunkSearchHit> fuseHybrid(List<ChunkSearchHit> vectorHits, List<ChunkSearchHit> textHits,
+                                           SimilarityCutoff cutoff, int k, int topK) {
+        return fuse(List.of(cutoff.apply(vectorHits, ChunkSearchHit::similarity), textHits), k, topK);
+    }
+
+    /**
+     * Reciprocal-rank fusion: each hit scores the sum of 1 / (k + rank) over the lists it
+     * appears in, so chunks ranked well by both searches rise to the top.
+     * The first occurrence of a chunk is kept, preferring the vector hit's metadata.
+     */
+    static List<ChunkSearchHit> fuse(List<List<ChunkSearchHit>> rankings, int k, int topK) {
+        Map<String, ChunkSearchHit> hits = new LinkedHashMap<>();
+        Map<String, Double> scores = new LinkedHashMap<>();
+        for (List<ChunkSearchHit> ranking : rankings) {
+            for (int rank = 0; rank < ranking.size(); rank++) {
+                ChunkSearchHit hit = ranking.get(rank);
+                hits.putIfAbsent(hit.id(), hit);
+                scores.merge(hit.id(), 1.0 / (k + rank + 1), Double::sum);
+            }
+        }
+
+        return scores.entrySet().stream()
+                .sorted(Map.Entry.<String, Double>comparingByValue(Comparator.reverseOrder()))
+                .limit(topK)
+                .map(entry -> hits.get(entry.getKey()))
+                .toList();
+    }
+
+    private List<ChunkSearchHit> searchVectorStore(String agentId, List<String> knowledgeIds, String query, int topK) {
+        List<Document> documents = vectorStoreService.vectorStore(agentId).similaritySearch(SearchRequest.builder()
+                .query(query)
+                .topK(topK)
+                .filterExpression(filter(agentId, knowledgeIds))
+                .build());
+
+        log.debug("Vector store returned {} documents for agent: {}", documents.size(), agentId);
+        return documents.stream()
+                .map(document -> new ChunkSearchHit(
+                        document.getId(),
+                        (String) document.getMetadata().get(VectorStoreService.METADATA_KNOWLEDGE_ID),
+                        null,
+                        document.getText(),
+                        document.getMetadata(),
+                        document.getScore() != null ? document.getScore() : 0.0))
+                .toList();
+    }
+
+    private record RetrievalSettings(RetrievalMode mode, VectorQuantization quantization,
+                                     int maxK, SimilarityCutoff cutoff, int dimension) {
+    }
+
+    private static Filter.Expression filter(String agentId, List<String> knowledgeIds) {
+        FilterExpressionBuilder b = new FilterExpressionBuilder();
+        FilterExpressionBuilder.Op agentFilter = b.eq(VectorStoreService.METADATA_AGENT_ID, agentId);
+        if (knowledgeIds == null || knowledgeIds.isEmpty()) {
+            return agentFilter.build();
+        }
+        return b.and(agentFilter, b.in(VectorStoreService.METADATA_KNOWLEDGE_ID, knowledgeIds.toArray())).build();
+    }
+}
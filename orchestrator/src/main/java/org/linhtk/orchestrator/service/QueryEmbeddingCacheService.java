@@ -0,0 +1,104 @@
+package org.linhtk.orchestrator.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.linhtk.common.exception.NotFoundException;
+import org.linhtk.orchestrator.config.QueryEmbeddingCacheProperties;
+import org.linhtk.orchestrator.model.agent.Agent;
+import org.linhtk.orchestrator.repository.AgentRepository;
+import org.linhtk.orchestrator.retrieval.CachingQueryEmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Provides the embedding models used to embed retrieval queries, backed by a bounded,
+ * time-limited cache of query embeddings.
+ *
+ * Design decisions:
+ * - One Caffeine cache (size and TTL bounded) is shared by all agents; entries are keyed by
+ *   provider, model and dimension plus the normalized query text
+ * - Hit and miss counts are published as "embedding.query.cache" cache metrics
+ * - The caching model of an agent is built once and dropped with the agent's other caches,
+ *   so a configuration change picks up the new model key
+ */
+@Service
+@Slf4j
+public class QueryEmbeddingCacheService {
+
+    private static final String METRIC_QUERY_CACHE = "embedding.query.cache";
+
+    private final DynamicModelService dynamicModelService;
+    private final AgentRepository agentRepository;
+    private final QueryEmbeddingCacheProperties properties;
+    private final Cache<String, float[]> cache;
+
+    // Caching models keyed by agent ID
+    private final Map<String, EmbeddingModel> queryModels = new ConcurrentHashMap<>();
+
+    public QueryEmbeddingCacheService(DynamicModelService dynamicModelService,
+                                      AgentRepository agentRepository,
+                                      QueryEmbeddingCacheProperties properties,
+                                      MeterRegistry meterRegistry) {
+        this.dynamicModelService = dynamicModelService;
+        this.agentRepository = agentRepository;
+        this.properties = properties;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxEntries())
+                .expireAfterWrite(properties.getTtl())
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, METRIC_QUERY_CACHE);
+    }
+
+    /**
+     * Returns the embedding model that retrieval should use to embed queries for an agent.
+     *
+     * @param agentId The agent identifier
+     * @return The agent's embedding model, wrapped in the query cache when it is enabled
+     * @throws NotFoundException if agent is not found
+     */
+    public EmbeddingModel queryEmbeddingModel(String agentId) {
+        if (!properties.isEnabled()) {
+            return dynamicModelService.getEmbeddingModel(agentId);
+        }
+
+        EmbeddingModel cached = queryModels.get(agentId);
+        if (cached != null) {
+            return cached;
+        }
+        return queryModels.computeIfAbsent(agentId, this::createQueryModel);
+    }
+
+    /**
+     * Drops caching models together with the agent models they wrap.
+     * Cached embeddings stay valid because their keys name the model that produced them.
+     *
+     * @param event Eviction published by {@link DynamicModelService}
+     */
+    @EventListener
+    public void onAgentCacheEvicted(AgentCacheEvictedEvent event) {
+        if (event.allAgents()) {
+            queryModels.clear();
+        } else {
+            queryModels.remove(event.agentId());
+        }
+    }
+
+    private EmbeddingModel createQueryModel(String agentId) {
+        Agent agent = agentRepository.findById(agentId)
+                .orElseThrow(() -> new NotFoundException("Agent not found with ID: " + agentId));
+        String modelKey = agent.getProviderName().toLowerCase() + ":" + agent.getProviderEmbeddingModelName()
+                + ":" + agent.getDimension();
+
+        log.debug("Created cached query embedding model for agent: {} ({})", agentId, modelKey);
+        return new CachingQueryEmbeddingModel(dynamicModelService.getEmbeddingModel(agentId), cache, modelKey);
+    }
+}
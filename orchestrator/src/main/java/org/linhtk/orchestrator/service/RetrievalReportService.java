@@ -0,0 +1,149 @@
+package org.linhtk.orchestrator.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.linhtk.common.exception.BadRequestException;
+import org.linhtk.common.exception.NotFoundException;
+import org.linhtk.orchestrator.config.hibernate.PgVectorCodec;
+import org.linhtk.orchestrator.constant.VectorQuantization;
+import org.linhtk.orchestrator.dto.RetrievalReportEntryDto;
+import org.linhtk.orchestrator.dto.RetrievalReportResponseDto;
+import org.linhtk.orchestrator.model.agent.Agent;
+import org.linhtk.orchestrator.repository.AgentRepository;
+import org.linhtk.orchestrator.retrieval.ChunkSearchEngine;
+import org.linhtk.orchestrator.retrieval.ChunkSearchHit;
+import org.linhtk.orchestrator.retrieval.ChunkSearchQuery;
+import org.linhtk.orchestrator.retrieval.PgKnowledgeChunkSearchEngine;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Measures what each vector quantization costs in recall and gains in latency on an agent's
+ * own knowledge, so operators can pick agent.vector_quantization with data.
+ *
+ * Implementation notes:
+ * - Sample queries are embeddings of randomly chosen chunks of the agent, so no embedding
+ *   provider is called; ground truth is an exact sequential scan of the same column
+ * - Each quantization is warmed up with one untimed query before its measured run
+ * - Recall@K is |returned ∩ exact| / |exact|, averaged over the sample queries
+ * - Quantized indexes only exist for agents that opted into them; other quantizations fall
+ *   back to a sequential first stage, which the latency figures then reflect
+ */
+@Service
+@Slf4j
+public class RetrievalReportService {
+
+    public static final int MAX_SAMPLES = 500;
+    public static final int MAX_TOP_K = 100;
+
+    private static final String SAMPLE_SQL = """
+            SELECT vector_send(%1$s)
+            FROM knowledge_chunk
+            WHERE agent_id = ? AND %1$s IS NOT NULL
+            ORDER BY random()
+            LIMIT ?
+            """;
+
+    private final AgentRepository agentRepository;
+    private final ChunkSearchEngine chunkSearchEngine;
+    private final JdbcTemplate jdbcTemplate;
+
+    public RetrievalReportService(AgentRepository agentRepository,
+                                  ChunkSearchEngine chunkSearchEngine,
+                                  JdbcTemplate jdbcTemplate) {
+        this.agentRepository = agentRepository;
+        this.chunkSearchEngine = chunkSearchEngine;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Runs the sample queries with every quantization and compares them with exact search.
+     *
+     * @param agentId The agent whose knowledge is searched
+     * @param samples Number of sample queries, clamped to 1..{@value #MAX_SAMPLES}
+     * @param topK    Hits per query, clamped to 1..{@value #MAX_TOP_K}
+     * @return Recall and latency per quantization
+     * @throws NotFoundException   if agent is not found
+     * @throws BadRequestException if the agent has no embedding dimension or no embedded chunks
+     */
+    public RetrievalReportResponseDto report(String agentId, int samples, int topK) {
+        Agent agent = agentRepository.findById(agentId)
+                .orElseThrow(() -> new NotFoundException("Agent not found with ID: " + agentId));
+        if (agent.getDimension() == null) {
+            throw new BadRequestException("Agent has no embedding dimension: " + agentId);
+        }
+        int sampleCount = Math.clamp(samples, 1, MAX_SAMPLES);
+        int k = Math.clamp(topK, 1, MAX_TOP_K);
+
+        String column = PgKnowledgeChunkSearchEngine.embeddingColumn(agent.getDimension());
+        List<float[]> queries = jdbcTemplate.query(SAMPLE_SQL.formatted(column),
+                (rs, rowNum) -> PgVectorCodec.decodeBinary(rs.getBytes(1)), agentId, sampleCount);
+        if (queries.isEmpty()) {
+            throw new BadRequestException("Agent has no embedded knowledge chunks: " + agentId);
+        }
+
+        List<Set<String>> exact = new ArrayList<>(queries.size());
+        for (float[] embedding : queries) {
+            exact.add(ids(chunkSearchEngine.searchExact(new ChunkSearchQuery(agentId, List.of(), embedding, k))));
+        }
+
+        List<RetrievalReportEntryDto> entries = new ArrayList<>();
+        for (VectorQuantization quantization : VectorQuantization.values()) {
+            // Agents that dropped the full-precision index have no rows a NONE search can see
+            if (quantization != VectorQuantization.NONE || KnowledgeChunkIndexService.fullPrecisionIndexed(agent)) {
+                entries.add(measure(agentId, quantization, queries, exact, k));
+            }
+        }
+
+        log.info("Retrieval report for agent: {} over {} queries at K={}", agentId, queries.size(), k);
+        return RetrievalReportResponseDto.builder()
+                .agentId(agentId)
+                .sampleQueries(queries.size())
+                .topK(k)
+                .entries(entries)
+                .build();
+    }
+
+    private RetrievalReportEntryDto measure(String agentId, VectorQuantization quantization,
+                                            List<float[]> queries, List<Set<String>> exact, int k) {
+        chunkSearchEngine.search(new ChunkSearchQuery(agentId, List.of(), queries.getFirst(), k, quantization));
+
+        long[] latencies = new long[queries.size()];
+        double recallSum = 0;
+        for (int i = 0; i < queries.size(); i++) {
+            ChunkSearchQuery query = new ChunkSearchQuery(agentId, List.of(), queries.get(i), k, quantization);
+            long start = System.nanoTime();
+            List<ChunkSearchHit> hits = chunkSearchEngine.search(query);
+            latencies[i] = System.nanoTime() - start;
+            recallSum += recall(ids(hits), exact.get(i));
+        }
+
+        Arrays.sort(latencies);
+        int p95 = Math.min(latencies.length - 1, (int) Math.ceil(latencies.length * 0.95) - 1);
+        return RetrievalReportEntryDto.builder()
+                .quantization(quantization)
+                .recall(recallSum / queries.size())
+                .meanLatencyMs(Arrays.stream(latencies).average().orElse(0) / 1_000_000.0)
+                .p95LatencyMs(latencies[p95] / 1_000_000.0)
+                .build();
+    }
+
+    private static double recall(Set<String> returned, Set<String> expected) {
+        if (expected.isEmpty()) {
+            return 1.0;
+        }
+        long found = expected.stream().filter(returned::contains).count();
+        return (double) found / expected.size();
+    }
+
+    private static Set<String> ids(List<ChunkSearchHit> hits) {
+        Set<String> ids = new HashSet<>();
+        hits.forEach(hit -> ids.add(hit.id()));
+        return ids;
+    }
+}
@@ -0,0 +1,243 @@
+package org.linhtk.orchestrator.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.linhtk.common.exception.NotFoundException;
+import org.linhtk.orchestrator.config.SemanticCacheProperties;
+import org.linhtk.orchestrator.model.agent.Agent;
+import org.linhtk.orchestrator.repository.AgentRepository;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Answers near-duplicate questions with a previously generated answer instead of calling
+ * the chat model. Opt-in per agent via Agent.semanticCacheEnabled.
+ *
+ * Design decisions:
+ * - Each agent has its own bounded, time-limited Caffeine cache of (question embedding,
+ *   knowledge version, answer)
+ * - A hit needs a question similar enough (cosine similarity at or above the agent's
+ *   threshold) answered against the agent's current knowledge version; the lookup costs one
+ *   query embedding and no retrieval, so paraphrases hit regardless of how their chunks rank
+ * - The knowledge version is a per-agent counter bumped by every KnowledgeChangedEvent; an
+ *   answer generated while the knowledge changed carries the old version and is not stored
+ * - Embeddings are normalized when stored, so similarity is a single dot product per entry
+ * - Entries of an agent are dropped when its configuration changes (AgentCacheEvictedEvent)
+ *   or its knowledge changes (KnowledgeChangedEvent)
+ * - Any failure while looking up is treated as a miss; the cache must never break a chat
+ */
+@Service
+@Slf4j
+public class SemanticAnswerCacheService {
+
+    private static final String METRIC_LOOKUPS = "chat.semantic_cache.lookups";
+
+    /**
+     * Splits an answer after each whitespace run, so replayed tokens keep their spacing.
+     */
+    private static final Pattern REPLAY_TOKENS = Pattern.compile("(?<=\\s)(?=\\S)");
+
+    private final AgentRepository agentRepository;
+    private final QueryEmbeddingCacheService queryEmbeddingCacheService;
+    private final SemanticCacheProperties properties;
+
+    private final Counter hits;
+    private final Counter misses;
+
+    // Answer caches keyed by agent ID
+    private final Map<String, AgentAnswerCache> agentCaches = new ConcurrentHashMap<>();
+
+    // Knowledge versions keyed by agent ID; absent until the agent's knowledge first changes
+    private final Map<String, AtomicLong> knowledgeVersions = new ConcurrentHashMap<>();
+
+    public SemanticAnswerCacheService(AgentRepository agentRepository,
+                                      QueryEmbeddingCacheService queryEmbeddingCacheService,
+                                      SemanticCacheProperties properties,
+                                      MeterRegistry meterRegistry) {
+        this.agentRepository = agentRepository;
+        this.queryEmbeddingCacheService = queryEmbeddingCacheService;
+        this.properties = properties;
+        this.hits = lookupCounter(meterRegistry, "hit");
+        this.misses = lookupCounter(meterRegistry, "miss");
+    }
+
+    /**
+     * Looks up a cached answer for a question.
+     *
+     * @param agentId  The agent being asked
+     * @param question The question text
+     * @return Lookup result to pass to {@link #store}, or null if the agent does not use the cache
+     */
+    public SemanticCacheLookup lookup(String agentId, String question) {
+        try {
+            AgentAnswerCache agentCache = agentCache(agentId);
+            if (!agentCache.enabled()) {
+                return null;
+            }
+
+            // Read before embedding, so a change during the lookup makes the answer unstorable
+            long version = knowledgeVersion(agentId);
+            float[] embedding = normalize(queryEmbeddingCacheService.queryEmbeddingModel(agentId).embed(question));
+
+            String answer = null;
+            double bestSimilarity = agentCache.threshold();
+            for (CachedAnswer cached : agentCache.answers().asMap().values()) {
+                if (cached.knowledgeVersion() != version) {
+                    continue;
+                }
+                double similarity = dot(cached.questionEmbedding(), embedding);
+                if (similarity >= bestSimilarity) {
+                    bestSimilarity = similarity;
+                    answer = cached.answer();
+                }
+            }
+
+            if (answer != null) {
+                hits.increment();
+                log.debug("Semantic cache hit for agent: {} (similarity {})", agentId, bestSimilarity);
+            } else {
+                misses.increment();
+            }
+            return new SemanticCacheLookup(agentId, embedding, version, answer);
+        } catch (Exception e) {
+            log.warn("Semantic cache lookup failed for agent: {}: {}", agentId, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Caches the answer generated after a miss.
+     *
+     * @param lookup The miss returned by {@link #lookup}
+     * @param answer The generated answer
+     */
+    public void store(SemanticCacheLookup lookup, String answer) {
+        if (lookup == null || lookup.hit() || answer == null || answer.isBlank()) {
+            return;
+        }
+
+        AgentAnswerCache agentCache = agentCaches.get(lookup.agentId());
+        if (agentCache == null || !agentCache.enabled()
+                || lookup.knowledgeVersion() != knowledgeVersion(lookup.agentId())) {
+            // Evicted or knowledge changed while the answer was generated; its context may be stale
+            return;
+        }
+
+        // Asking the same question again replaces the entry instead of adding a duplicate
+        String key = lookup.knowledgeVersion() + "|" + Arrays.hashCode(lookup.questionEmbedding());
+        agentCache.answers().put(key,
+                new CachedAnswer(lookup.questionEmbedding(), lookup.knowledgeVersion(), answer));
+        log.debug("Cached answer for agent: {} ({} entries)", lookup.agentId(), agentCache.answers().estimatedSize());
+    }
+
+    /**
+     * Replays a cached answer as a stream of tokens, like a streamed model response.
+     *
+     * @param answer The cached answer
+     * @return Answer split into whitespace-delimited tokens
+     */
+    public Flux<String> replay(String answer) {
+        return Flux.fromArray(REPLAY_TOKENS.split(answer));
+    }
+
+    /**
+     * Drops cached answers when an agent's configuration changes.
+     *
+     * @param event Eviction published by {@link DynamicModelService}
+     */
+    @EventListener
+    public void onAgentCacheEvicted(AgentCacheEvictedEvent event) {
+        if (event.allAgents()) {
+            agentCaches.clear();
+        } else {
+            agentCaches.remove(event.agentId());
+        }
+    }
+
+    /**
+     * Drops cached answers when an agent's knowledge changes.
+     *
+     * @param event Change published by the knowledge services
+     */
+    @EventListener
+    public void onKnowledgeChanged(KnowledgeChangedEvent event) {
+        knowledgeVersions.computeIfAbsent(event.agentId(), id -> new AtomicLong()).incrementAndGet();
+        if (agentCaches.remove(event.agentId()) != null) {
+            log.debug("Dropped semantic answer cache of agent: {} after knowledge change", event.agentId());
+        }
+    }
+
+    private AgentAnswerCache agentCache(String agentId) {
+        AgentAnswerCache cached = agentCaches.get(agentId);
+        if (cached != null) {
+            return cached;
+        }
+        return agentCaches.computeIfAbsent(agentId, this::createAgentCache);
+    }
+
+    private AgentAnswerCache createAgentCache(String agentId) {
+        Agent agent = agentRepository.findById(agentId)
+                .orElseThrow(() -> new NotFoundException("Agent not found with ID: " + agentId));
+        boolean enabled = Boolean.TRUE.equals(agent.getSemanticCacheEnabled());
+        double threshold = agent.getSemanticCacheThreshold() != null
+                ? agent.getSemanticCacheThreshold()
+                : properties.getSimilarityThreshold();
+
+        Cache<String, CachedAnswer> answers = Caffeine.newBuilder()
+                .maximumSize(enabled ? properties.getMaxEntriesPerAgent() : 0)
+                .expireAfterWrite(properties.getTtl())
+                .build();
+        return new AgentAnswerCache(enabled, threshold, answers);
+    }
+
+    private long knowledgeVersion(String agentId) {
+        AtomicLong version = knowledgeVersions.get(agentId);
+        return version != null ? version.get() : 0;
+    }
+
+    private static float[] normalize(float[] vector) {
+        double norm = Math.sqrt(dot(vector, vector));
+        float[] normalized = new float[vector.length];
+        if (norm == 0) {
+            return normalized;
+        }
+        for (int i = 0; i < vector.length; i++) {
+            normalized[i] = (float) (vector[i] / norm);
+        }
+        return normalized;
+    }
+
+    private static double dot(float[] a, float[] b) {
+        if (a.length != b.length) {
+            return 0;
+        }
+        double sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+
+    private static Counter lookupCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder(METRIC_LOOKUPS)
+                .description("Semantic answer cache lookups by outcome")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private record AgentAnswerCache(boolean enabled, double threshold, Cache<String, CachedAnswer> answers) {
+    }
+
+    private record CachedAnswer(float[] questionEmbedding, long knowledgeVersion, String answer) {
+    }
+}
@@ -0,0 +1,20 @@
+package org.linhtk.orchestrator.service;
+
+/**
+ * Outcome of a semantic answer cache lookup.
+ * A miss carries what is needed to store the answer once it has been generated.
+ *
+ * @param agentId            The agent that was asked
+ * @param questionEmbedding  Embedding of the question
+ * @param knowledgeVersion   Version of the agent's knowledge when the lookup was made
+ * @param answer             Cached answer, or null on a miss
+ */
+public record SemanticCacheLookup(String agentId, float[] questionEmbedding, long knowledgeVersion, String answer) {
+
+    /**
+     * @return true if a cached answer was found
+     */
+    public boolean hit() {
+        return answer != null;
+    }
+}
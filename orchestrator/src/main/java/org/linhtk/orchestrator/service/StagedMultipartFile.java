@@ -0,0 +1,125 @@
+package org.linhtk.orchestrator.service;
+
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * MultipartFile backed by a temporary file on disk.
+ * Servlet containers delete upload parts when the request completes, so uploads
+ * handed to an asynchronous import job are copied to disk first and re-exposed
+ * through this class to reuse the existing chunking pipeline unchanged.
+ */
+final class StagedMultipartFile implements MultipartFile {
+
+    private final Path path;
+    private final String name;
+    private final String originalFilename;
+    private final String contentType;
+    private final long size;
+
+    private StagedMultipartFile(Path path, String name, String originalFilename, String contentType, long size) {
+        this.path = path;
+        this.name = name;
+        this.originalFilename = originalFilename;
+        this.contentType = contentType;
+        this.size = size;
+    }
+
+    /**
+     * Prefix of staged file names
+     */
+    static final String FILE_PREFIX = "knowledge-import-";
+
+    /**
+     * Suffix of staged file names
+     */
+    static final String FILE_SUFFIX = ".upload";
+
+    /**
+     * Copies an uploaded file to a temporary file and returns a MultipartFile reading from it.
+     *
+     * @param upload    The uploaded file, only valid during the current request
+     * @param directory Staging directory, created if missing
+     * @return Staged copy that remains readable after the request completes
+     * @throws IOException if the upload cannot be copied to disk
+     */
+    static StagedMultipartFile stage(MultipartFile upload, Path directory) throws IOException {
+        Files.createDirectories(directory);
+        Path tempFile = Files.createTempFile(directory, FILE_PREFIX, FILE_SUFFIX);
+        try (InputStream inputStream = upload.getInputStream()) {
+            Files.copy(inputStream, tempFile, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            Files.deleteIfExists(tempFile);
+            throw e;
+        }
+        return new StagedMultipartFile(tempFile, upload.getName(), upload.getOriginalFilename(),
+                upload.getContentType(), upload.getSize());
+    }
+
+    /**
+     * @return Name of the backing file within the staging directory
+     */
+    String stagedName() {
+        return path.getFileName().toString();
+    }
+
+    /**
+     * Deletes the backing temporary file.
+     *
+     * @throws IOException if the file cannot be deleted
+     */
+    void delete() throws IOException {
+        Files.deleteIfExists(path);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String getOriginalFilename() {
+        return originalFilename;
+    }
+
+    @Override
+    public String getContentType() {
+        return contentType;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public long getSize() {
+        return size;
+    }
+
+    @Override
+    public byte[] getBytes() throws IOException {
+        return Files.readAllBytes(path);
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        return Files.newInputStream(path);
+    }
+
+    @Override
+    public void transferTo(File dest) throws IOException {
+        Files.copy(path, dest.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    @Override
+    public void transferTo(Path dest) throws IOException {
+        Files.copy(path, dest, StandardCopyOption.REPLACE_EXISTING);
+    }
+}
@@ -1,11 +1,34 @@
 package org.linhtk.orchestrator.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.ai.embedding.EmbeddingModel;
+import org.linhtk.common.exception.BadRequestException;
+import org.linhtk.orchestrator.config.KnowledgeImportProperties;
+import org.linhtk.orchestrator.config.hibernate.VectorType;
+import org.linhtk.orchestrator.model.agent.Agent;
+import org.linhtk.orchestrator.model.knowledge.KnowledgeChunk;
+import org.linhtk.orchestrator.repository.AgentRepository;
 import org.springframework.ai.vectorstore.VectorStore;
 import org.springframework.ai.vectorstore.pgvector.PgVectorStore;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 import static org.springframework.ai.vectorstore.pgvector.PgVectorStore.PgDistanceType.COSINE_DISTANCE;
 import static org.springframework.ai.vectorstore.pgvector.PgVectorStore.PgIndexType.HNSW;
@@ -13,37 +36,329 @@ import static org.springframework.ai.vectorstore.pgvector.PgVectorStore.PgIndexT
 /**
  * Service for creating PgVectorStore instances for agents.
  * Uses dynamic embedding models and dimension-based table naming.
+ *
+ * Design decisions:
+ * - Every agent has its own table vector_store_&lt;agent id without hyphens&gt; with its own HNSW
+ *   index, sized to the agent's embedding dimension; a nearest-neighbour search only walks
+ *   the graph of that agent's vectors, so its latency depends on the agent's corpus alone
+ *   and results can never come from another tenant
+ * - Stores are cached per agent, and the table and index DDL runs once when a store is
+ *   created rather than on every search, import and chat turn; the cache entry is dropped
+ *   whenever DynamicModelService discards the agent's models
+ * - The DDL runs in its own transaction, so a rolled-back import never leaves the cache
+ *   pointing at a table that does not exist
+ * - CREATE TABLE IF NOT EXISTS would keep a stale VECTOR(n) column, so the existing column's
+ *   dimension is checked first; when the agent's embedding dimension changed, using the store
+ *   fails until the table is reset explicitly ({@link #resetVectorTable(String)}) and the
+ *   knowledge re-imported, so vectors are never discarded as a side effect of a search
+ * - Tables of agents whose row no longer exists are dropped at startup; soft-deleted agents
+ *   keep their table so the delete can be undone
  */
 @Service
 @Slf4j
 public class VectorStoreService {
-    
-    private final DynamicModelService dynamicModelService;
+
+    /**
+     * Metadata keys written alongside every chunk so vector store rows can be traced back
+     * to the owning agent and knowledge source.
+     */
+    public static final String METADATA_AGENT_ID = "agentId";
+    public static final String METADATA_KNOWLEDGE_ID = "knowledgeId";
+
+    private static final String VECTOR_TABLE_PREFIX = "vector_store_";
+
+    /**
+     * PostgreSQL truncates identifiers longer than 63 bytes.
+     */
+    private static final int MAX_IDENTIFIER_LENGTH = 63;
+    private static final Pattern SAFE_IDENTIFIER = Pattern.compile("[a-z0-9_]+");
+
+    private static final String CREATE_TABLE_SQL = """
+            CREATE TABLE IF NOT EXISTS public.%s (
+                id        TEXT PRIMARY KEY,
+                content   TEXT,
+                metadata  JSONB,
+                embedding VECTOR(%d)
+            )
+            """;
+
+    private static final String CREATE_INDEX_SQL =
+            "CREATE INDEX IF NOT EXISTS %s ON public.%s USING hnsw (embedding vector_cosine_ops)";
+
+    private static final String UPSERT_SQL = """
+            INSERT INTO public.%s (id, content, metadata, embedding)
+            VALUES (?, ?, ?::jsonb, ?::vector)
+            ON CONFLICT (id) DO UPDATE
+            SET content = EXCLUDED.content, metadata = EXCLUDED.metadata, embedding = EXCLUDED.embedding
+            """;
+
+    private static final String DELETE_SQL = "DELETE FROM public.%s WHERE id = ?";
+
+    private static final String DROP_TABLE_SQL = "DROP TABLE IF EXISTS public.%s";
+
+    /**
+     * pgvector stores the declared dimension of a VECTOR(n) column as its type modifier.
+     */
+    private static final String EMBEDDING_DIMENSION_SQL = """
+            SELECT a.atttypmod
+            FROM pg_attribute a
+            WHERE a.attrelid = to_regclass(?) AND a.attname = 'embedding' AND NOT a.attisdropped
+            """;
+
+    private static final String VECTOR_TABLES_SQL = """
+            SELECT table_name
+            FROM information_schema.tables
+            WHERE table_schema = 'public' AND table_name LIKE 'vector\\_store\\_%'
+            """;
+
+    private final QueryEmbeddingCacheService queryEmbeddingCacheService;
     private final JdbcTemplate jdbcTemplate;
-    
-    public VectorStoreService(DynamicModelService dynamicModelService, JdbcTemplate jdbcTemplate) {
-        this.dynamicModelService = dynamicModelService;
+    private final ObjectMapper objectMapper;
+    private final KnowledgeImportProperties importProperties;
+    private final AgentRepository agentRepository;
+    private final TransactionTemplate ddlTransaction;
+
+    // Cache of initialized vector stores, keyed by agent ID
+    private final Map<String, VectorStore> vectorStoreCache = new ConcurrentHashMap<>();
+
+    public VectorStoreService(QueryEmbeddingCacheService queryEmbeddingCacheService,
+                              JdbcTemplate jdbcTemplate,
+                              ObjectMapper objectMapper,
+                              KnowledgeImportProperties importProperties,
+                              AgentRepository agentRepository,
+                              PlatformTransactionManager transactionManager) {
+        this.queryEmbeddingCacheService = queryEmbeddingCacheService;
         this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.importProperties = importProperties;
+        this.agentRepository = agentRepository;
+        this.ddlTransaction = new TransactionTemplate(transactionManager);
+        this.ddlTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
     }
-    
+
     /**
-     * Creates and returns a PgVectorStore instance for the specified agent.
-     * Uses the agent's embedding model to determine vector dimensions and table configuration.
-     * 
+     * Returns the PgVectorStore for the specified agent, creating its table on first use.
+     * Uses the agent's embedding model to determine vector dimensions.
+     *
      * @param agentId The unique identifier for the agent
-     * @return PgVectorStore configured for the agent's embedding model
+     * @return PgVectorStore over the agent's own vector table
      */
     public VectorStore vectorStore(String agentId) {
-        var embeddingModel = dynamicModelService.getEmbeddingModel(agentId);
+        VectorStore cached = vectorStoreCache.get(agentId);
+        if (cached != null) {
+            return cached;
+        }
+        return vectorStoreCache.computeIfAbsent(agentId, this::createVectorStore);
+    }
+
+    /**
+     * Returns the name of the agent's vector table, creating the table on first use.
+     *
+     * @param agentId The agent identifier
+     * @return Unqualified table name in the public schema
+     */
+    public String vectorTable(String agentId) {
+        vectorStore(agentId);
+        return vectorTableName(agentId);
+    }
+
+    /**
+     * Derives the vector table name of an agent.
+     *
+     * @param agentId The agent identifier
+     * @return vector_store_ followed by the lowercased agent ID without hyphens
+     * @throws IllegalArgumentException if the agent ID cannot form a safe identifier
+     */
+    public static String vectorTableName(String agentId) {
+        return identifier(VECTOR_TABLE_PREFIX, agentId, "_hnsw");
+    }
+
+    /**
+     * Builds a per-agent identifier such as a table or index name.
+     *
+     * @param prefix  Leading part, e.g. vector_store_
+     * @param agentId The agent identifier
+     * @param suffix  Longest suffix that will be appended to the result, reserved in the length check
+     * @return prefix followed by the lowercased agent ID without hyphens
+     * @throws IllegalArgumentException if the agent ID cannot form a safe identifier
+     */
+    static String identifier(String prefix, String agentId, String suffix) {
+        String agentPart = agentId.replace("-", "").toLowerCase(Locale.ROOT);
+        String identifier = prefix + agentPart;
+        if (!SAFE_IDENTIFIER.matcher(agentPart).matches()
+                || identifier.length() + suffix.length() > MAX_IDENTIFIER_LENGTH) {
+            throw new IllegalArgumentException("Agent ID cannot be used in an identifier: " + agentId);
+        }
+        return identifier;
+    }
+
+    /**
+     * @param agentId The agent identifier
+     * @return Name of the HNSW index on the agent's vector table
+     */
+    public static String vectorIndexName(String agentId) {
+        return vectorTableName(agentId) + "_hnsw";
+    }
+
+    /**
+     * Drops cached vector stores together with the agent models they were built from.
+     *
+     * @param event Eviction published by {@link DynamicModelService}
+     */
+    @EventListener
+    public void onAgentCacheEvicted(AgentCacheEvictedEvent event) {
+        if (event.allAgents()) {
+            vectorStoreCache.clear();
+            log.debug("Cleared all cached vector stores");
+        } else if (vectorStoreCache.remove(event.agentId()) != null) {
+            log.debug("Cleared cached vector store for agent: {}", event.agentId());
+        }
+    }
+
+    /**
+     * Drops the vector tables of agents whose row was removed from the agent table.
+     * Soft-deleted agents still have a row and keep their table.
+     * The legacy shared vector_store table does not match the per-agent prefix and is kept.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void dropOrphanedVectorTables() {
+        Set<String> knownTables = agentRepository.findAll().stream()
+                .map(Agent::getId)
+                .map(VectorStoreService::vectorTableName)
+                .collect(Collectors.toSet());
+
+        List<String> orphaned = jdbcTemplate.queryForList(VECTOR_TABLES_SQL, String.class).stream()
+                .filter(tableName -> !knownTables.contains(tableName))
+                .filter(tableName -> SAFE_IDENTIFIER.matcher(tableName).matches())
+                .toList();
+        if (orphaned.isEmpty()) {
+            return;
+        }
+
+        ddlTransaction.executeWithoutResult(status ->
+                orphaned.forEach(tableName -> jdbcTemplate.execute(String.format(DROP_TABLE_SQL, tableName))));
+        log.warn("Dropped {} vector tables of removed agents: {}", orphaned.size(), orphaned);
+    }
+
+    /**
+     * Drops the agent's vector table, discarding its vectors, so that it is recreated empty
+     * with the agent's current embedding dimension on next use. Needed after the embedding
+     * model changed dimension; the knowledge has to be re-imported afterwards.
+     *
+     * @param agentId The agent identifier
+     */
+    public void resetVectorTable(String agentId) {
+        String tableName = vectorTableName(agentId);
+        vectorStoreCache.remove(agentId);
+        ddlTransaction.executeWithoutResult(status -> jdbcTemplate.execute(String.format(DROP_TABLE_SQL, tableName)));
+        log.warn("Dropped vector table {} of agent {} on request", tableName, agentId);
+    }
+
+    private VectorStore createVectorStore(String agentId) {
+        var embeddingModel = queryEmbeddingCacheService.queryEmbeddingModel(agentId);
         var dimensions = embeddingModel.dimensions();
+        String tableName = vectorTableName(agentId);
 
-        return PgVectorStore.builder(jdbcTemplate, embeddingModel)
+        ddlTransaction.executeWithoutResult(status -> {
+            List<Integer> existing = jdbcTemplate.queryForList(EMBEDDING_DIMENSION_SQL, Integer.class, "public." + tableName);
+            if (!existing.isEmpty() && existing.getFirst() != dimensions) {
+                log.error("Embedding dimension of agent {} changed from {} to {}, but {} still holds {}-dimensional vectors",
+                        agentId, existing.getFirst(), dimensions, tableName, existing.getFirst());
+                throw new BadRequestException(String.format("Embedding dimension of agent %s changed from %d to %d; "
+                        + "reset its vector table (DELETE /api/agents/%s/vector-table) and re-import its knowledge",
+                        agentId, existing.getFirst(), dimensions, agentId));
+            }
+            jdbcTemplate.execute(String.format(CREATE_TABLE_SQL, tableName, dimensions));
+            jdbcTemplate.execute(String.format(CREATE_INDEX_SQL, vectorIndexName(agentId), tableName));
+        });
+
+        VectorStore vectorStore = PgVectorStore.builder(jdbcTemplate, embeddingModel)
                 .dimensions(dimensions)                    // Optional: defaults to model dimensions or 1536
                 .distanceType(COSINE_DISTANCE)       // Optional: defaults to COSINE_DISTANCE
                 .indexType(HNSW)                     // Optional: defaults to HNSW
-                .initializeSchema(true)              // Optional: defaults to false
+                .initializeSchema(false)             // Table and index are created above with a TEXT id
                 .schemaName("public")                // Optional: defaults to "public"
-                .vectorTableName("vector_store")     // Optional: defaults to "vector_store"
+                .vectorTableName(tableName)
                 .build();
+
+        log.info("Created vector store for agent: {} ({} dimensions, table {})", agentId, dimensions, tableName);
+        return vectorStore;
+    }
+
+    /**
+     * Writes already-embedded chunks to the vector tables of their agents.
+     * Bypasses {@link VectorStore#add(List)} because PgVectorStore always re-embeds the text,
+     * which would double provider cost for vectors that were just computed for knowledge_chunk.
+     *
+     * Implementation notes:
+     * - The chunk UUID is used as the vector store document id, so search hits map back with findById
+     * - Upserts so that re-writing an updated chunk replaces its previous vector
+     * - Rows are sent in JDBC batches of knowledge.import.persist-batch-size
+     * - Chunks without an embedding are skipped
+     *
+     * @param chunks Persisted chunks carrying their embeddings
+     */
+    public void writeChunks(List<KnowledgeChunk> chunks) {
+        Map<String, List<Object[]>> rowsByAgent = new LinkedHashMap<>();
+        for (KnowledgeChunk chunk : chunks) {
+            float[] embedding = chunk.getEmbedding1536() != null ? chunk.getEmbedding1536() : chunk.getEmbedding768();
+            if (embedding == null) {
+                log.debug("Skipping vector store write for chunk {} without embedding", chunk.getId());
+                continue;
+            }
+            rowsByAgent.computeIfAbsent(chunk.getAgentId(), k -> new ArrayList<>()).add(new Object[]{
+                    chunk.getId(),
+                    chunk.getContent(),
+                    toMetadataJson(chunk),
+                    VectorType.format(embedding)
+            });
+        }
+
+        int batchSize = Math.max(1, importProperties.getPersistBatchSize());
+        rowsByAgent.forEach((agentId, rows) -> {
+            String tableName = vectorTable(agentId);
+            jdbcTemplate.batchUpdate(String.format(UPSERT_SQL, tableName), rows, batchSize, (ps, row) -> {
+                for (int i = 0; i < row.length; i++) {
+                    ps.setObject(i + 1, row[i]);
+                }
+            });
+            log.debug("Wrote {} chunk vectors to {} in batches of {}", rows.size(), tableName, batchSize);
+        });
+    }
+
+    /**
+     * Removes the vector store rows of deleted chunks.
+     *
+     * @param agentId  The agent owning the chunks
+     * @param chunkIds IDs of the chunks whose vectors should be removed
+     */
+    public void deleteChunks(String agentId, List<String> chunkIds) {
+        if (chunkIds.isEmpty()) {
+            return;
+        }
+
+        String tableName = vectorTable(agentId);
+        jdbcTemplate.batchUpdate(String.format(DELETE_SQL, tableName),
+                chunkIds.stream().map(id -> new Object[]{id}).toList());
+        log.debug("Deleted {} chunk vectors from {}", chunkIds.size(), tableName);
+    }
+
+    /**
+     * Serializes chunk metadata for the vector store row, adding ownership keys.
+     * Package-private so the COPY loader writes identical metadata.
+     */
+    String toMetadataJson(KnowledgeChunk chunk) {
+        Map<String, Object> metadata = new HashMap<>();
+        if (chunk.getMetadata() != null) {
+            metadata.putAll(chunk.getMetadata());
+        }
+        metadata.put(METADATA_AGENT_ID, chunk.getAgentId());
+        metadata.put(METADATA_KNOWLEDGE_ID, chunk.getAgentKnowledgeId());
+
+        try {
+            return objectMapper.writeValueAsString(metadata);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize metadata for chunk " + chunk.getId(), e);
+        }
     }
-}
\ No newline at end of file
+}
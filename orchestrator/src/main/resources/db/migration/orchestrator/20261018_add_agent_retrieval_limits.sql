@@ -0,0 +1,11 @@
+-- ====================================================================
+-- TABLE: agent
+-- Purpose: Per-agent limits on the knowledge chunks injected into chat prompts
+-- ====================================================================
+ALTER TABLE agent ADD COLUMN IF NOT EXISTS retrieval_max_k INTEGER;
+ALTER TABLE agent ADD COLUMN IF NOT EXISTS retrieval_min_similarity DOUBLE PRECISION;
+ALTER TABLE agent ADD COLUMN IF NOT EXISTS retrieval_relative_drop DOUBLE PRECISION;
+
+COMMENT ON COLUMN agent.retrieval_max_k IS 'Maximum chunks injected per chat turn; null uses the global default of 5';
+COMMENT ON COLUMN agent.retrieval_min_similarity IS 'Chunks below this cosine similarity are not injected; null disables the cut-off';
+COMMENT ON COLUMN agent.retrieval_relative_drop IS 'Chunks scoring below best * (1 - drop) are not injected; null disables the cut-off';
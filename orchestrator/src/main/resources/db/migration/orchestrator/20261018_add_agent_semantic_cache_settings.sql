@@ -0,0 +1,9 @@
+-- ====================================================================
+-- TABLE: agent
+-- Purpose: Per-agent opt-in for the semantic answer cache
+-- ====================================================================
+ALTER TABLE agent ADD COLUMN IF NOT EXISTS semantic_cache_enabled BOOLEAN;
+ALTER TABLE agent ADD COLUMN IF NOT EXISTS semantic_cache_threshold DOUBLE PRECISION;
+
+COMMENT ON COLUMN agent.semantic_cache_enabled IS 'Serve cached answers to near-duplicate first questions; null means disabled';
+COMMENT ON COLUMN agent.semantic_cache_threshold IS 'Minimum cosine similarity between questions for a cache hit; null uses chat.semantic-cache.similarity-threshold';
@@ -0,0 +1,20 @@
+-- ====================================================================
+-- TABLE: knowledge_chunk
+-- Purpose: Full-text search column for hybrid (lexical + vector) retrieval
+-- ====================================================================
+-- The 'simple' configuration neither stems nor drops stop words, so identifiers such as
+-- SKUs and error codes are indexed exactly as written, in any language
+ALTER TABLE knowledge_chunk ADD COLUMN IF NOT EXISTS content_tsv tsvector
+    GENERATED ALWAYS AS (to_tsvector('simple', content)) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_knowledge_chunk_content_tsv ON knowledge_chunk USING gin(content_tsv);
+
+COMMENT ON COLUMN knowledge_chunk.content_tsv IS 'Generated full-text vector of content (simple configuration)';
+
+-- ====================================================================
+-- TABLE: agent
+-- Purpose: Per-agent retrieval mode
+-- ====================================================================
+ALTER TABLE agent ADD COLUMN IF NOT EXISTS retrieval_mode VARCHAR(20);
+
+COMMENT ON COLUMN agent.retrieval_mode IS 'VECTOR or HYBRID; null means VECTOR';
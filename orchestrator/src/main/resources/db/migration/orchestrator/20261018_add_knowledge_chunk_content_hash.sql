@@ -0,0 +1,7 @@
+-- ====================================================================
+-- TABLE: knowledge_chunk
+-- Purpose: Content hash used by incremental (sync) re-imports
+-- ====================================================================
+ALTER TABLE knowledge_chunk ADD COLUMN IF NOT EXISTS content_hash VARCHAR(64);
+
+COMMENT ON COLUMN knowledge_chunk.content_hash IS 'Hex SHA-256 of the normalized content, null for chunks stored before sync support';
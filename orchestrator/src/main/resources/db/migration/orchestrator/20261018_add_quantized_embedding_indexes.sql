@@ -0,0 +1,30 @@
+-- ====================================================================
+-- TABLE: knowledge_chunk
+-- Purpose: Compact HNSW expression indexes for quantized first-stage search
+-- ====================================================================
+-- Requires pgvector 0.7+. Queries must use the same expressions to match these indexes:
+--   embedding_N::halfvec(N) <=> ?::halfvec(N)
+--   binary_quantize(embedding_N)::bit(N) <~> binary_quantize(?::vector)
+CREATE INDEX IF NOT EXISTS idx_knowledge_chunk_embedding_768_halfvec_hnsw
+    ON knowledge_chunk USING hnsw ((embedding_768::halfvec(768)) halfvec_cosine_ops)
+    WHERE embedding_768 IS NOT NULL;
+
+CREATE INDEX IF NOT EXISTS idx_knowledge_chunk_embedding_1536_halfvec_hnsw
+    ON knowledge_chunk USING hnsw ((embedding_1536::halfvec(1536)) halfvec_cosine_ops)
+    WHERE embedding_1536 IS NOT NULL;
+
+CREATE INDEX IF NOT EXISTS idx_knowledge_chunk_embedding_768_bit_hnsw
+    ON knowledge_chunk USING hnsw ((binary_quantize(embedding_768)::bit(768)) bit_hamming_ops)
+    WHERE embedding_768 IS NOT NULL;
+
+CREATE INDEX IF NOT EXISTS idx_knowledge_chunk_embedding_1536_bit_hnsw
+    ON knowledge_chunk USING hnsw ((binary_quantize(embedding_1536)::bit(1536)) bit_hamming_ops)
+    WHERE embedding_1536 IS NOT NULL;
+
+-- ====================================================================
+-- TABLE: agent
+-- Purpose: Per-agent quantization of the first search stage
+-- ====================================================================
+ALTER TABLE agent ADD COLUMN IF NOT EXISTS vector_quantization VARCHAR(20);
+
+COMMENT ON COLUMN agent.vector_quantization IS 'NONE, HALF or BINARY; null means NONE';
@@ -0,0 +1,19 @@
+-- ====================================================================
+-- TABLE: embedding_cache
+-- Purpose: Persistent tier of the embedding cache, keyed by model and text hash
+-- ====================================================================
+CREATE EXTENSION IF NOT EXISTS vector;
+
+CREATE TABLE IF NOT EXISTS embedding_cache (
+    model                   VARCHAR(150) NOT NULL,
+    dimension               INTEGER NOT NULL,
+    content_hash            VARCHAR(64) NOT NULL,
+    embedding               VECTOR NOT NULL,
+    created_at              TIMESTAMPTZ NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (model, dimension, content_hash)
+);
+
+COMMENT ON TABLE embedding_cache IS 'Embeddings reused across imports for identical chunk text';
+COMMENT ON COLUMN embedding_cache.model IS 'Provider and embedding model name, e.g. openai:text-embedding-3-small';
+COMMENT ON COLUMN embedding_cache.content_hash IS 'Hex SHA-256 of the normalized chunk text';
+COMMENT ON COLUMN embedding_cache.embedding IS 'Unconstrained vector so one table serves every dimension';
@@ -0,0 +1,33 @@
+-- ====================================================================
+-- TABLE: knowledge_import_job
+-- Purpose: Track asynchronous knowledge import jobs and per-file progress
+-- ====================================================================
+CREATE TABLE IF NOT EXISTS knowledge_import_job (
+    id                      VARCHAR(64) PRIMARY KEY DEFAULT gen_random_uuid(),
+    agent_id                VARCHAR(50) NOT NULL,
+    agent_knowledge_id      VARCHAR(50) NOT NULL,
+    status                  VARCHAR(30) NOT NULL,
+    total_files             INTEGER NOT NULL DEFAULT 0,
+    processed_files         INTEGER NOT NULL DEFAULT 0,
+    total_chunks            INTEGER NOT NULL DEFAULT 0,
+    files                   JSONB NOT NULL DEFAULT '[]'::jsonb,
+    error_message           TEXT,
+    started_at              TIMESTAMPTZ,
+    completed_at            TIMESTAMPTZ,
+    deleted                 BOOLEAN NOT NULL DEFAULT FALSE,
+    created_at              TIMESTAMPTZ NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    created_by              VARCHAR(50),
+    updated_at              TIMESTAMPTZ,
+    updated_by              VARCHAR(50)
+);
+
+-- Indexes for knowledge_import_job table
+CREATE INDEX IF NOT EXISTS idx_knowledge_import_job_agent_id ON knowledge_import_job(agent_id);
+CREATE INDEX IF NOT EXISTS idx_knowledge_import_job_knowledge_id ON knowledge_import_job(agent_knowledge_id);
+CREATE INDEX IF NOT EXISTS idx_knowledge_import_job_status ON knowledge_import_job(status)
+    WHERE status IN ('PENDING', 'RUNNING');
+
+COMMENT ON TABLE knowledge_import_job IS 'Asynchronous knowledge import jobs';
+COMMENT ON COLUMN knowledge_import_job.agent_knowledge_id IS 'Knowledge source receiving the imported chunks (no FK)';
+COMMENT ON COLUMN knowledge_import_job.status IS 'PENDING, RUNNING, COMPLETED, PARTIALLY_COMPLETED or FAILED';
+COMMENT ON COLUMN knowledge_import_job.files IS 'Per-file progress, chunk counts and errors';
@@ -0,0 +1,6 @@
+-- ====================================================================
+-- TABLE: agent
+-- Purpose: Document the retrieval modes added after HYBRID
+-- ====================================================================
+-- Named to sort after 20261018_add_hybrid_retrieval.sql, which creates the column
+COMMENT ON COLUMN agent.retrieval_mode IS 'VECTOR, HYBRID, IN_MEMORY or EXACT; null means VECTOR';
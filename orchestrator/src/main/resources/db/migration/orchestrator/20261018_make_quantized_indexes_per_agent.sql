@@ -0,0 +1,62 @@
+-- ====================================================================
+-- TABLE: knowledge_chunk
+-- Purpose: Replace the global quantized HNSW indexes with per-agent opt-in ones
+-- ====================================================================
+-- The global halfvec and bit indexes were built over every agent's rows, although only agents
+-- with a vector_quantization use them. KnowledgeChunkIndexService now creates partial indexes
+-- (WHERE agent_id = '<id>') for exactly the agents that opted in, named
+-- knowledge_chunk_<agent id without hyphens>_halfvec / _bit.
+DROP INDEX IF EXISTS idx_knowledge_chunk_embedding_768_halfvec_hnsw;
+DROP INDEX IF EXISTS idx_knowledge_chunk_embedding_1536_halfvec_hnsw;
+DROP INDEX IF EXISTS idx_knowledge_chunk_embedding_768_bit_hnsw;
+DROP INDEX IF EXISTS idx_knowledge_chunk_embedding_1536_bit_hnsw;
+
+-- ====================================================================
+-- TABLE: agent
+-- Purpose: Let quantized agents skip the full-precision HNSW index
+-- ====================================================================
+ALTER TABLE agent ADD COLUMN IF NOT EXISTS full_precision_index BOOLEAN;
+
+COMMENT ON COLUMN agent.full_precision_index IS
+    'false keeps the agent''s chunks out of the float32 HNSW index; only honoured with HALF or BINARY quantization; null means true';
+
+-- ====================================================================
+-- TABLE: knowledge_chunk
+-- Purpose: Full-precision HNSW indexes restricted to agents that keep them
+-- ====================================================================
+-- Set on insert by the trigger below and rewritten by KnowledgeChunkIndexService when the
+-- agent's settings change, so every insert path (JPA, batch, COPY) stays consistent
+ALTER TABLE knowledge_chunk ADD COLUMN IF NOT EXISTS full_precision_indexed BOOLEAN NOT NULL DEFAULT TRUE;
+
+COMMENT ON COLUMN knowledge_chunk.full_precision_indexed IS
+    'Whether the row belongs in the float32 HNSW index; derived from the owning agent';
+
+CREATE OR REPLACE FUNCTION knowledge_chunk_full_precision_indexed() RETURNS trigger AS $$
+BEGIN
+    NEW.full_precision_indexed := NOT EXISTS (
+        SELECT 1
+        FROM agent a
+        WHERE a.id = NEW.agent_id
+          AND a.vector_quantization IN ('HALF', 'BINARY')
+          AND a.full_precision_index = FALSE);
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_knowledge_chunk_full_precision_indexed ON knowledge_chunk;
+CREATE TRIGGER trg_knowledge_chunk_full_precision_indexed
+    BEFORE INSERT ON knowledge_chunk
+    FOR EACH ROW EXECUTE FUNCTION knowledge_chunk_full_precision_indexed();
+
+-- Rebuilds the float32 indexes once; queries must repeat "full_precision_indexed" to match them.
+-- Run during a maintenance window on large tables: the build blocks writes to knowledge_chunk.
+CREATE INDEX IF NOT EXISTS idx_knowledge_chunk_embedding_768_full_hnsw
+    ON knowledge_chunk USING hnsw (embedding_768 vector_cosine_ops)
+    WHERE embedding_768 IS NOT NULL AND full_precision_indexed;
+
+CREATE INDEX IF NOT EXISTS idx_knowledge_chunk_embedding_1536_full_hnsw
+    ON knowledge_chunk USING hnsw (embedding_1536 vector_cosine_ops)
+    WHERE embedding_1536 IS NOT NULL AND full_precision_indexed;
+
+DROP INDEX IF EXISTS idx_knowledge_chunk_embedding_768_hnsw;
+DROP INDEX IF EXISTS idx_knowledge_chunk_embedding_1536_hnsw;
@@ -0,0 +1,46 @@
+-- ====================================================================
+-- MIGRATION: vector_store -> vector_store_<agent id without hyphens>
+-- Purpose: Give every agent its own vector table and HNSW index, so a
+--          nearest-neighbour search only walks that agent's vectors
+-- ====================================================================
+-- Table and index layout match VectorStoreService; tables of agents without
+-- existing rows are created by the application on first use.
+DO $$
+DECLARE
+    agent RECORD;
+    table_name TEXT;
+BEGIN
+    IF to_regclass('public.vector_store') IS NULL THEN
+        RETURN;
+    END IF;
+
+    FOR agent IN
+        SELECT metadata ->> 'agentId' AS agent_id, MAX(vector_dims(embedding)) AS dimensions
+        FROM public.vector_store
+        WHERE metadata ->> 'agentId' IS NOT NULL AND embedding IS NOT NULL
+        GROUP BY metadata ->> 'agentId'
+    LOOP
+        table_name := 'vector_store_' || lower(replace(agent.agent_id, '-', ''));
+
+        EXECUTE format(
+            'CREATE TABLE IF NOT EXISTS public.%I (
+                 id        TEXT PRIMARY KEY,
+                 content   TEXT,
+                 metadata  JSONB,
+                 embedding VECTOR(%s)
+             )', table_name, agent.dimensions);
+
+        EXECUTE format(
+            'INSERT INTO public.%I (id, content, metadata, embedding)
+             SELECT id, content, metadata, embedding
+             FROM public.vector_store
+             WHERE metadata ->> ''agentId'' = %L
+             ON CONFLICT (id) DO NOTHING', table_name, agent.agent_id);
+
+        EXECUTE format(
+            'CREATE INDEX IF NOT EXISTS %I ON public.%I USING hnsw (embedding vector_cosine_ops)',
+            table_name || '_hnsw', table_name);
+    END LOOP;
+END $$;
+
+COMMENT ON TABLE vector_store IS 'Deprecated: superseded by per-agent vector_store_<agent id> tables';
@@ -0,0 +1,14 @@
+-- ====================================================================
+-- TABLE: knowledge_import_job
+-- Purpose: Record which instance runs a job and when it last reported
+-- ====================================================================
+-- Jobs run in the worker pool of one instance; other instances only fail a PENDING or
+-- RUNNING job once its owner stopped refreshing heartbeat_at
+ALTER TABLE knowledge_import_job ADD COLUMN IF NOT EXISTS owner_instance VARCHAR(100);
+ALTER TABLE knowledge_import_job ADD COLUMN IF NOT EXISTS heartbeat_at TIMESTAMPTZ DEFAULT CURRENT_TIMESTAMP;
+
+CREATE INDEX IF NOT EXISTS idx_knowledge_import_job_owner ON knowledge_import_job(owner_instance)
+    WHERE status IN ('PENDING', 'RUNNING');
+
+COMMENT ON COLUMN knowledge_import_job.owner_instance IS 'knowledge.import.instance-id of the instance running the job';
+COMMENT ON COLUMN knowledge_import_job.heartbeat_at IS 'Refreshed by the owner while the job is PENDING or RUNNING';
@@ -0,0 +1,87 @@
+package org.linhtk.orchestrator.retrieval;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class ExactChunkIndexTest {
+
+    private static final int DIMENSION = 16;
+
+    @Test
+    void searchReturnsTheExactTopKMostSimilarFirst() {
+        Random random = new Random(5);
+        List<float[]> embeddings = IntStream.range(0, 500).mapToObj(i -> randomVector(random)).toList();
+        ExactChunkIndex index = new ExactChunkIndex(DIMENSION, 10, false);
+        for (int i = 0; i < embeddings.size(); i++) {
+            index.add(chunk("c" + i, "k1"), embeddings.get(i));
+        }
+        float[] query = randomVector(random);
+
+        List<ChunkSearchHit> hits = index.search(new ChunkSearchQuery("agent", List.of(), query, 10));
+
+        List<String> expected = IntStream.range(0, embeddings.size()).boxed()
+                .sorted(Comparator.comparingDouble((Integer i) -> cosine(embeddings.get(i), query)).reversed())
+                .limit(10)
+                .map(i -> "c" + i)
+                .toList();
+        assertThat(hits).extracting(ChunkSearchHit::id).containsExactlyElementsOf(expected);
+        assertThat(hits).isSortedAccordingTo(Comparator.comparingDouble(ChunkSearchHit::similarity).reversed());
+    }
+
+    @Test
+    void searchReturnsEveryChunkWhenTopKExceedsSize() {
+        ExactChunkIndex index = new ExactChunkIndex(2, 1, false);
+        index.add(chunk("a", "k1"), new float[]{1, 0});
+        index.add(chunk("b", "k1"), new float[]{0, 1});
+        index.add(chunk("c", "k1"), new float[]{1, 1});
+
+        List<ChunkSearchHit> hits = index.search(new ChunkSearchQuery("agent", List.of(), new float[]{1, 0}, 10));
+
+        assertThat(hits).extracting(ChunkSearchHit::id).containsExactly("a", "c", "b");
+        assertThat(hits.getFirst().similarity()).isCloseTo(1.0, within(1e-6));
+    }
+
+    @Test
+    void searchOnlyReturnsChunksOfTheRequestedKnowledge() {
+        ExactChunkIndex index = new ExactChunkIndex(2, 4, false);
+        index.add(chunk("a", "k1"), new float[]{1, 0});
+        index.add(chunk("b", "k2"), new float[]{1, 0.1f});
+        index.add(chunk("c", "k2"), new float[]{0, 1});
+
+        List<ChunkSearchHit> hits = index.search(new ChunkSearchQuery("agent", List.of("k2"), new float[]{1, 0}, 5));
+
+        assertThat(hits).extracting(ChunkSearchHit::id).containsExactly("b", "c");
+    }
+
+    private static ChunkSearchHit chunk(String id, String knowledgeId) {
+        return new ChunkSearchHit(id, knowledgeId, 0, "content " + id, Map.of(), 0);
+    }
+
+    private static float[] randomVector(Random random) {
+        float[] vector = new float[DIMENSION];
+        for (int i = 0; i < DIMENSION; i++) {
+            vector[i] = (float) random.nextGaussian();
+        }
+        return vector;
+    }
+
+    private static double cosine(float[] a, float[] b) {
+        double dot = 0;
+        double normA = 0;
+        double normB = 0;
+        for (int i = 0; i < a.length; i++) {
+            dot += a[i] * b[i];
+            normA += a[i] * a[i];
+            normB += b[i] * b[i];
+        }
+        return dot / Math.sqrt(normA * normB);
+    }
+}
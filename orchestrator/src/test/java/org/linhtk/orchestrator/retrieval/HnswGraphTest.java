@@ -0,0 +1,117 @@
+package org.linhtk.orchestrator.retrieval;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HnswGraphTest {
+
+    private static final int DIMENSION = 32;
+
+    @Test
+    void searchRecallsMostOfTheExactNeighbours() {
+        Random random = new Random(42);
+        List<float[]> vectors = IntStream.range(0, 2_000).mapToObj(i -> randomUnitVector(random)).toList();
+        HnswGraph graph = new HnswGraph(DIMENSION, 16, 100, 64);
+        vectors.forEach(graph::insert);
+
+        int k = 10;
+        int found = 0;
+        int queries = 50;
+        for (int q = 0; q < queries; q++) {
+            float[] query = randomUnitVector(random);
+            Set<Integer> exact = bruteForce(vectors, query, k);
+            Set<Integer> approximate = graph.search(query, k, 100, null).stream()
+                    .map(HnswGraph.Neighbor::node)
+                    .collect(Collectors.toSet());
+            approximate.retainAll(exact);
+            found += approximate.size();
+        }
+
+        double recall = (double) found / (queries * k);
+        assertThat(recall).isGreaterThanOrEqualTo(0.9);
+    }
+
+    @Test
+    void searchReturnsResultsMostSimilarFirst() {
+        Random random = new Random(7);
+        HnswGraph graph = new HnswGraph(DIMENSION, 8, 50, 16);
+        for (int i = 0; i < 300; i++) {
+            graph.insert(randomUnitVector(random));
+        }
+
+        List<HnswGraph.Neighbor> results = graph.search(randomUnitVector(random), 20, 40, null);
+
+        assertThat(results).hasSize(20);
+        assertThat(results).isSortedAccordingTo(
+                Comparator.comparingDouble(HnswGraph.Neighbor::similarity).reversed());
+    }
+
+    @Test
+    void searchOnlyReturnsAcceptedNodes() {
+        Random random = new Random(3);
+        HnswGraph graph = new HnswGraph(DIMENSION, 8, 50, 16);
+        for (int i = 0; i < 300; i++) {
+            graph.insert(randomUnitVector(random));
+        }
+
+        List<HnswGraph.Neighbor> results = graph.search(randomUnitVector(random), 10, 50, node -> node % 2 == 0);
+
+        assertThat(results).isNotEmpty().allMatch(neighbor -> neighbor.node() % 2 == 0);
+    }
+
+    @Test
+    void searchOnEmptyGraphReturnsNothing() {
+        HnswGraph graph = new HnswGraph(DIMENSION, 8, 50, 16);
+
+        assertThat(graph.search(randomUnitVector(new Random(1)), 5, 10, null)).isEmpty();
+    }
+
+    @Test
+    void insertFindsItsOwnVector() {
+        Random random = new Random(11);
+        HnswGraph graph = new HnswGraph(DIMENSION, 8, 50, 16);
+        List<float[]> vectors = IntStream.range(0, 200).mapToObj(i -> randomUnitVector(random)).toList();
+        vectors.forEach(graph::insert);
+
+        assertThat(graph.search(vectors.get(123), 1, 32, null))
+                .extracting(HnswGraph.Neighbor::node)
+                .containsExactly(123);
+    }
+
+    private static Set<Integer> bruteForce(List<float[]> vectors, float[] query, int k) {
+        return IntStream.range(0, vectors.size()).boxed()
+                .sorted(Comparator.comparingDouble((Integer i) -> dot(vectors.get(i), query)).reversed())
+                .limit(k)
+                .collect(Collectors.toSet());
+    }
+
+    static float[] randomUnitVector(Random random) {
+        float[] vector = new float[DIMENSION];
+        double norm = 0;
+        for (int i = 0; i < DIMENSION; i++) {
+            vector[i] = (float) random.nextGaussian();
+            norm += vector[i] * vector[i];
+        }
+        norm = Math.sqrt(norm);
+        for (int i = 0; i < DIMENSION; i++) {
+            vector[i] = (float) (vector[i] / norm);
+        }
+        return vector;
+    }
+
+    private static double dot(float[] a, float[] b) {
+        double sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+}
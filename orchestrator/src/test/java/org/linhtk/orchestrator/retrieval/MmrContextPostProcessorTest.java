@@ -0,0 +1,157 @@
+package org.linhtk.orchestrator.retrieval;
+
+import org.junit.jupiter.api.Test;
+import org.linhtk.orchestrator.service.VectorStoreService;
+import org.springframework.ai.document.Document;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MmrContextPostProcessorTest {
+
+    private static final float[] QUERY = {1, 0, 0};
+
+    @Test
+    void mmrWithLambdaOneKeepsRelevanceOrder() {
+        List<Document> candidates = List.of(document("a", "k1", 0), document("b", "k1", 5), document("c", "k1", 9));
+        Map<String, float[]> embeddings = Map.of(
+                "a", unit(0.6f, 0.8f, 0),
+                "b", unit(1, 0, 0),
+                "c", unit(0.8f, 0.6f, 0));
+
+        List<Document> selected = MmrContextPostProcessor.mmr(candidates, QUERY, embeddings, 1.0, 3);
+
+        assertThat(selected).extracting(Document::getId).containsExactly("b", "c", "a");
+    }
+
+    @Test
+    void mmrSkipsNearDuplicatesOfSelectedChunks() {
+        List<Document> candidates = List.of(document("a", "k1", 0), document("a-copy", "k1", 5), document("b", "k2", 0));
+        Map<String, float[]> embeddings = Map.of(
+                "a", unit(0.9f, 0.436f, 0),
+                "a-copy", unit(0.9f, 0.435f, 0),
+                "b", unit(0.8f, 0, 0.6f));
+
+        List<Document> selected = MmrContextPostProcessor.mmr(candidates, QUERY, embeddings, 0.5, 2);
+
+        assertThat(selected).extracting(Document::getId).containsExactly("a-copy", "b");
+    }
+
+    @Test
+    void mmrFallsBackToRetrievalScoreWithoutEmbedding() {
+        Document scored = Document.builder().id("x").text("x").score(0.99).build();
+        List<Document> candidates = List.of(document("a", "k1", 0), scored);
+
+        List<Document> selected = MmrContextPostProcessor.mmr(
+                candidates, QUERY, Map.of("a", unit(0.5f, 0.866f, 0)), 0.7, 2);
+
+        assertThat(selected).extracting(Document::getId).containsExactly("x", "a");
+    }
+
+    @Test
+    void mmrWithoutQueryEmbeddingRanksByRetrievalScore() {
+        Document low = Document.builder().id("low").text("low").score(0.4).build();
+        Document high = Document.builder().id("high").text("high").score(0.8).build();
+        Map<String, float[]> embeddings = Map.of("low", unit(0, 1, 0), "high", unit(1, 0, 0));
+
+        List<Document> selected = MmrContextPostProcessor.mmr(List.of(low, high), null, embeddings, 1.0, 2);
+
+        assertThat(selected).extracting(Document::getId).containsExactly("high", "low");
+    }
+
+    @Test
+    void mergeAdjacentJoinsConsecutiveChunksAndTrimsOverlap() {
+        String shared = "shared overlap of the splitter";
+        List<Document> documents = List.of(
+                document("second", "k1", 4, shared + " and the end."),
+                document("other", "k2", 4, "Unrelated passage."),
+                document("first", "k1", 3, "The start of the text with a " + shared));
+
+        List<Document> passages = MmrContextPostProcessor.mergeAdjacent(documents);
+
+        assertThat(passages).extracting(Document::getId).containsExactly("second", "other");
+        Document merged = passages.getFirst();
+        assertThat(merged.getText()).isEqualTo("The start of the text with a " + shared + " and the end.");
+        assertThat(merged.getMetadata())
+                .containsEntry(KnowledgeChunkDocumentRetriever.METADATA_CHUNK_ORDER, 3)
+                .containsEntry(MmrContextPostProcessor.METADATA_MERGED_CHUNKS, 2);
+        assertThat(MmrContextPostProcessor.chunkCount(merged)).isEqualTo(2);
+        assertThat(MmrContextPostProcessor.chunkCount(passages.get(1))).isEqualTo(1);
+    }
+
+    @Test
+    void mergeAdjacentKeepsGapsAndOtherSourcesApart() {
+        List<Document> documents = List.of(
+                document("a", "k1", 1, "First chunk."),
+                document("b", "k1", 3, "Third chunk."),
+                document("c", "k2", 2, "Other source."));
+
+        List<Document> passages = MmrContextPostProcessor.mergeAdjacent(documents);
+
+        assertThat(passages).containsExactlyElementsOf(documents);
+    }
+
+    @Test
+    void mergeAdjacentSeparatesChunksWithoutOverlapByNewline() {
+        List<Document> documents = List.of(
+                document("a", "k1", 0, "First chunk."),
+                document("b", "k1", 1, "Second chunk."));
+
+        List<Document> passages = MmrContextPostProcessor.mergeAdjacent(documents);
+
+        assertThat(passages).singleElement()
+                .extracting(Document::getText)
+                .isEqualTo("First chunk.\nSecond chunk.");
+    }
+
+    @Test
+    void overlapIgnoresMatchesShorterThanTheMinimum() {
+        assertThat(MmrContextPostProcessor.overlap("ends with short", "short start")).isZero();
+        assertThat(MmrContextPostProcessor.overlap("", "anything at all here")).isZero();
+    }
+
+    @Test
+    void overlapFindsTheLongestSuffixPrefixMatch() {
+        String text = "0123456789abcdefghij";
+
+        assertThat(MmrContextPostProcessor.overlap("prefix " + text, text + " suffix")).isEqualTo(text.length());
+        assertThat(MmrContextPostProcessor.overlap(text, text)).isEqualTo(text.length());
+        // "abcdefghij" does overlap, but only by 10 characters
+        assertThat(MmrContextPostProcessor.overlap(text, "abcdefghij0123456789")).isZero();
+    }
+
+    @Test
+    void fitBudgetAlwaysKeepsTheBestPassage() {
+        Document large = document("large", "k1", 0, "word ".repeat(200));
+        Document small = document("small", "k1", 5, "tiny");
+
+        assertThat(MmrContextPostProcessor.fitBudget(List.of(large, small), 10))
+                .extracting(Document::getId)
+                .containsExactly("large");
+        assertThat(MmrContextPostProcessor.fitBudget(List.of(small, large), 10))
+                .extracting(Document::getId)
+                .containsExactly("small");
+        assertThat(MmrContextPostProcessor.fitBudget(List.of(large, small), 0)).hasSize(2);
+    }
+
+    private static Document document(String id, String knowledgeId, int chunkOrder) {
+        return document(id, knowledgeId, chunkOrder, "text of " + id);
+    }
+
+    private static Document document(String id, String knowledgeId, int chunkOrder, String text) {
+        return Document.builder()
+                .id(id)
+                .text(text)
+                .metadata(Map.of(
+                        VectorStoreService.METADATA_KNOWLEDGE_ID, knowledgeId,
+                        KnowledgeChunkDocumentRetriever.METADATA_CHUNK_ORDER, chunkOrder))
+                .build();
+    }
+
+    private static float[] unit(float x, float y, float z) {
+        float norm = (float) Math.sqrt(x * x + y * y + z * z);
+        return new float[]{x / norm, y / norm, z / norm};
+    }
+}
@@ -0,0 +1,40 @@
+package org.linhtk.orchestrator.retrieval;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PackedVectorsTest {
+
+    @Test
+    void growsBeyondInitialCapacityAndKeepsVectors() {
+        PackedVectors vectors = new PackedVectors(3, 1);
+        for (int i = 0; i < 10; i++) {
+            assertThat(vectors.add(new float[]{i, i + 1, i + 2})).isEqualTo(i);
+        }
+
+        assertThat(vectors.size()).isEqualTo(10);
+        assertThat(vectors.get(0)).containsExactly(0, 1, 2);
+        assertThat(vectors.get(9)).containsExactly(9, 10, 11);
+        assertThat(vectors.dot(2, new float[]{1, 0, 1})).isEqualTo(6.0);
+    }
+
+    @Test
+    void getReturnsACopy() {
+        PackedVectors vectors = new PackedVectors(2, 4);
+        vectors.add(new float[]{1, 2});
+
+        vectors.get(0)[0] = 99;
+
+        assertThat(vectors.get(0)).containsExactly(1, 2);
+    }
+
+    @Test
+    void rejectsVectorsOfAnotherDimension() {
+        PackedVectors vectors = new PackedVectors(3, 4);
+
+        assertThatThrownBy(() -> vectors.add(new float[]{1, 2}))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
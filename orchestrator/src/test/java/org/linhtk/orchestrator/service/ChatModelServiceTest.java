@@ -0,0 +1,37 @@
+package org.linhtk.orchestrator.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChatModelServiceTest {
+
+    @Test
+    void retrievalQueryWithoutHistoryIsTheQuestion() {
+        assertThat(ChatModelService.retrievalQuery("What about pricing?", List.of(), 2))
+                .isEqualTo("What about pricing?");
+    }
+
+    @Test
+    void retrievalQueryKeepsTheLatestUserTurnsOldestFirst() {
+        List<String> history = List.of(
+                "User: Tell me about plan A",
+                "Assistant: Plan A includes ...",
+                "User: And plan B?",
+                "Assistant: Plan B includes ...",
+                "User: Which one is cheaper?",
+                "Assistant: Plan A is cheaper");
+
+        assertThat(ChatModelService.retrievalQuery("What about support?", history, 2))
+                .isEqualTo("And plan B?\nWhich one is cheaper?\nWhat about support?");
+    }
+
+    @Test
+    void retrievalQueryWithZeroTurnsIsTheQuestion() {
+        List<String> history = List.of("User: Tell me about plan A", "Assistant: Plan A includes ...");
+
+        assertThat(ChatModelService.retrievalQuery("And plan B?", history, 0)).isEqualTo("And plan B?");
+    }
+}
@@ -0,0 +1,86 @@
+package org.linhtk.orchestrator.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChunkSyncDiffTest {
+
+    @Test
+    void identicalVersionsAreUnchanged() {
+        ChunkSyncDiff diff = ChunkSyncDiff.compute(List.of("a", "b", "c"), List.of("a", "b", "c"));
+
+        assertThat(storedIndexes(diff, 3)).containsExactly(0, 1, 2);
+        assertThat(IntStream.range(0, 3).allMatch(diff::isUnchanged)).isTrue();
+        assertThat(diff.removed()).isEmpty();
+    }
+
+    @Test
+    void insertedChunkDoesNotShiftTheOthers() {
+        ChunkSyncDiff diff = ChunkSyncDiff.compute(List.of("a", "b", "c"), List.of("a", "x", "b", "c"));
+
+        assertThat(storedIndexes(diff, 4)).containsExactly(0, -1, 1, 2);
+        assertThat(diff.isUnchanged(1)).isFalse();
+        assertThat(diff.isUnchanged(2)).isTrue();
+        assertThat(diff.removed()).isEmpty();
+    }
+
+    @Test
+    void deletedChunkIsRemoved() {
+        ChunkSyncDiff diff = ChunkSyncDiff.compute(List.of("a", "b", "c", "d"), List.of("a", "c", "d"));
+
+        assertThat(storedIndexes(diff, 3)).containsExactly(0, 2, 3);
+        assertThat(IntStream.range(0, 3).allMatch(diff::isUnchanged)).isTrue();
+        assertThat(diff.removed()).containsExactly(1);
+    }
+
+    @Test
+    void changedChunkIsUpdatedInPlace() {
+        ChunkSyncDiff diff = ChunkSyncDiff.compute(List.of("a", "b", "c"), List.of("a", "b2", "c"));
+
+        assertThat(storedIndexes(diff, 3)).containsExactly(0, 1, 2);
+        assertThat(diff.isUnchanged(1)).isFalse();
+        assertThat(diff.removed()).isEmpty();
+    }
+
+    @Test
+    void surplusChunksBetweenAnchorsAreInsertedOrRemoved() {
+        ChunkSyncDiff diff = ChunkSyncDiff.compute(
+                List.of("a", "b", "c", "d", "e"),
+                List.of("a", "x", "e", "y", "z"));
+
+        assertThat(storedIndexes(diff, 5)).containsExactly(0, 1, 4, -1, -1);
+        assertThat(diff.isUnchanged(1)).isFalse();
+        assertThat(diff.removed()).containsExactly(2, 3);
+    }
+
+    @Test
+    void duplicateHashesAreMatchedOnce() {
+        ChunkSyncDiff diff = ChunkSyncDiff.compute(List.of("a", "a"), List.of("a", "a", "a"));
+
+        assertThat(storedIndexes(diff, 3)).containsOnlyOnce(-1, 0, 1);
+        assertThat(diff.removed()).isEmpty();
+    }
+
+    @Test
+    void emptyStoredVersionInsertsEverything() {
+        ChunkSyncDiff diff = ChunkSyncDiff.compute(List.of(), List.of("a", "b"));
+
+        assertThat(storedIndexes(diff, 2)).containsExactly(-1, -1);
+        assertThat(diff.removed()).isEmpty();
+    }
+
+    @Test
+    void emptyNewVersionRemovesEverything() {
+        ChunkSyncDiff diff = ChunkSyncDiff.compute(List.of("a", "b"), List.of());
+
+        assertThat(diff.removed()).containsExactly(0, 1);
+    }
+
+    private static List<Integer> storedIndexes(ChunkSyncDiff diff, int updatedSize) {
+        return IntStream.range(0, updatedSize).map(diff::storedIndex).boxed().toList();
+    }
+}
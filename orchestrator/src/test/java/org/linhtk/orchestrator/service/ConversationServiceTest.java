@@ -0,0 +1,26 @@
+package org.linhtk.orchestrator.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConversationServiceTest {
+
+    @Test
+    void questionTitleCollapsesWhitespace() {
+        assertThat(ConversationService.questionTitle("  How do I\n reset   my password? "))
+                .isEqualTo("How do I reset my password?");
+    }
+
+    @Test
+    void questionTitleTruncatesLongQuestions() {
+        String title = ConversationService.questionTitle("a".repeat(250));
+
+        assertThat(title).hasSize(100).endsWith("...");
+    }
+
+    @Test
+    void questionTitleOfBlankQuestionIsTheDefault() {
+        assertThat(ConversationService.questionTitle("   ")).isEqualTo("New Conversation");
+    }
+}
@@ -0,0 +1,77 @@
+package org.linhtk.orchestrator.service;
+
+import org.junit.jupiter.api.Test;
+import org.linhtk.orchestrator.chunking.DocumentChunker;
+import org.linhtk.orchestrator.model.knowledge.KnowledgeChunk;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KnowledgeChunkServiceTest {
+
+    private static final Predicate<KnowledgeChunk> IN_GUIDE =
+            chunk -> "guide.md".equals(chunk.getMetadata().get(DocumentChunker.METADATA_SOURCE));
+
+    @Test
+    void chunkInsertedInTheMiddleKeepsDocumentOrder() {
+        List<KnowledgeChunk> stored = List.of(
+                stored("guide.md", "a", 1), stored("guide.md", "b", 2), stored("guide.md", "c", 3),
+                stored("faq.md", "x", 4));
+        List<String> updated = List.of("a", "new", "b", "c");
+
+        List<KnowledgeChunk> existing = stored.stream().filter(IN_GUIDE).toList();
+        ChunkSyncDiff diff = ChunkSyncDiff.compute(existing.stream().map(KnowledgeChunk::getContent).toList(), updated);
+        List<KnowledgeChunk> fileChunks = new ArrayList<>();
+        for (int i = 0; i < updated.size(); i++) {
+            fileChunks.add(diff.storedIndex(i) >= 0
+                    ? existing.get(diff.storedIndex(i))
+                    : chunk("guide.md", updated.get(i), null));
+        }
+
+        List<KnowledgeChunk> ordered = KnowledgeChunkService.documentOrder(stored, fileChunks, IN_GUIDE);
+
+        assertThat(ordered).extracting(KnowledgeChunk::getContent).containsExactly("a", "new", "b", "c", "x");
+    }
+
+    @Test
+    void otherFilesKeepTheirPlaceAroundTheSyncedFile() {
+        List<KnowledgeChunk> stored = List.of(
+                stored("faq.md", "x", 1), stored("guide.md", "a", 2), stored("guide.md", "b", 3),
+                stored("notes.md", "y", 4));
+        List<KnowledgeChunk> fileChunks = List.of(chunk("guide.md", "b", 3), chunk("guide.md", "a", 2));
+
+        List<KnowledgeChunk> ordered = KnowledgeChunkService.documentOrder(stored, fileChunks, IN_GUIDE);
+
+        assertThat(ordered).extracting(KnowledgeChunk::getContent).containsExactly("x", "b", "a", "y");
+    }
+
+    @Test
+    void newFileGoesAfterTheStoredFiles() {
+        List<KnowledgeChunk> stored = List.of(stored("faq.md", "x", 1));
+        List<KnowledgeChunk> fileChunks = List.of(chunk("guide.md", "a", null), chunk("guide.md", "b", null));
+
+        List<KnowledgeChunk> ordered = KnowledgeChunkService.documentOrder(stored, fileChunks, IN_GUIDE);
+
+        assertThat(ordered).extracting(KnowledgeChunk::getContent).containsExactly("x", "a", "b");
+    }
+
+    private static KnowledgeChunk stored(String source, String content, int order) {
+        KnowledgeChunk chunk = chunk(source, content, order);
+        chunk.setId(source + "-" + order);
+        return chunk;
+    }
+
+    private static KnowledgeChunk chunk(String source, String content, Integer order) {
+        return KnowledgeChunk.builder()
+                .agentKnowledgeId("knowledge")
+                .agentId("agent")
+                .content(content)
+                .chunkOrder(order != null ? order : 0)
+                .metadata(Map.of(DocumentChunker.METADATA_SOURCE, source))
+                .build();
+    }
+}
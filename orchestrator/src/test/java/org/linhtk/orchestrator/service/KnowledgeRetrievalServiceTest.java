@@ -0,0 +1,76 @@
+package org.linhtk.orchestrator.service;
+
+import org.junit.jupiter.api.Test;
+import org.linhtk.orchestrator.retrieval.ChunkSearchHit;
+import org.linhtk.orchestrator.retrieval.SimilarityCutoff;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KnowledgeRetrievalServiceTest {
+
+    @Test
+    void fuseRanksHitsFoundByBothRankingsFirst() {
+        List<ChunkSearchHit> vector = List.of(hit("a"), hit("b"), hit("c"));
+        List<ChunkSearchHit> text = List.of(hit("d"), hit("c"), hit("e"));
+
+        List<ChunkSearchHit> fused = KnowledgeRetrievalService.fuse(List.of(vector, text), 60, 5);
+
+        assertThat(fused).extracting(ChunkSearchHit::id).containsExactly("c", "a", "d", "b", "e");
+    }
+
+    @Test
+    void fuseKeepsTheFirstRankingsHitForDuplicates() {
+        ChunkSearchHit fromVector = new ChunkSearchHit("a", "k1", 0, "vector", Map.of(), 0.9);
+        ChunkSearchHit fromText = new ChunkSearchHit("a", "k1", 0, "text", Map.of(), 0.1);
+
+        List<ChunkSearchHit> fused = KnowledgeRetrievalService.fuse(List.of(List.of(fromVector), List.of(fromText)), 60, 5);
+
+        assertThat(fused).containsExactly(fromVector);
+    }
+
+    @Test
+    void fuseLimitsToTopK() {
+        List<ChunkSearchHit> vector = List.of(hit("a"), hit("b"), hit("c"));
+        List<ChunkSearchHit> text = List.of(hit("b"), hit("d"));
+
+        List<ChunkSearchHit> fused = KnowledgeRetrievalService.fuse(List.of(vector, text), 60, 2);
+
+        assertThat(fused).extracting(ChunkSearchHit::id).containsExactly("b", "a");
+    }
+
+    @Test
+    void fuseOfEmptyRankingsIsEmpty() {
+        assertThat(KnowledgeRetrievalService.fuse(List.of(List.of(), List.of()), 60, 3)).isEmpty();
+    }
+
+    @Test
+    void fuseHybridKeepsTextHitsBelowTheMinSimilarity() {
+        ChunkSearchHit strongVector = new ChunkSearchHit("a", "k1", 0, "a", Map.of(), 0.8);
+        ChunkSearchHit weakVector = new ChunkSearchHit("b", "k1", 1, "b", Map.of(), 0.3);
+        ChunkSearchHit lexical = new ChunkSearchHit("c", "k1", 2, "c", Map.of(), 0.1);
+
+        List<ChunkSearchHit> fused = KnowledgeRetrievalService.fuseHybrid(
+                List.of(strongVector, weakVector), List.of(lexical), new SimilarityCutoff(0.5, 0), 60, 5);
+
+        assertThat(fused).extracting(ChunkSearchHit::id).containsExactly("a", "c");
+    }
+
+    @Test
+    void fuseHybridAppliesTheRelativeDropToVectorHitsOnly() {
+        ChunkSearchHit best = new ChunkSearchHit("a", "k1", 0, "a", Map.of(), 0.9);
+        ChunkSearchHit weak = new ChunkSearchHit("b", "k1", 1, "b", Map.of(), 0.5);
+        ChunkSearchHit lexical = new ChunkSearchHit("c", "k1", 2, "c", Map.of(), 0.2);
+
+        List<ChunkSearchHit> fused = KnowledgeRetrievalService.fuseHybrid(
+                List.of(best, weak), List.of(lexical, weak), new SimilarityCutoff(0, 0.2), 60, 5);
+
+        assertThat(fused).extracting(ChunkSearchHit::id).containsExactly("a", "c", "b");
+    }
+
+    private static ChunkSearchHit hit(String id) {
+        return new ChunkSearchHit(id, "k1", 0, "content " + id, Map.of(), 0.5);
+    }
+}